@@ -37,4 +37,13 @@ public interface PetalsCamelRoute {
      * @return <code>true</code> if the processing was done synchronously (i.e. it is finished when the method returns).
      */
     public boolean process(Exchange exchange);
+
+    /**
+     * Called with the acknowledgement (status DONE or ERROR) of an answer that was sent without waiting for it.
+     * 
+     * @return <code>true</code> if the acknowledgement was expected
+     */
+    public default boolean acknowledged(final Exchange exchange) {
+        return false;
+    }
 }
@@ -17,6 +17,8 @@
  */
 package org.ow2.petals.camel;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
 
@@ -27,6 +29,8 @@ import javax.xml.namespace.QName;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+import org.ow2.petals.camel.component.utils.CircuitBreaker;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter;
 import org.ow2.petals.commons.log.FlowAttributes;
 import org.ow2.petals.component.framework.api.message.Exchange;
 
@@ -74,6 +78,16 @@ public interface PetalsChannel {
 
         public @Nullable ServiceEndpoint resolveEndpoint(QName serviceName, String endpointName);
 
+        /**
+         * @param serviceName
+         *            the service of the endpoints, if {@code null} all the endpoints implementing the interface of this
+         *            consumes are returned
+         * @return the endpoints that can answer the exchanges of this consumes
+         */
+        public default List<ServiceEndpoint> resolveEndpoints(final @Nullable QName serviceName) {
+            return Collections.emptyList();
+        }
+
         /**
          * Create an new JBI exchange according to the current consumer service definition, the provided MEP and the
          * provided flow tracing activation.
@@ -100,6 +114,20 @@ public interface PetalsChannel {
          */
         public String buildTimeoutErrorMsg(final long timeout, final FlowAttributes currentFlowAttributes);
 
+        /**
+         * @return the timeout used when the timeout of a send is less than 0, less than 0 if it is unknown
+         */
+        public default long getDefaultTimeout() {
+            return -1;
+        }
+
+        /**
+         * @return the circuit breaker protecting this consumes, {@code null} if there is none
+         */
+        public default @Nullable CircuitBreaker getCircuitBreaker() {
+            return null;
+        }
+
     }
 
     public interface PetalsProvidesChannel extends PetalsChannel {
@@ -116,6 +144,14 @@ public interface PetalsChannel {
          * @return The flow tracing activation state.
          */
         public boolean isFlowTracingActivated(final @NonNull Exchange exchange);
+
+        /**
+         * @return the admission control of the exchanges received for this provides operation, {@code null} if there
+         *         is none
+         */
+        public default @Nullable ConcurrencyLimiter getConcurrencyLimiter() {
+            return null;
+        }
     }
 
     public interface SendAsyncCallback {
@@ -17,16 +17,40 @@
  */
 package org.ow2.petals.camel.component;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 
 import org.apache.camel.Endpoint;
+import org.apache.camel.Route;
+import org.apache.camel.spi.Metadata;
+import org.apache.camel.spi.ThreadPoolProfile;
 import org.apache.camel.spi.annotations.Component;
 import org.apache.camel.support.DefaultComponent;
 import org.apache.camel.support.DefaultEndpoint;
+import org.apache.camel.util.concurrent.ThreadPoolRejectedPolicy;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.ow2.petals.camel.PetalsCamelContext;
+import org.ow2.petals.camel.ServiceEndpointOperation;
 import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
+import org.ow2.petals.camel.component.utils.AcknowledgementSender;
+import org.ow2.petals.camel.component.utils.AttachmentSpooler;
+import org.ow2.petals.camel.component.utils.BytesSourceConverter;
+import org.ow2.petals.camel.component.utils.Conversions;
+import org.ow2.petals.camel.component.utils.EndpointBalancer;
+import org.ow2.petals.camel.component.utils.ExchangeTarget;
+import org.ow2.petals.camel.component.utils.InFlightWindow;
+import org.ow2.petals.camel.component.utils.LatencyHistogram;
+import org.ow2.petals.camel.component.utils.RequestCollapser;
+import org.ow2.petals.camel.component.utils.ResponseCache;
+import org.ow2.petals.camel.component.utils.VirtualThreads;
 
 /**
  * <p>
@@ -37,9 +61,133 @@ import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
 @Component("petals")
 public class PetalsCamelComponent extends DefaultComponent {
 
+    /**
+     * The maximum time (in milliseconds) to wait for the pending acknowledgements to be sent when stopping
+     */
+    private static final long ACKNOWLEDGEMENTS_FLUSH_TIMEOUT = 10000L;
+
     @Nullable
     private PetalsCamelContext pcc;
 
+    /**
+     * The windows of exchanges in flight of the consumes, shared by all their endpoints
+     */
+    private final ConcurrentMap<ServiceEndpointOperation, InFlightWindow> inFlightWindows = new ConcurrentHashMap<>();
+
+    /**
+     * The collapsers of identical requests, one per consumes
+     */
+    private final ConcurrentMap<ServiceEndpointOperation, RequestCollapser> requestCollapsers =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The caches of responses, one per consumes
+     */
+    private final ConcurrentMap<ServiceEndpointOperation, ResponseCache> responseCaches = new ConcurrentHashMap<>();
+
+    /**
+     * The balancers of exchanges over endpoints, one per consumes
+     */
+    private final ConcurrentMap<ServiceEndpointOperation, EndpointBalancer> endpointBalancers =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The latencies observed, one histogram per target: the endpoints of a consumes may send to different providers
+     */
+    private final ConcurrentMap<ExchangeTarget, LatencyHistogram> latencyHistograms = new ConcurrentHashMap<>();
+
+    @Metadata(
+            label = "advanced", defaultValue = "false", description = "If true, the exchanges received from Petals by synchronous from() endpoints are processed on virtual threads (or on a bounded thread pool if the JVM does not support them) instead of the Petals processor threads, as well as the blocking sends done by their routes"
+    )
+    private boolean virtualThreads;
+
+    @Metadata(
+            label = "advanced", defaultValue = "50", description = "The number of threads (and of exchanges waiting for one) of the pool used instead of the virtual threads when the JVM does not support them, the Petals processor thread processes the exchange itself when they are all busy"
+    )
+    private int virtualThreadsPoolSize = 50;
+
+    @Metadata(
+            label = "advanced", defaultValue = "1000", description = "The maximum number of exchanges processed at the same time on virtual threads, the Petals processor thread processes the exchange itself beyond: a virtual thread is cheap, but the resources used by the route it runs are not"
+    )
+    private int virtualThreadsMaxConcurrency = 1000;
+
+    @Nullable
+    private ExecutorService virtualThreadsExecutor;
+
+    @Nullable
+    private Semaphore virtualThreadsPermits;
+
+    @Metadata(
+            label = "advanced", defaultValue = "10", description = "The number of threads processing the exchanges of the from() endpoints that were queued until their operation could process them, and the batches of exchanges"
+    )
+    private int dispatchPoolSize = 10;
+
+    @Metadata(
+            label = "advanced", defaultValue = "1000", description = "The maximum number of queued exchanges and batches waiting for one of the dispatchPoolSize threads, a queued exchange is answered with an error once it is reached and a batch is processed by the thread that completed it"
+    )
+    private int dispatchQueueSize = 1000;
+
+    @Nullable
+    private ExecutorService dispatchExecutor;
+
+    @Metadata(
+            label = "advanced", defaultValue = "false", description = "If true, the status DONE acknowledging the answers received by to() endpoints is sent by a dedicated sender instead of the thread passing the answer back to the route"
+    )
+    private boolean asyncAcknowledgements;
+
+    @Metadata(
+            label = "advanced", defaultValue = "1000", description = "The maximum number of acknowledgements waiting to be sent when asyncAcknowledgements is true, the thread handling an answer sends its acknowledgement itself when it is reached"
+    )
+    private int acknowledgementQueueSize = 1000;
+
+    @Metadata(
+            label = "advanced", defaultValue = "10000", description = "The time (in milliseconds) given to the exchanges in flight in the from() endpoints to be answered when the SU is stopped"
+    )
+    private long drainTimeout = 10000L;
+
+    @Metadata(
+            label = "advanced", defaultValue = "false", description = "If true, the properties of the messages received from Petals by the from() endpoints are copied to the Camel headers only when the route accesses them, and copied directly to the answer if it never does"
+    )
+    private boolean lazyHeaders;
+
+    @Metadata(
+            label = "advanced", defaultValue = "false", description = "If true, the properties of the Petals exchanges are kept in the Camel exchange properties PetalsOriginalProperties (from() endpoints) and PetalsProperties (to() endpoints) holding all of them, instead of one property each prefixed by PetalsOriginalProperty. or PetalsProperty.: the prefixed properties set by the route are folded into them when sending, but the received properties are only available through them"
+    )
+    private boolean propertiesContainer;
+
+    @Metadata(
+            label = "advanced", defaultValue = "DOM", description = "How the bodies that are not a Source are converted to the content of the messages sent to Petals: parsed to a DOM tree (DOM), serialized to bytes (BYTES), or read once with a StAX reader (STAX) or a stream (STREAM), a DOM is built if the body can't be converted otherwise"
+    )
+    private Conversions.SourceType sourceType = Conversions.SourceType.DOM;
+
+    @Metadata(
+            label = "advanced", defaultValue = "0", description = "If greater than 0, the attachments received from Petals bigger than this size (in bytes) are spooled to temporary files instead of being kept in memory, they are deleted once the Camel exchange is done with them (or once Petals releases them if they were sent to Petals)"
+    )
+    private int attachmentSpoolThreshold;
+
+    @Metadata(
+            label = "advanced", defaultValue = "1073741824", description = "The maximum size (in bytes) of the attachments spooled at the same time by the SU, the attachments are kept in memory once it is reached"
+    )
+    private long attachmentSpoolMaxBytes = 1073741824L;
+
+    @Nullable
+    @Metadata(
+            label = "advanced", description = "The directory where the attachments are spooled, the default temporary directory if not set"
+    )
+    private String attachmentSpoolDirectory;
+
+    @Nullable
+    private AttachmentSpooler attachmentSpooler;
+
+    @Nullable
+    private ExecutorService acknowledgementExecutor;
+
+    @Nullable
+    private AcknowledgementSender acknowledgementSender;
+
+    @Nullable
+    private ScheduledExecutorService timeoutScheduler;
+
     @NonNullByDefault(false)
     @Override
     protected Endpoint createEndpoint(final String uri, final String remaining, final Map<String, Object> parameters)
@@ -63,12 +211,425 @@ public class PetalsCamelComponent extends DefaultComponent {
     @Override
     protected void afterConfiguration(final @Nullable String uri, final @Nullable String remaining,
             final @Nullable Endpoint endpoint, @Nullable Map<String, Object> parameters) throws Exception {
-        if (endpoint instanceof PetalsCamelEndpoint pce && pce.getService().getType() == ServiceType.CONSUMES
-                && pce.getMep() == null && pce.getService().getMEP() == null) {
-            getContext().getLogger()
-                    .warning("No MEP specified neither as an endpoint parameter or in the corresponding Consumes:"
-                            + " the MEP specified on the Camel exchange will be used when creating a Petals exchange");
+        if (endpoint instanceof PetalsCamelEndpoint pce && pce.getService().getType() == ServiceType.CONSUMES) {
+            if (pce.getMep() == null && pce.getService().getMEP() == null) {
+                getContext().getLogger()
+                        .warning("No MEP specified neither as an endpoint parameter or in the corresponding Consumes:"
+                                + " the MEP specified on the Camel exchange will be used when creating a Petals"
+                                + " exchange");
+            }
+            // the endpoint is now fully configured
+            pce.getExchangeTemplate();
+        }
+    }
+
+    /**
+     * The window is created with the configuration of the first endpoint asking for it, it is then shared by all the
+     * endpoints of the same consumes.
+     */
+    public InFlightWindow getInFlightWindow(final PetalsCamelEndpoint endpoint) {
+        final InFlightWindow window = this.inFlightWindows.computeIfAbsent(endpoint.getService(),
+                service -> new InFlightWindow(service, endpoint.getMaxInFlight(), endpoint.getInFlightPolicy(),
+                        endpoint.getInFlightQueueSize(), task -> getDispatchExecutor().execute(task)));
+        if (window.getMaxInFlight() != endpoint.getMaxInFlight() || window.getPolicy() != endpoint.getInFlightPolicy()
+                || window.getQueueSize() != endpoint.getInFlightQueueSize()) {
+            getContext().getLogger().warning("The endpoint " + endpoint.getEndpointUri()
+                    + " declares a different window of exchanges in flight than another endpoint of the same consumes,"
+                    + " the existing one is used: " + window);
+        }
+        return window;
+    }
+
+    /**
+     * The collapser is shared by all the endpoints of the same consumes collapsing their requests.
+     */
+    public RequestCollapser getRequestCollapser(final PetalsCamelEndpoint endpoint) {
+        return this.requestCollapsers.computeIfAbsent(endpoint.getService(), service -> new RequestCollapser(service,
+                task -> getDispatchExecutor().execute(task), this::getTimeoutScheduler));
+    }
+
+    /**
+     * The cache is created with the configuration of the first endpoint asking for it, it is then shared by all the
+     * endpoints of the same consumes.
+     */
+    public ResponseCache getResponseCache(final PetalsCamelEndpoint endpoint) {
+        final ResponseCache cache = this.responseCaches.computeIfAbsent(endpoint.getService(),
+                service -> new ResponseCache(service, endpoint.getCacheTtl(), endpoint.getCacheMaxEntries(),
+                        endpoint.getCacheMaxBytes()));
+        if (cache.getTtl() != endpoint.getCacheTtl() || cache.getMaxEntries() != endpoint.getCacheMaxEntries()
+                || cache.getMaxBytes() != endpoint.getCacheMaxBytes()) {
+            getContext().getLogger().warning("The endpoint " + endpoint.getEndpointUri()
+                    + " declares a different response cache than another endpoint of the same consumes,"
+                    + " the existing one is used: " + cache);
+        }
+        return cache;
+    }
+
+    /**
+     * The balancer is created with the strategy of the first endpoint asking for it, it is then shared by all the
+     * endpoints of the same consumes.
+     */
+    public EndpointBalancer getEndpointBalancer(final PetalsCamelEndpoint endpoint) {
+        final EndpointBalancer balancer = this.endpointBalancers.computeIfAbsent(endpoint.getService(),
+                service -> new EndpointBalancer(service, endpoint.getLoadBalancing()));
+        if (balancer.getStrategy() != endpoint.getLoadBalancing()) {
+            getContext().getLogger().warning("The endpoint " + endpoint.getEndpointUri()
+                    + " declares a different load balancing than another endpoint of the same consumes,"
+                    + " the existing one is used: " + balancer);
+        }
+        return balancer;
+    }
+
+    /**
+     * The histogram is shared by all the endpoints sending to the same target.
+     */
+    public LatencyHistogram getLatencyHistogram(final ExchangeTarget target) {
+        return this.latencyHistograms.computeIfAbsent(target, LatencyHistogram::new);
+    }
+
+    /**
+     * The scheduler of the hedged requests and of the timeouts of the collapsed requests of the to() endpoints.
+     */
+    public synchronized ScheduledExecutorService getTimeoutScheduler() {
+        ScheduledExecutorService result = this.timeoutScheduler;
+        if (result == null) {
+            result = getCamelContext().getExecutorServiceManager().newSingleThreadScheduledExecutor(this,
+                    "PetalsTimeouts");
+            assert result != null;
+            this.timeoutScheduler = result;
+        }
+        return result;
+    }
+
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    public void setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getVirtualThreadsPoolSize() {
+        return this.virtualThreadsPoolSize;
+    }
+
+    public void setVirtualThreadsPoolSize(final int virtualThreadsPoolSize) {
+        this.virtualThreadsPoolSize = virtualThreadsPoolSize;
+    }
+
+    public int getVirtualThreadsMaxConcurrency() {
+        return this.virtualThreadsMaxConcurrency;
+    }
+
+    public void setVirtualThreadsMaxConcurrency(final int virtualThreadsMaxConcurrency) {
+        this.virtualThreadsMaxConcurrency = virtualThreadsMaxConcurrency;
+    }
+
+    /**
+     * The permits of the exchanges processed at the same time on the executor returned by
+     * {@link #getVirtualThreadsExecutor()}: nothing else bounds the number of virtual threads.
+     */
+    public synchronized Semaphore getVirtualThreadsPermits() {
+        Semaphore result = this.virtualThreadsPermits;
+        if (result == null) {
+            result = new Semaphore(this.virtualThreadsMaxConcurrency);
+            this.virtualThreadsPermits = result;
+        }
+        return result;
+    }
+
+    /**
+     * The executor used to process the exchanges of the endpoints using virtual threads.
+     * 
+     * When the JVM does not support them, it is a bounded pool that runs the tasks on the calling thread once it is
+     * full, so that the Petals processor threads are still slowed down when the routes can't keep up.
+     */
+    public synchronized ExecutorService getVirtualThreadsExecutor() {
+        ExecutorService result = this.virtualThreadsExecutor;
+        if (result == null) {
+            if (VirtualThreads.isSupported()) {
+                result = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            } else {
+                getContext().getLogger().warning("Virtual threads are not supported by the JVM, a pool of "
+                        + this.virtualThreadsPoolSize + " threads is used instead");
+                final ThreadPoolProfile profile = new ThreadPoolProfile("PetalsSyncProcessing");
+                profile.setPoolSize(this.virtualThreadsPoolSize);
+                profile.setMaxPoolSize(this.virtualThreadsPoolSize);
+                profile.setMaxQueueSize(this.virtualThreadsPoolSize);
+                profile.setRejectedPolicy(ThreadPoolRejectedPolicy.CallerRuns);
+                result = getCamelContext().getExecutorServiceManager().newThreadPool(this, "PetalsSyncProcessing",
+                        profile);
+            }
+            assert result != null;
+            this.virtualThreadsExecutor = result;
+        }
+        return result;
+    }
+
+    public int getDispatchPoolSize() {
+        return this.dispatchPoolSize;
+    }
+
+    public void setDispatchPoolSize(final int dispatchPoolSize) {
+        this.dispatchPoolSize = dispatchPoolSize;
+    }
+
+    public int getDispatchQueueSize() {
+        return this.dispatchQueueSize;
+    }
+
+    public void setDispatchQueueSize(final int dispatchQueueSize) {
+        this.dispatchQueueSize = dispatchQueueSize;
+    }
+
+    /**
+     * The executor processing the exchanges that the thread handing them over must not process itself: the queued
+     * exchanges of the from() endpoints and the parked and collapsed exchanges of the to() endpoints, released by the
+     * answer of another exchange, and the batches, completed by a Petals processor thread or the batch scheduler.
+     * 
+     * It rejects the tasks once its queue is full.
+     */
+    public synchronized ExecutorService getDispatchExecutor() {
+        ExecutorService result = this.dispatchExecutor;
+        if (result == null) {
+            final ThreadPoolProfile profile = new ThreadPoolProfile("PetalsDispatch");
+            profile.setPoolSize(this.dispatchPoolSize);
+            profile.setMaxPoolSize(this.dispatchPoolSize);
+            profile.setMaxQueueSize(this.dispatchQueueSize);
+            profile.setRejectedPolicy(ThreadPoolRejectedPolicy.Abort);
+            result = getCamelContext().getExecutorServiceManager().newThreadPool(this, "PetalsDispatch", profile);
+            assert result != null;
+            this.dispatchExecutor = result;
+        }
+        return result;
+    }
+
+    public boolean isAsyncAcknowledgements() {
+        return this.asyncAcknowledgements;
+    }
+
+    public void setAsyncAcknowledgements(final boolean asyncAcknowledgements) {
+        this.asyncAcknowledgements = asyncAcknowledgements;
+    }
+
+    public boolean isLazyHeaders() {
+        return this.lazyHeaders;
+    }
+
+    public void setLazyHeaders(final boolean lazyHeaders) {
+        this.lazyHeaders = lazyHeaders;
+    }
+
+    public boolean isPropertiesContainer() {
+        return this.propertiesContainer;
+    }
+
+    public void setPropertiesContainer(final boolean propertiesContainer) {
+        this.propertiesContainer = propertiesContainer;
+    }
+
+    public Conversions.SourceType getSourceType() {
+        return this.sourceType;
+    }
+
+    public void setSourceType(final Conversions.SourceType sourceType) {
+        this.sourceType = sourceType;
+    }
+
+    public int getAttachmentSpoolThreshold() {
+        return this.attachmentSpoolThreshold;
+    }
+
+    public void setAttachmentSpoolThreshold(final int attachmentSpoolThreshold) {
+        this.attachmentSpoolThreshold = attachmentSpoolThreshold;
+    }
+
+    public long getAttachmentSpoolMaxBytes() {
+        return this.attachmentSpoolMaxBytes;
+    }
+
+    public void setAttachmentSpoolMaxBytes(final long attachmentSpoolMaxBytes) {
+        this.attachmentSpoolMaxBytes = attachmentSpoolMaxBytes;
+    }
+
+    public @Nullable String getAttachmentSpoolDirectory() {
+        return this.attachmentSpoolDirectory;
+    }
+
+    public void setAttachmentSpoolDirectory(final @Nullable String attachmentSpoolDirectory) {
+        this.attachmentSpoolDirectory = attachmentSpoolDirectory;
+    }
+
+    /**
+     * The spooler of the attachments received from Petals, {@code null} if they are not spooled.
+     */
+    public synchronized @Nullable AttachmentSpooler getAttachmentSpooler() {
+        if (this.attachmentSpoolThreshold <= 0) {
+            return null;
+        }
+        AttachmentSpooler result = this.attachmentSpooler;
+        if (result == null) {
+            final String directory = this.attachmentSpoolDirectory;
+            result = new AttachmentSpooler(this.attachmentSpoolThreshold, this.attachmentSpoolMaxBytes,
+                    directory == null ? null : Paths.get(directory));
+            this.attachmentSpooler = result;
+        }
+        return result;
+    }
+
+    public long getDrainTimeout() {
+        return this.drainTimeout;
+    }
+
+    public void setDrainTimeout(final long drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+
+    public int getAcknowledgementQueueSize() {
+        return this.acknowledgementQueueSize;
+    }
+
+    public void setAcknowledgementQueueSize(final int acknowledgementQueueSize) {
+        this.acknowledgementQueueSize = acknowledgementQueueSize;
+    }
+
+    /**
+     * The sender of the acknowledgements of the to() endpoints, {@code null} if they are sent directly.
+     */
+    public synchronized @Nullable AcknowledgementSender getAcknowledgementSender() {
+        if (!this.asyncAcknowledgements) {
+            return null;
+        }
+        AcknowledgementSender result = this.acknowledgementSender;
+        if (result == null) {
+            final ExecutorService executor = getCamelContext().getExecutorServiceManager()
+                    .newSingleThreadExecutor(this, "PetalsAcknowledgements");
+            assert executor != null;
+            result = new AcknowledgementSender(executor, this.acknowledgementQueueSize, getContext().getLogger());
+            this.acknowledgementExecutor = executor;
+            this.acknowledgementSender = result;
+        }
+        return result;
+    }
+
+    private List<PetalsCamelConsumer> getConsumers() {
+        final List<PetalsCamelConsumer> consumers = new ArrayList<>();
+        for (final Route route : getCamelContext().getRoutes()) {
+            if (route.getConsumer() instanceof PetalsCamelConsumer consumer) {
+                consumers.add(consumer);
+            }
+        }
+        return consumers;
+    }
+
+    /**
+     * Suspend the from() endpoints and wait for their exchanges in flight to be answered, to be called when the SU is
+     * stopped: the exchanges received in the meantime are answered with an error.
+     * 
+     * @return <code>true</code> if all the exchanges in flight were answered before the drain timeout
+     */
+    public boolean suspendAndDrainConsumers() {
+        final List<PetalsCamelConsumer> consumers = getConsumers();
+        for (final PetalsCamelConsumer consumer : consumers) {
+            consumer.suspend();
+        }
+
+        final long deadline = System.currentTimeMillis() + this.drainTimeout;
+        try {
+            for (final PetalsCamelConsumer consumer : consumers) {
+                if (!consumer.awaitDrained(Math.max(0, deadline - System.currentTimeMillis()))) {
+                    getContext().getLogger().warning(consumer.getInFlight() + " exchanges were still in flight in "
+                            + consumer.getEndpoint().getEndpointUri() + " after the drain timeout");
+                    return false;
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            getContext().getLogger().warning("Interrupted while draining the exchanges in flight");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Resume the from() endpoints suspended by {@link #suspendAndDrainConsumers()}, to be called when the SU is
+     * started.
+     */
+    public void resumeConsumers() {
+        for (final PetalsCamelConsumer consumer : getConsumers()) {
+            if (consumer.isSuspended()) {
+                consumer.resume();
+            }
+        }
+    }
+
+    /**
+     * Wait for the pending acknowledgements to be sent, to be called when the SU is stopped.
+     */
+    public void flushAcknowledgements() {
+        final AcknowledgementSender sender;
+        synchronized (this) {
+            sender = this.acknowledgementSender;
+        }
+        if (sender != null) {
+            try {
+                if (!sender.flush(ACKNOWLEDGEMENTS_FLUSH_TIMEOUT)) {
+                    getContext().getLogger().warning(
+                            sender.getPending() + " acknowledgements were still pending after the flush timeout");
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                getContext().getLogger().warning("Interrupted while flushing the pending acknowledgements");
+            }
+        }
+    }
+
+    @Override
+    protected void doInit() throws Exception {
+        super.doInit();
+        BytesSourceConverter.register(getCamelContext().getTypeConverterRegistry());
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        flushAcknowledgements();
+
+        final ExecutorService executor;
+        final ExecutorService dispatcher;
+        final ExecutorService ackExecutor;
+        final ExecutorService scheduler;
+        final AttachmentSpooler spooler;
+        synchronized (this) {
+            executor = this.virtualThreadsExecutor;
+            this.virtualThreadsExecutor = null;
+            this.virtualThreadsPermits = null;
+            dispatcher = this.dispatchExecutor;
+            this.dispatchExecutor = null;
+            ackExecutor = this.acknowledgementExecutor;
+            this.acknowledgementExecutor = null;
+            this.acknowledgementSender = null;
+            scheduler = this.timeoutScheduler;
+            this.timeoutScheduler = null;
+            spooler = this.attachmentSpooler;
+            this.attachmentSpooler = null;
+        }
+        if (executor != null) {
+            getCamelContext().getExecutorServiceManager().shutdown(executor);
+        }
+        if (dispatcher != null) {
+            getCamelContext().getExecutorServiceManager().shutdown(dispatcher);
+        }
+        if (ackExecutor != null) {
+            getCamelContext().getExecutorServiceManager().shutdown(ackExecutor);
+        }
+        if (scheduler != null) {
+            getCamelContext().getExecutorServiceManager().shutdown(scheduler);
+        }
+        if (spooler != null) {
+            // the exchanges are done, the attachments still referenced by Petals won't be released anymore
+            spooler.close();
         }
+        super.doStop();
     }
 
     public PetalsCamelContext getContext() {
@@ -17,6 +17,13 @@
  */
 package org.ow2.petals.camel.component;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import javax.jbi.messaging.MessagingException;
@@ -24,69 +31,324 @@ import javax.jbi.messaging.MessagingException;
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.apache.camel.Suspendable;
+import org.apache.camel.model.ModelCamelContext;
+import org.apache.camel.model.ProcessorDefinition;
+import org.apache.camel.model.RouteDefinition;
+import org.apache.camel.model.ToDefinition;
 import org.apache.camel.support.DefaultConsumer;
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
 import org.ow2.petals.camel.PetalsCamelRoute;
 import org.ow2.petals.camel.PetalsChannel.PetalsProvidesChannel;
 import org.ow2.petals.camel.PetalsChannel.SendAsyncCallback;
+import org.ow2.petals.camel.component.PetalsCamelEndpoint.AnswerAcknowledgement;
+import org.ow2.petals.camel.component.exceptions.OverloadedException;
+import org.ow2.petals.camel.component.exceptions.SuspendedRouteException;
+import org.ow2.petals.camel.component.utils.AcknowledgementTracker;
+import org.ow2.petals.camel.component.utils.AttachmentSpooler;
+import org.ow2.petals.camel.component.utils.Batcher;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter.Admission;
 import org.ow2.petals.camel.component.utils.Conversions;
+import org.ow2.petals.camel.component.utils.Deadlines;
+import org.ow2.petals.camel.component.utils.ExecutionContextHelper;
+import org.ow2.petals.camel.component.utils.PassThroughPayload;
+import org.ow2.petals.camel.component.utils.PetalsProperties;
+import org.ow2.petals.camel.component.utils.SpooledAttachments;
 import org.ow2.petals.commons.log.FlowAttributes;
 import org.ow2.petals.commons.log.PetalsExecutionContext;
 
-// TODO should I be suspendable?
-public class PetalsCamelConsumer extends DefaultConsumer implements PetalsCamelRoute {
+/**
+ * A PetalsConsumer get messages from Petals and pass them to a Camel route
+ * 
+ * When it is suspended, the new exchanges are answered with an error while the ones in flight are processed, so that
+ * it can be drained before its SU is stopped.
+ */
+public class PetalsCamelConsumer extends DefaultConsumer implements PetalsCamelRoute, Suspendable {
+
+    /**
+     * The time (in milliseconds) after which an answer sent without waiting for its acknowledgement is counted as not
+     * acknowledged, if the endpoint does not set one
+     */
+    private static final long DEFAULT_ACKNOWLEDGEMENT_TRACKING_TIMEOUT = 30000L;
 
     private final PetalsProvidesChannel provides;
 
+    /**
+     * The number of exchanges being processed by the route
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Object drained = new Object();
+
+    private final AcknowledgementTracker acknowledgements;
+
+    private boolean passThrough;
+
+    @Nullable
+    private ScheduledExecutorService batchScheduler;
+
+    @Nullable
+    private Batcher<org.ow2.petals.component.framework.api.message.Exchange> batcher;
+
+    /**
+     * The deadlines of the exchanges waiting for their batch to be processed, by exchange id
+     */
+    private final ConcurrentMap<String, Long> batchDeadlines = new ConcurrentHashMap<>();
+
+    /**
+     * The flow attributes of the exchanges waiting for their batch to be processed, by exchange id
+     */
+    private final ConcurrentMap<String, FlowAttributes> batchFlowAttributes = new ConcurrentHashMap<>();
+
     public PetalsCamelConsumer(final PetalsCamelEndpoint endpoint, final Processor processor) {
         super(endpoint, processor);
         this.provides = endpoint.getComponent().getContext().getProvidesChannel(endpoint.getService());
+        this.acknowledgements = endpoint.getAcknowledgementTracker();
     }
 
     @Override
     protected void doStart() throws Exception {
         super.doStart();
+        this.passThrough = getEndpoint().isPassThrough();
+        if (this.passThrough) {
+            if (!isPassThroughRoute()) {
+                this.provides.getLogger().warning("The route " + getRouteId()
+                        + " passes the content through but is not only made of to() to Petals endpoints: the content"
+                        + " received from Petals is sent back as is if the route changes it without setting the body");
+            } else if (this.provides.getLogger().isLoggable(Level.FINE)) {
+                this.provides.getLogger().fine("The route " + getRouteId() + " passes the content through");
+            }
+        }
+        if (getEndpoint().getBatchSize() > 1) {
+            final ScheduledExecutorService scheduler = getEndpoint().getCamelContext().getExecutorServiceManager()
+                    .newSingleThreadScheduledExecutor(this, "PetalsBatch");
+            assert scheduler != null;
+            this.batchScheduler = scheduler;
+            this.batcher = new Batcher<>(getEndpoint().getBatchSize(), getEndpoint().getBatchTimeout(), scheduler,
+                    this::dispatchBatch);
+        }
         // let's register so that when MEX are received, they will be passed to us
         getEndpoint().getComponent().getContext().registerRoute(getEndpoint().getService(), this);
     }
 
+    /**
+     * A route only made of to() to Petals endpoints never changes the content it receives, so it can safely pass it
+     * through
+     */
+    private boolean isPassThroughRoute() {
+        if (!(getEndpoint().getCamelContext() instanceof ModelCamelContext modelContext)) {
+            return false;
+        }
+        final RouteDefinition route = modelContext.getRouteDefinition(getRouteId());
+        if (route == null || route.getOutputs().isEmpty()) {
+            return false;
+        }
+        for (final ProcessorDefinition<?> output : route.getOutputs()) {
+            if (!(output instanceof ToDefinition to)) {
+                return false;
+            }
+            final String uri = to.getEndpointUri();
+            if (uri == null || !uri.startsWith("petals:")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the content received from Petals is sent back as is while the route does not change
+     *         it
+     */
+    public boolean isPassThrough() {
+        return this.passThrough;
+    }
+
     @Override
     protected void doStop() throws Exception {
         // we unregister
         getEndpoint().getComponent().getContext().unregisterRoute(getEndpoint().getService());
+
+        final Batcher<org.ow2.petals.component.framework.api.message.Exchange> currentBatcher = this.batcher;
+        final ScheduledExecutorService scheduler = this.batchScheduler;
+        this.batcher = null;
+        this.batchScheduler = null;
+        if (currentBatcher != null) {
+            currentBatcher.flush();
+        }
+        if (scheduler != null) {
+            getEndpoint().getCamelContext().getExecutorServiceManager().shutdown(scheduler);
+        }
+
         super.doStop();
     }
 
+    @Override
+    protected void doSuspend() throws Exception {
+        // the exchanges waiting for their batch to be full are processed right away, so that the consumer is drained
+        final Batcher<org.ow2.petals.component.framework.api.message.Exchange> currentBatcher = this.batcher;
+        if (currentBatcher != null) {
+            currentBatcher.flush();
+        }
+        super.doSuspend();
+    }
+
     @Override
     public boolean process(final org.ow2.petals.component.framework.api.message.Exchange exchange) {
 
-        final Exchange camelExchange = getEndpoint().createExchange();
-        assert camelExchange != null;
+        // the time spent waiting to be processed counts
+        final long deadline = Deadlines.deadline(exchange, getEndpoint().getDeadline());
 
-        final boolean currentFlowTracingActivation = this.provides.isFlowTracingActivated(exchange);
-        Conversions.populateNewCamelExchange(exchange, currentFlowTracingActivation, camelExchange);
+        final ConcurrencyLimiter limiter = this.provides.getConcurrencyLimiter();
+        if (limiter == null) {
+            return doProcess(exchange, deadline);
+        }
 
-        if (getEndpoint().isSynchronous()) {
-            // in that case, this method won't return until the route is fully executed
+        final FlowAttributes current = PetalsExecutionContext.getFlowAttributes();
+        final Admission admission = limiter.admit(() -> processQueued(exchange, deadline, current),
+                () -> ExecutionContextHelper.runWithFlowAttributes(current,
+                        () -> reject(exchange, new OverloadedException(this.provides,
+                                "the exchange waited too long to be processed"))));
+        switch (admission) {
+            case ADMITTED:
+                return doProcess(exchange, deadline);
+            case QUEUED:
+                if (this.provides.getLogger().isLoggable(Level.FINE)) {
+                    this.provides.getLogger().fine("The exchange " + exchange.getExchangeId()
+                            + " is queued until the route can process it: " + limiter);
+                }
+                return false;
+            case REJECTED:
+            default:
+                reject(exchange, new OverloadedException(this.provides, "too many exchanges are processed"));
+                return true;
+        }
+    }
 
-            if (this.provides.getLogger().isLoggable(Level.FINE)) {
-                this.provides.getLogger().fine("Processing a Camel exchange (with id: " + exchange.getExchangeId()
-                        + ") with the route in sync mode");
-            }
+    /**
+     * A queued exchange is processed on another thread: the one releasing its place must not be blocked
+     */
+    private void processQueued(final org.ow2.petals.component.framework.api.message.Exchange exchange,
+            final long deadline, final @Nullable FlowAttributes flowAttributes) {
+        try {
+            getEndpoint().getComponent().getDispatchExecutor()
+                    .execute(() -> ExecutionContextHelper.runWithFlowAttributes(flowAttributes,
+                            () -> doProcess(exchange, deadline)));
+        } catch (final RejectedExecutionException e) {
+            ExecutionContextHelper.runWithFlowAttributes(flowAttributes, () -> reject(exchange,
+                    new OverloadedException(this.provides, "the exchange can't be dispatched")));
+            releaseAdmission();
+        }
+    }
 
-            try {
-                getProcessor().process(camelExchange);
-            } catch (final Exception e) {
-                this.provides.getLogger().log(Level.SEVERE,
-                        "Just set an error on the Petals Exchange " + exchange.getExchangeId(), e);
-                exchange.setError(e);
-            }
+    private void releaseAdmission() {
+        final ConcurrencyLimiter limiter = this.provides.getConcurrencyLimiter();
+        if (limiter != null) {
+            // the route is done with the exchange, the next one can be processed
+            limiter.release();
+        }
+    }
+
+    /**
+     * Answer immediately with an error to an exchange that is not processed by the route
+     */
+    private void reject(final org.ow2.petals.component.framework.api.message.Exchange exchange,
+            final MessagingException error) {
+        this.provides.getLogger().warning("The exchange " + exchange.getExchangeId() + " is rejected: "
+                + error.getMessage());
+        exchange.setError(error);
+        try {
+            this.provides.send(exchange);
+        } catch (final MessagingException e) {
+            this.provides.getLogger().log(Level.SEVERE,
+                    "An exchange (" + exchange.getExchangeId() + ") couldn't be sent back", e);
+        }
+    }
+
+    /**
+     * @param deadline
+     *            the deadline of the exchange (in milliseconds since the epoch), {@link Long#MAX_VALUE} if it has none
+     */
+    private boolean doProcess(final org.ow2.petals.component.framework.api.message.Exchange exchange,
+            final long deadline) {
+
+        if (isSuspendingOrSuspended()) {
+            reject(exchange, new SuspendedRouteException(this.provides));
+            releaseAdmission();
+            return true;
+        }
+
+        this.inFlight.incrementAndGet();
 
-            if (PetalsCamelConsumer.this.provides.getLogger().isLoggable(Level.FINE)) {
-                PetalsCamelConsumer.this.provides.getLogger().fine("Handling a Camel exchange (with id: "
-                        + exchange.getExchangeId() + ") processed by the route in sync mode ");
+        final Batcher<org.ow2.petals.component.framework.api.message.Exchange> currentBatcher = this.batcher;
+        if (currentBatcher != null && (MEPPatternConstants.IN_ONLY.value().equals(exchange.getPattern())
+                || MEPPatternConstants.ROBUST_IN_ONLY.value().equals(exchange.getPattern()))) {
+            // it will be answered once its batch is processed
+            if (deadline != Long.MAX_VALUE) {
+                this.batchDeadlines.put(exchange.getExchangeId(), deadline);
             }
+            final FlowAttributes flowAttributes = PetalsExecutionContext.getFlowAttributes();
+            if (flowAttributes != null) {
+                this.batchFlowAttributes.put(exchange.getExchangeId(), flowAttributes);
+            }
+            currentBatcher.add(exchange);
+            // waiting for its batch is not processing it: with fewer admissions than the size of the batches, they
+            // would never be full
+            releaseAdmission();
+            return false;
+        }
+
+        // the exchange is released once answered, so that it can be recycled if the Camel context pools them
+        final Exchange camelExchange = createExchange(false);
+        assert camelExchange != null;
+
+        if (this.passThrough) {
+            PassThroughPayload.enable(camelExchange);
+        }
+        enableSpooling(camelExchange);
+
+        final boolean currentFlowTracingActivation = this.provides.isFlowTracingActivated(exchange);
+        if (getEndpoint().getComponent().isPropertiesContainer()) {
+            PetalsProperties.getOrCreate(camelExchange, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTIES);
+        }
+        Conversions.populateNewCamelExchange(exchange, currentFlowTracingActivation,
+                getEndpoint().getComponent().isLazyHeaders(), camelExchange);
+        Deadlines.stamp(camelExchange, deadline);
 
-            handleAnswer(camelExchange, exchange);
+        if (getEndpoint().isSynchronous() && getEndpoint().isVirtualThreads()) {
+            // the route is executed synchronously, but not on the Petals processor thread: it is released, and the
+            // blocking sends of the route only block a virtual thread
+            final PetalsCamelComponent component = getEndpoint().getComponent();
+            final Semaphore permits = component.getVirtualThreadsPermits();
+            if (!permits.tryAcquire()) {
+                if (this.provides.getLogger().isLoggable(Level.FINE)) {
+                    this.provides.getLogger().fine("Too many exchanges processed on virtual threads, the exchange "
+                            + exchange.getExchangeId() + " is processed on the current thread");
+                }
+                processSynchronously(camelExchange, exchange);
+                return true;
+            }
+            final FlowAttributes current = PetalsExecutionContext.getFlowAttributes();
+            try {
+                component.getVirtualThreadsExecutor().execute(() -> {
+                    try {
+                        ExecutionContextHelper.runWithFlowAttributes(current,
+                                () -> processSynchronously(camelExchange, exchange));
+                    } finally {
+                        permits.release();
+                    }
+                });
+                return false;
+            } catch (final RejectedExecutionException e) {
+                permits.release();
+                this.provides.getLogger().log(Level.WARNING, "Can't process the exchange " + exchange.getExchangeId()
+                        + " on a virtual thread, it is processed on the current thread", e);
+                processSynchronously(camelExchange, exchange);
+                return true;
+            }
+        } else if (getEndpoint().isSynchronous()) {
+            processSynchronously(camelExchange, exchange);
             return true;
         } else {
             if (this.provides.getLogger().isLoggable(Level.FINE)) {
@@ -122,11 +384,192 @@ public class PetalsCamelConsumer extends DefaultConsumer implements PetalsCamelR
         }
     }
 
+    /**
+     * In that case, this method won't return until the route is fully executed
+     */
+    private void processSynchronously(final Exchange camelExchange,
+            final org.ow2.petals.component.framework.api.message.Exchange exchange) {
+        if (this.provides.getLogger().isLoggable(Level.FINE)) {
+            this.provides.getLogger().fine("Processing a Camel exchange (with id: " + exchange.getExchangeId()
+                    + ") with the route in sync mode");
+        }
+
+        try {
+            getProcessor().process(camelExchange);
+        } catch (final Exception e) {
+            this.provides.getLogger().log(Level.SEVERE,
+                    "Just set an error on the Petals Exchange " + exchange.getExchangeId(), e);
+            exchange.setError(e);
+        }
+
+        if (PetalsCamelConsumer.this.provides.getLogger().isLoggable(Level.FINE)) {
+            PetalsCamelConsumer.this.provides.getLogger().fine("Handling a Camel exchange (with id: "
+                    + exchange.getExchangeId() + ") processed by the route in sync mode ");
+        }
+
+        handleAnswer(camelExchange, exchange);
+    }
+
     private void handleAnswer(final Exchange camelExchange,
             final org.ow2.petals.component.framework.api.message.Exchange exchange) {
 
         try {
-            Conversions.populateAnswerPetalsExchange(camelExchange, exchange);
+            doHandleAnswer(camelExchange, exchange);
+        } finally {
+            // the answer was copied to the Petals exchange, the Camel exchange is not needed anymore
+            SpooledAttachments.release(camelExchange);
+            releaseExchange(camelExchange, false);
+            releaseAdmission();
+            answered(1);
+        }
+    }
+
+    /**
+     * The attachments are released once the answer is sent, and not when the route is done, since they may be part of
+     * the answer
+     */
+    private void enableSpooling(final Exchange camelExchange) {
+        final AttachmentSpooler spooler = getEndpoint().getComponent().getAttachmentSpooler();
+        if (spooler != null) {
+            SpooledAttachments.enable(camelExchange, spooler, false);
+        }
+    }
+
+    /**
+     * The admissions of the batched exchanges are released as soon as they are added to their batch
+     */
+    private void answered(final int count) {
+        if (this.inFlight.addAndGet(-count) == 0) {
+            synchronized (this.drained) {
+                this.drained.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A batch is processed on another thread: the one adding its last exchange or the batch scheduler must not be
+     * blocked. It is processed with the flow attributes of its first exchange.
+     */
+    private void dispatchBatch(final List<org.ow2.petals.component.framework.api.message.Exchange> batch) {
+        final FlowAttributes flowAttributes = this.batchFlowAttributes.get(batch.get(0).getExchangeId());
+        try {
+            getEndpoint().getComponent().getDispatchExecutor()
+                    .execute(() -> ExecutionContextHelper.runWithFlowAttributes(flowAttributes,
+                            () -> processBatch(batch)));
+        } catch (final RejectedExecutionException e) {
+            ExecutionContextHelper.runWithFlowAttributes(flowAttributes, () -> processBatch(batch));
+        }
+    }
+
+    private void processBatch(final List<org.ow2.petals.component.framework.api.message.Exchange> batch) {
+        final org.ow2.petals.component.framework.api.message.Exchange first = batch.get(0);
+
+        final Exchange camelExchange = createExchange(false);
+        assert camelExchange != null;
+
+        if (getEndpoint().getComponent().isPropertiesContainer()) {
+            PetalsProperties.getOrCreate(camelExchange, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTIES);
+        }
+        enableSpooling(camelExchange);
+        Conversions.populateBatchCamelExchange(batch, this.provides.isFlowTracingActivated(first),
+                getEndpoint().getComponent().isLazyHeaders(), camelExchange);
+        // the route must be done before the most urgent exchange of the batch is useless
+        long deadline = Long.MAX_VALUE;
+        for (final org.ow2.petals.component.framework.api.message.Exchange exchange : batch) {
+            this.batchFlowAttributes.remove(exchange.getExchangeId());
+            final Long batched = this.batchDeadlines.remove(exchange.getExchangeId());
+            if (batched != null) {
+                deadline = Math.min(deadline, batched);
+            }
+        }
+        Deadlines.stamp(camelExchange, deadline);
+
+        if (this.provides.getLogger().isLoggable(Level.FINE)) {
+            this.provides.getLogger().fine("Processing a batch of " + batch.size() + " exchanges (first id: "
+                    + first.getExchangeId() + ") with the route");
+        }
+
+        if (getEndpoint().isSynchronous()) {
+            try {
+                getProcessor().process(camelExchange);
+            } catch (final Exception e) {
+                camelExchange.setException(e);
+            }
+            handleBatchAnswer(camelExchange, batch);
+        } else {
+            getAsyncProcessor().process(camelExchange, doneSync -> handleBatchAnswer(camelExchange, batch));
+        }
+    }
+
+    /**
+     * Each exchange of the batch gets its own answer: as they are InOnly or RobustInOnly, there is no acknowledgement
+     * to wait for
+     */
+    private void handleBatchAnswer(final Exchange camelExchange,
+            final List<org.ow2.petals.component.framework.api.message.Exchange> batch) {
+        final AttachmentSpooler spooler = getEndpoint().getComponent().getAttachmentSpooler();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                final org.ow2.petals.component.framework.api.message.Exchange exchange = batch.get(i);
+                try {
+                    Conversions.populateBatchAnswerPetalsExchange(camelExchange, i, exchange);
+                } catch (final MessagingException e) {
+                    this.provides.getLogger().log(Level.SEVERE,
+                            "Just set an error on the Petals Exchange " + exchange.getExchangeId(), e);
+                    exchange.setError(e);
+                }
+                if (spooler != null && exchange.isActiveStatus()) {
+                    // the fault is acknowledged by the consumer once read
+                    spooler.share(exchange.getExchangeId(), exchange.getFault());
+                }
+                try {
+                    this.provides.send(exchange);
+                } catch (final MessagingException e) {
+                    this.provides.getLogger().log(Level.SEVERE,
+                            "An exchange (" + exchange.getExchangeId() + ") couldn't be sent back", e);
+                    terminated(exchange);
+                }
+            }
+        } finally {
+            SpooledAttachments.release(camelExchange);
+            releaseExchange(camelExchange, false);
+            answered(batch.size());
+        }
+    }
+
+    /**
+     * @return the number of exchanges being processed by the route
+     */
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * Wait for the exchanges being processed by the route to be answered, it is meant to be used once the consumer is
+     * suspended.
+     * 
+     * @return <code>true</code> if there is no more exchange in flight, <code>false</code> if the timeout elapsed
+     */
+    public boolean awaitDrained(final long timeout) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        synchronized (this.drained) {
+            while (this.inFlight.get() > 0) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                this.drained.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    private void doHandleAnswer(final Exchange camelExchange,
+            final org.ow2.petals.component.framework.api.message.Exchange exchange) {
+
+        try {
+            Conversions.populateAnswerPetalsExchange(camelExchange, exchange,
+                    getEndpoint().getComponent().getSourceType());
         } catch (final MessagingException e) {
             // this must be caught before sending to be sure that if an error happens here it is sent back!
             this.provides.getLogger().log(Level.SEVERE,
@@ -134,24 +577,37 @@ public class PetalsCamelConsumer extends DefaultConsumer implements PetalsCamelR
             exchange.setError(e);
         }
 
+        final AttachmentSpooler spooler = getEndpoint().getComponent().getAttachmentSpooler();
         try {
             if (!exchange.isActiveStatus()) {
                 this.provides.send(exchange);
             } else {
-                // TODO maybe we should render that answer synchronicity configurable... for now let's use sendAsync in
-                // order not to tie resources for simple acknowledging (there is no need to block the current execution
-                // nor anything)
-                // TODO and actually, shouldn't I WAIT for it before letting other continue, or before letting this
-                // method to return... which others? maybe not then!
-                // TODO for now the timeout is not settable, let's use default provides value (-1) as a starter...
                 final boolean wasFault = exchange.getFault() != null;
                 final boolean wasOut = exchange.isOutMessage();
                 final boolean expectingAnswer = wasFault || wasOut;
-                if (getEndpoint().isSynchronous()) {
-                    final boolean ok = this.provides.sendSync(exchange, -1L);
+                if (spooler != null) {
+                    // the consumer may read the attachments of the answer until it acknowledges it
+                    spooler.share(exchange.getExchangeId(),
+                            wasFault ? exchange.getFault() : wasOut ? exchange.getOutMessage() : null);
+                }
+                final long timeout = getEndpoint().getAnswerAcknowledgementTimeout();
+                AnswerAcknowledgement mode = getEndpoint().getAnswerAcknowledgement();
+                if (mode == AnswerAcknowledgement.FIRE_AND_FORGET && exchange.isInOptionalOutPattern() && wasOut) {
+                    // the consumer may answer with a fault that must be acknowledged
+                    mode = AnswerAcknowledgement.ASYNC;
+                }
+                if (mode == AnswerAcknowledgement.FIRE_AND_FORGET) {
+                    // the acknowledgement will be received by the listener and passed to acknowledged()
+                    final String exchangeId = exchange.getExchangeId();
+                    this.acknowledgements.track(exchangeId,
+                            timeout > 0 ? timeout : DEFAULT_ACKNOWLEDGEMENT_TRACKING_TIMEOUT,
+                            spooler == null ? null : () -> spooler.terminated(exchangeId));
+                    this.provides.send(exchange);
+                } else if (mode == AnswerAcknowledgement.SYNC) {
+                    final boolean ok = this.provides.sendSync(exchange, timeout);
                     handleAnswerAnswer(wasOut, expectingAnswer, exchange, !ok);
                 } else {
-                    this.provides.sendAsync(exchange, -1L, new SendAsyncCallback() {
+                    this.provides.sendAsync(exchange, timeout, new SendAsyncCallback() {
                         @Override
                         public void done(final org.ow2.petals.component.framework.api.message.Exchange exchange,
                                 final boolean timedOut) {
@@ -164,18 +620,54 @@ public class PetalsCamelConsumer extends DefaultConsumer implements PetalsCamelR
             // if the send fails, there is nothing we can do except logging the error
             provides.getLogger().log(Level.SEVERE,
                     "An exchange (" + exchange.getExchangeId() + ") couldn't be sent back", e);
+            if (spooler != null) {
+                spooler.terminated(exchange.getExchangeId());
+            }
+        }
+    }
+
+    @Override
+    public boolean acknowledged(final org.ow2.petals.component.framework.api.message.Exchange exchange) {
+        terminated(exchange);
+        if (getEndpoint().getAnswerAcknowledgement() != AnswerAcknowledgement.FIRE_AND_FORGET) {
+            return false;
+        }
+        if (this.provides.getLogger().isLoggable(Level.FINE)) {
+            this.provides.getLogger().fine("Received acknowledgment for our previous answer (id: "
+                    + exchange.getExchangeId() + ")");
+        }
+        this.acknowledgements.onAcknowledgement(exchange.getExchangeId(), exchange.isErrorStatus());
+        return true;
+    }
+
+    /**
+     * The consumer is done with the answer: its spooled attachments can be deleted
+     */
+    private void terminated(final org.ow2.petals.component.framework.api.message.Exchange exchange) {
+        final AttachmentSpooler spooler = getEndpoint().getComponent().getAttachmentSpooler();
+        if (spooler != null) {
+            spooler.terminated(exchange.getExchangeId());
         }
     }
 
     private void handleAnswerAnswer(final boolean wasOut, final boolean expectingAnswer,
             final org.ow2.petals.component.framework.api.message.Exchange exchange, final boolean timedOut) {
+        terminated(exchange);
         if (timedOut) {
-            provides.getLogger().warning("The exchange I sent back to the NMR never got acknowledged, it timed out: "
-                    + exchange.getExchangeId());
+            // counted instead of logged: under load, it would flood the logs
+            this.acknowledgements.onTimeout();
+            if (provides.getLogger().isLoggable(Level.FINE)) {
+                provides.getLogger().fine("The exchange I sent back to the NMR never got acknowledged, it timed out: "
+                        + exchange.getExchangeId());
+            }
         } else {
             provides.getLogger()
                     .fine("Got an answer from my request I sent to the NMR for exchange " + exchange.getExchangeId());
 
+            if (exchange.isDoneStatus() || exchange.isErrorStatus()) {
+                this.acknowledgements.onAcknowledgement(exchange.isErrorStatus());
+            }
+
             if (expectingAnswer && exchange.isDoneStatus()) {
                 if (provides.getLogger().isLoggable(Level.FINE)) {
                     provides.getLogger().fine("Correctly received acknowledgment for our previous answer (id: "
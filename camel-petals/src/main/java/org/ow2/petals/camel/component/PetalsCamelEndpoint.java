@@ -19,6 +19,7 @@ package org.ow2.petals.camel.component;
 
 import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 
 import javax.xml.namespace.QName;
@@ -30,6 +31,8 @@ import org.apache.camel.Processor;
 import org.apache.camel.Producer;
 import org.apache.camel.ResolveEndpointFailedException;
 import org.apache.camel.RuntimeCamelException;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.spi.Metadata;
 import org.apache.camel.spi.UriEndpoint;
 import org.apache.camel.spi.UriParam;
@@ -42,6 +45,14 @@ import org.ow2.petals.camel.ServiceEndpointOperation;
 import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
 import org.ow2.petals.camel.component.exceptions.IncompatibleEndpointUsageException;
 import org.ow2.petals.camel.component.exceptions.InvalidURIException;
+import org.ow2.petals.camel.component.utils.AcknowledgementTracker;
+import org.ow2.petals.camel.component.utils.CircuitBreaker;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter;
+import org.ow2.petals.camel.component.utils.EndpointBalancer;
+import org.ow2.petals.camel.component.utils.InFlightWindow;
+import org.ow2.petals.camel.component.utils.LatencyHistogram;
+import org.ow2.petals.camel.component.utils.RequestCollapser;
+import org.ow2.petals.camel.component.utils.ResponseCache;
 import org.ow2.petals.camel.helpers.MEPHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +61,7 @@ import org.slf4j.LoggerFactory;
         firstVersion = "1.0.0", scheme = "petals", syntax = "petals:serviceId", title = "Petals ESB", category = {
                 Category.WEBSERVICE }, headersClass = PetalsConstants.class
 )
+@ManagedResource(description = "Managed Petals endpoint")
 public class PetalsCamelEndpoint extends DefaultEndpoint {
 
     private static final Logger LOG = LoggerFactory.getLogger(PetalsCamelEndpoint.class);
@@ -68,6 +80,46 @@ public class PetalsCamelEndpoint extends DefaultEndpoint {
 
     private static final String PARAMETER_MEP = "exchangePattern";
 
+    private static final String PARAMETER_VIRTUAL_THREADS = "virtualThreads";
+
+    private static final String PARAMETER_DEADLINE = "deadline";
+
+    private static final String PARAMETER_ANSWER_ACKNOWLEDGEMENT = "answerAcknowledgement";
+
+    private static final String PARAMETER_ANSWER_ACKNOWLEDGEMENT_TIMEOUT = "answerAcknowledgementTimeout";
+
+    private static final String PARAMETER_BATCH_SIZE = "batchSize";
+
+    private static final String PARAMETER_PASS_THROUGH = "passThrough";
+
+    private static final String PARAMETER_BATCH_TIMEOUT = "batchTimeout";
+
+    private static final String PARAMETER_MAX_IN_FLIGHT = "maxInFlight";
+
+    private static final String PARAMETER_COLLAPSE = "collapse";
+
+    private static final String PARAMETER_LOAD_BALANCING = "loadBalancing";
+
+    private static final String PARAMETER_HEDGE_PERCENTILE = "hedgePercentile";
+
+    private static final String PARAMETER_ADAPTIVE_TIMEOUT_PERCENTILE = "adaptiveTimeoutPercentile";
+
+    private static final String PARAMETER_ADAPTIVE_TIMEOUT_MULTIPLIER = "adaptiveTimeoutMultiplier";
+
+    private static final String PARAMETER_ADAPTIVE_TIMEOUT_MIN = "adaptiveTimeoutMin";
+
+    private static final String PARAMETER_ADAPTIVE_TIMEOUT_MAX = "adaptiveTimeoutMax";
+
+    private static final String PARAMETER_CACHE_TTL = "cacheTtl";
+
+    private static final String PARAMETER_CACHE_MAX_ENTRIES = "cacheMaxEntries";
+
+    private static final String PARAMETER_CACHE_MAX_BYTES = "cacheMaxBytes";
+
+    private static final String PARAMETER_IN_FLIGHT_POLICY = "inFlightPolicy";
+
+    private static final String PARAMETER_IN_FLIGHT_QUEUE_SIZE = "inFlightQueueSize";
+
     private static final String FORBIDDEN_FROM_FORMAT = "The parameter %s can't be set on a from() endpoint";
 
     private static final String FORBIDDEN_TO_FORMAT = "The parameter %s can't be set on a to() endpoint";
@@ -109,9 +161,133 @@ public class PetalsCamelEndpoint extends DefaultEndpoint {
     )
     private String endpointName;
 
+    @UriParam(
+            name = PARAMETER_MAX_IN_FLIGHT, defaultValue = "0", label = "consumer,advanced", description = "If greater than 0, the maximum number of exchanges in flight for the corresponding Consumes, shared by all its endpoints"
+    )
+    private int maxInFlight = 0;
+
+    @UriParam(
+            name = PARAMETER_IN_FLIGHT_POLICY, defaultValue = "BLOCK", label = "consumer,advanced", description = "What to do with an exchange when the maximum number of exchanges in flight is reached: BLOCK the caller, REJECT the exchange or QUEUE it"
+    )
+    private InFlightWindow.Policy inFlightPolicy = InFlightWindow.Policy.BLOCK;
+
+    @UriParam(
+            name = PARAMETER_IN_FLIGHT_QUEUE_SIZE, defaultValue = "1000", label = "consumer,advanced", description = "The maximum number of exchanges queued when the maximum number of exchanges in flight is reached with the QUEUE policy"
+    )
+    private int inFlightQueueSize = 1000;
+
+    @UriParam(
+            name = PARAMETER_COLLAPSE, label = "consumer,advanced", defaultValue = "false", description = "If true, the identical requests (same service, endpoint, operation, MEP and payload) sent concurrently to the Consumes share the same Petals exchange and its answer, it must only be used with idempotent operations"
+    )
+    private boolean collapse = false;
+
+    @UriParam(
+            name = PARAMETER_LOAD_BALANCING, label = "consumer,advanced", defaultValue = "NONE", description = "How the endpoint is chosen when neither the Consumes nor the endpoint set one: by the NMR (NONE), or client-side among the endpoints of the service or interface by the least exchanges in flight (LEAST_OUTSTANDING) or by comparing the latency of two random endpoints (POWER_OF_TWO_CHOICES)"
+    )
+    private EndpointBalancer.Strategy loadBalancing = EndpointBalancer.Strategy.NONE;
+
+    @UriParam(
+            name = PARAMETER_HEDGE_PERCENTILE, label = "consumer,advanced", defaultValue = "0", description = "If greater than 0, an InOut exchange sent asynchronously and not answered after this percentile (e.g. 95) of the latencies observed for the target of the endpoint (same service, endpoint and operation) is sent again to another endpoint of the service or interface, the first answer is used and the other one is only acknowledged, it must only be used with idempotent operations"
+    )
+    private double hedgePercentile = 0;
+
+    @UriParam(
+            name = PARAMETER_ADAPTIVE_TIMEOUT_PERCENTILE, label = "consumer,advanced", defaultValue = "0", description = "If greater than 0, the timeout is adapted to the latencies observed for the target of the endpoint (same service, endpoint and operation): it is this percentile (e.g. 99) of the latencies multiplied by adaptiveTimeoutMultiplier, between adaptiveTimeoutMin and adaptiveTimeoutMax, the option timeout is used until enough latencies are observed"
+    )
+    private double adaptiveTimeoutPercentile = 0;
+
+    @UriParam(
+            name = PARAMETER_ADAPTIVE_TIMEOUT_MULTIPLIER, label = "consumer,advanced", defaultValue = "3", description = "The multiple of the observed percentile used as adaptive timeout"
+    )
+    private double adaptiveTimeoutMultiplier = 3;
+
+    @UriParam(
+            name = PARAMETER_ADAPTIVE_TIMEOUT_MIN, label = "consumer,advanced", defaultValue = "1000", description = "The minimum adaptive timeout in milliseconds"
+    )
+    private long adaptiveTimeoutMin = 1000;
+
+    @UriParam(
+            name = PARAMETER_ADAPTIVE_TIMEOUT_MAX, label = "consumer,advanced", defaultValue = "60000", description = "The maximum adaptive timeout in milliseconds"
+    )
+    private long adaptiveTimeoutMax = 60000;
+
+    @UriParam(
+            name = PARAMETER_CACHE_TTL, label = "consumer,advanced", defaultValue = "0", description = "If greater than 0, the responses of the Consumes are cached for this time (in milliseconds) and identical requests (same service, endpoint, operation, MEP and payload) are answered from the cache, it must only be used with idempotent operations"
+    )
+    private long cacheTtl = 0;
+
+    @UriParam(
+            name = PARAMETER_CACHE_MAX_ENTRIES, label = "consumer,advanced", defaultValue = "1000", description = "The maximum number of responses cached, the least recently used ones are evicted first"
+    )
+    private int cacheMaxEntries = 1000;
+
+    @UriParam(
+            name = PARAMETER_CACHE_MAX_BYTES, label = "consumer,advanced", defaultValue = "16777216", description = "The maximum size (in bytes) of the payloads of the responses cached, 0 for no limit"
+    )
+    private long cacheMaxBytes = 16777216L;
+
+    @Nullable
+    @UriParam(
+            name = PARAMETER_VIRTUAL_THREADS, label = "provider,advanced", description = "If set, overrides the component option: if true and synchronous is true, the exchanges received from Petals are processed on virtual threads instead of the Petals processor threads"
+    )
+    private Boolean virtualThreads;
+
+    @UriParam(
+            name = PARAMETER_DEADLINE, label = "provider,advanced", defaultValue = "0", description = "If greater than 0, the time (in milliseconds) given to the route to process an exchange received from Petals: the timeouts of the exchanges sent to Petals by the route are reduced to the remaining time and they fail immediately once it is spent"
+    )
+    private long deadline = 0;
+
+    @Nullable
+    @UriParam(
+            name = PARAMETER_ANSWER_ACKNOWLEDGEMENT, label = "provider,advanced", description = "How the answers sent back to Petals are acknowledged: by waiting for the acknowledgement (SYNC), by receiving it asynchronously (ASYNC) or by not waiting for it and only counting it (FIRE_AND_FORGET), if not set then SYNC if synchronous is true else ASYNC"
+    )
+    private AnswerAcknowledgement answerAcknowledgement;
+
+    @UriParam(
+            name = PARAMETER_ANSWER_ACKNOWLEDGEMENT_TIMEOUT, label = "provider,advanced", defaultValue = "-1", description = "If 0 then no timeout, if <0 then use the default timeout from the component else specify the timeout in milliseconds of the acknowledgement of the answers sent back to Petals"
+    )
+    private long answerAcknowledgementTimeout = -1;
+
+    private final AcknowledgementTracker acknowledgementTracker = new AcknowledgementTracker();
+
+    @UriParam(
+            name = PARAMETER_PASS_THROUGH, label = "provider,advanced", defaultValue = "false", description = "If true, the content of the messages received from Petals is sent back to Petals as is, without any conversion, as long as the route does not change the body of the message: it must only be set on routes that never modify the content they receive in place, such as the routes only made of to() to Petals endpoints"
+    )
+    private boolean passThrough = false;
+
+    @UriParam(
+            name = PARAMETER_BATCH_SIZE, label = "provider,advanced", defaultValue = "0", description = "If greater than 1, the InOnly and RobustInOnly exchanges received from Petals are processed by batches of this size: the route receives one Camel exchange whose body is the list of their messages, and each of them is answered once the route is finished, with an error if the route failed or if it is set in the property PetalsBatchErrors"
+    )
+    private int batchSize = 0;
+
+    @UriParam(
+            name = PARAMETER_BATCH_TIMEOUT, label = "provider,advanced", defaultValue = "1000", description = "The time (in milliseconds) after which a batch is processed even if it is not full"
+    )
+    private long batchTimeout = 1000L;
+
     // option to allow end user to force whether async processing should be used or not (if possible)
     private boolean synchronous;
 
+    @Nullable
+    private PetalsExchangeTemplate exchangeTemplate;
+
+    @Nullable
+    private InFlightWindow inFlightWindow;
+
+    @Nullable
+    private RequestCollapser requestCollapser;
+
+    @Nullable
+    private ResponseCache responseCache;
+
+    @Nullable
+    private EndpointBalancer endpointBalancer;
+
+    @Nullable
+    private LatencyHistogram latencyHistogram;
+
+    private final LongAdder hedgedRequests = new LongAdder();
+
     public PetalsCamelEndpoint(final String endpointUri, final PetalsCamelComponent component, final String remaining)
             throws Exception {
         super(endpointUri, component);
@@ -190,6 +366,76 @@ public class PetalsCamelEndpoint extends DefaultEndpoint {
             this.synchronous = Boolean.parseBoolean(synchronousParameter);
         }
 
+        final String virtualThreadsParameter = (String) options.remove(PARAMETER_VIRTUAL_THREADS);
+        if (virtualThreadsParameter != null) {
+            // virtual threads are only supported if this is a from() (i.e. a provides in the SU)
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                this.virtualThreads = Boolean.valueOf(virtualThreadsParameter);
+            } else {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_TO_FORMAT, PARAMETER_VIRTUAL_THREADS)
+                        + ": only the exchanges received from Petals by a from() endpoint are processed on virtual"
+                        + " threads, the sends of a to() endpoint are done on the thread of the route");
+            }
+        }
+
+        final String deadlineParameter = (String) options.remove(PARAMETER_DEADLINE);
+        if (deadlineParameter != null) {
+            // deadline is only supported if this is a from() (i.e. a provides in the SU)
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                this.deadline = Long.parseLong(deadlineParameter);
+            } else {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_TO_FORMAT, PARAMETER_DEADLINE));
+            }
+        }
+
+        final String answerAcknowledgementParameter = (String) options.remove(PARAMETER_ANSWER_ACKNOWLEDGEMENT);
+        if (answerAcknowledgementParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                this.answerAcknowledgement = AnswerAcknowledgement.valueOf(answerAcknowledgementParameter);
+            } else {
+                throw new RuntimeCamelException(
+                        String.format(FORBIDDEN_TO_FORMAT, PARAMETER_ANSWER_ACKNOWLEDGEMENT));
+            }
+        }
+
+        final String passThroughParameter = (String) options.remove(PARAMETER_PASS_THROUGH);
+        if (passThroughParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                this.passThrough = Boolean.parseBoolean(passThroughParameter);
+            } else {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_TO_FORMAT, PARAMETER_PASS_THROUGH));
+            }
+        }
+
+        final String batchSizeParameter = (String) options.remove(PARAMETER_BATCH_SIZE);
+        if (batchSizeParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                this.batchSize = Integer.parseInt(batchSizeParameter);
+            } else {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_TO_FORMAT, PARAMETER_BATCH_SIZE));
+            }
+        }
+
+        final String batchTimeoutParameter = (String) options.remove(PARAMETER_BATCH_TIMEOUT);
+        if (batchTimeoutParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                this.batchTimeout = Long.parseLong(batchTimeoutParameter);
+            } else {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_TO_FORMAT, PARAMETER_BATCH_TIMEOUT));
+            }
+        }
+
+        final String answerAcknowledgementTimeoutParameter = (String) options
+                .remove(PARAMETER_ANSWER_ACKNOWLEDGEMENT_TIMEOUT);
+        if (answerAcknowledgementTimeoutParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                this.answerAcknowledgementTimeout = Long.parseLong(answerAcknowledgementTimeoutParameter);
+            } else {
+                throw new RuntimeCamelException(
+                        String.format(FORBIDDEN_TO_FORMAT, PARAMETER_ANSWER_ACKNOWLEDGEMENT_TIMEOUT));
+            }
+        }
+
         final String serviceParameter = (String) options.remove(PARAMETER_SERVICE);
         if (serviceParameter != null) {
             if (this.service.getType() == ServiceType.PROVIDES) {
@@ -223,6 +469,115 @@ public class PetalsCamelEndpoint extends DefaultEndpoint {
             this.endpointName = endpointParameter;
         }
 
+        final String maxInFlightParameter = (String) options.remove(PARAMETER_MAX_IN_FLIGHT);
+        if (maxInFlightParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_MAX_IN_FLIGHT));
+            }
+            this.maxInFlight = Integer.parseInt(maxInFlightParameter);
+        }
+
+        final String inFlightPolicyParameter = (String) options.remove(PARAMETER_IN_FLIGHT_POLICY);
+        if (inFlightPolicyParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_IN_FLIGHT_POLICY));
+            }
+            this.inFlightPolicy = InFlightWindow.Policy.valueOf(inFlightPolicyParameter);
+        }
+
+        final String inFlightQueueSizeParameter = (String) options.remove(PARAMETER_IN_FLIGHT_QUEUE_SIZE);
+        if (inFlightQueueSizeParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(
+                        String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_IN_FLIGHT_QUEUE_SIZE));
+            }
+            this.inFlightQueueSize = Integer.parseInt(inFlightQueueSizeParameter);
+        }
+
+        final String collapseParameter = (String) options.remove(PARAMETER_COLLAPSE);
+        if (collapseParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_COLLAPSE));
+            }
+            this.collapse = Boolean.parseBoolean(collapseParameter);
+        }
+
+        final String loadBalancingParameter = (String) options.remove(PARAMETER_LOAD_BALANCING);
+        if (loadBalancingParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_LOAD_BALANCING));
+            }
+            this.loadBalancing = EndpointBalancer.Strategy.valueOf(loadBalancingParameter);
+        }
+
+        final String hedgePercentileParameter = (String) options.remove(PARAMETER_HEDGE_PERCENTILE);
+        if (hedgePercentileParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_HEDGE_PERCENTILE));
+            }
+            this.hedgePercentile = Double.parseDouble(hedgePercentileParameter);
+        }
+
+        final String adaptiveTimeoutPercentileParameter = (String) options
+                .remove(PARAMETER_ADAPTIVE_TIMEOUT_PERCENTILE);
+        if (adaptiveTimeoutPercentileParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(
+                        String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_ADAPTIVE_TIMEOUT_PERCENTILE));
+            }
+            this.adaptiveTimeoutPercentile = Double.parseDouble(adaptiveTimeoutPercentileParameter);
+        }
+
+        final String adaptiveTimeoutMultiplierParameter = (String) options
+                .remove(PARAMETER_ADAPTIVE_TIMEOUT_MULTIPLIER);
+        if (adaptiveTimeoutMultiplierParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(
+                        String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_ADAPTIVE_TIMEOUT_MULTIPLIER));
+            }
+            this.adaptiveTimeoutMultiplier = Double.parseDouble(adaptiveTimeoutMultiplierParameter);
+        }
+
+        final String adaptiveTimeoutMinParameter = (String) options.remove(PARAMETER_ADAPTIVE_TIMEOUT_MIN);
+        if (adaptiveTimeoutMinParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_ADAPTIVE_TIMEOUT_MIN));
+            }
+            this.adaptiveTimeoutMin = Long.parseLong(adaptiveTimeoutMinParameter);
+        }
+
+        final String adaptiveTimeoutMaxParameter = (String) options.remove(PARAMETER_ADAPTIVE_TIMEOUT_MAX);
+        if (adaptiveTimeoutMaxParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_ADAPTIVE_TIMEOUT_MAX));
+            }
+            this.adaptiveTimeoutMax = Long.parseLong(adaptiveTimeoutMaxParameter);
+        }
+
+        final String cacheTtlParameter = (String) options.remove(PARAMETER_CACHE_TTL);
+        if (cacheTtlParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_CACHE_TTL));
+            }
+            this.cacheTtl = Long.parseLong(cacheTtlParameter);
+        }
+
+        final String cacheMaxEntriesParameter = (String) options.remove(PARAMETER_CACHE_MAX_ENTRIES);
+        if (cacheMaxEntriesParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_CACHE_MAX_ENTRIES));
+            }
+            this.cacheMaxEntries = Integer.parseInt(cacheMaxEntriesParameter);
+        }
+
+        final String cacheMaxBytesParameter = (String) options.remove(PARAMETER_CACHE_MAX_BYTES);
+        if (cacheMaxBytesParameter != null) {
+            if (this.service.getType() == ServiceType.PROVIDES) {
+                throw new RuntimeCamelException(String.format(FORBIDDEN_FROM_FORMAT, PARAMETER_CACHE_MAX_BYTES));
+            }
+            this.cacheMaxBytes = Long.parseLong(cacheMaxBytesParameter);
+        }
+
         final String operation = (String) options.remove(PARAMETER_OPERATION);
         if (operation != null) {
             if (this.service.getType() == ServiceType.PROVIDES) {
@@ -242,6 +597,55 @@ public class PetalsCamelEndpoint extends DefaultEndpoint {
         return timeout;
     }
 
+    public double getAdaptiveTimeoutPercentile() {
+        return adaptiveTimeoutPercentile;
+    }
+
+    public double getAdaptiveTimeoutMultiplier() {
+        return adaptiveTimeoutMultiplier;
+    }
+
+    public long getAdaptiveTimeoutMin() {
+        return adaptiveTimeoutMin;
+    }
+
+    public long getAdaptiveTimeoutMax() {
+        return adaptiveTimeoutMax;
+    }
+
+    /**
+     * The timeout to use for the next exchange: the adaptive timeout if it is enabled and enough latencies were
+     * observed, else the option timeout.
+     */
+    @ManagedAttribute(description = "Timeout (in milliseconds) currently used for the exchanges sent to the Consumes")
+    public long getEffectiveTimeout() {
+        final LatencyHistogram histogram = getLatencyHistogram();
+        if (this.adaptiveTimeoutPercentile <= 0 || histogram == null || !histogram.isSignificant()) {
+            return this.timeout;
+        }
+        final long adaptive = Math
+                .round(histogram.getPercentile(this.adaptiveTimeoutPercentile) * this.adaptiveTimeoutMultiplier);
+        return Math.min(this.adaptiveTimeoutMax, Math.max(this.adaptiveTimeoutMin, adaptive));
+    }
+
+    /**
+     * The latencies observed for the target of this endpoint, {@code null} if they are not needed.
+     */
+    public @Nullable LatencyHistogram getLatencyHistogram() {
+        LatencyHistogram result = this.latencyHistogram;
+        if (result == null && (this.hedgePercentile > 0 || this.adaptiveTimeoutPercentile > 0)) {
+            result = getComponent().getLatencyHistogram(getExchangeTemplate().getTarget());
+            this.latencyHistogram = result;
+        }
+        return result;
+    }
+
+    @ManagedAttribute(description = "Percentiles of the latencies observed for the target of the endpoint")
+    public @Nullable String getLatencies() {
+        final LatencyHistogram histogram = getLatencyHistogram();
+        return histogram == null ? null : histogram.toString();
+    }
+
     public @Nullable QName getOperation() {
         return operation;
     }
@@ -254,6 +658,201 @@ public class PetalsCamelEndpoint extends DefaultEndpoint {
         return endpointName;
     }
 
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public InFlightWindow.Policy getInFlightPolicy() {
+        return inFlightPolicy;
+    }
+
+    public int getInFlightQueueSize() {
+        return inFlightQueueSize;
+    }
+
+    /**
+     * The window of exchanges in flight of the corresponding Consumes, {@code null} if the number of exchanges in
+     * flight is not limited.
+     */
+    public @Nullable InFlightWindow getInFlightWindow() {
+        InFlightWindow result = this.inFlightWindow;
+        if (result == null && this.maxInFlight > 0) {
+            result = getComponent().getInFlightWindow(this);
+            this.inFlightWindow = result;
+        }
+        return result;
+    }
+
+    @ManagedAttribute(description = "Number of exchanges in flight for the corresponding Consumes")
+    public int getInFlight() {
+        final InFlightWindow window = getInFlightWindow();
+        return window == null ? 0 : window.getInFlight();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges waiting for a place in the window of exchanges in flight")
+    public int getInFlightParked() {
+        final InFlightWindow window = getInFlightWindow();
+        return window == null ? 0 : window.getParked();
+    }
+
+    public boolean isCollapse() {
+        return collapse;
+    }
+
+    /**
+     * The collapser of the identical requests of the corresponding Consumes, {@code null} if requests are not
+     * collapsed.
+     */
+    public @Nullable RequestCollapser getRequestCollapser() {
+        RequestCollapser result = this.requestCollapser;
+        if (result == null && this.collapse) {
+            result = getComponent().getRequestCollapser(this);
+            this.requestCollapser = result;
+        }
+        return result;
+    }
+
+    @ManagedAttribute(description = "Number of requests not sent because an identical request was in flight")
+    public long getCollapsedRequests() {
+        final RequestCollapser collapser = getRequestCollapser();
+        return collapser == null ? 0 : collapser.getCollapsed();
+    }
+
+    /**
+     * The circuit breaker of the corresponding Consumes, {@code null} if there is none (or if this is a from()).
+     */
+    public @Nullable CircuitBreaker getCircuitBreaker() {
+        if (this.service.getType() != ServiceType.CONSUMES) {
+            return null;
+        }
+        return getComponent().getContext().getConsumesChannel(this.service).getCircuitBreaker();
+    }
+
+    @ManagedAttribute(description = "State of the circuit breaker of the Consumes (CLOSED, OPEN or HALF_OPEN)")
+    public @Nullable String getCircuitBreakerState() {
+        final CircuitBreaker breaker = getCircuitBreaker();
+        return breaker == null ? null : breaker.getState().name();
+    }
+
+    @ManagedAttribute(description = "Number of state changes of the circuit breaker of the Consumes")
+    public long getCircuitBreakerTransitions() {
+        final CircuitBreaker breaker = getCircuitBreaker();
+        return breaker == null ? 0 : breaker.getTransitions();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges failed without being sent because the circuit was open")
+    public long getCircuitBreakerRejected() {
+        final CircuitBreaker breaker = getCircuitBreaker();
+        return breaker == null ? 0 : breaker.getRejected();
+    }
+
+    /**
+     * The admission control of the corresponding provides operation, {@code null} if there is none (or if this is a
+     * to()).
+     */
+    public @Nullable ConcurrencyLimiter getConcurrencyLimiter() {
+        if (this.service.getType() != ServiceType.PROVIDES) {
+            return null;
+        }
+        return getComponent().getContext().getProvidesChannel(this.service).getConcurrencyLimiter();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges processed by the route under the admission control")
+    public int getAdmissionInFlight() {
+        final ConcurrencyLimiter limiter = getConcurrencyLimiter();
+        return limiter == null ? 0 : limiter.getInFlight();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges waiting to be processed by the route")
+    public int getAdmissionQueued() {
+        final ConcurrencyLimiter limiter = getConcurrencyLimiter();
+        return limiter == null ? 0 : limiter.getQueued();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges rejected because too many exchanges were processed")
+    public long getAdmissionRejected() {
+        final ConcurrencyLimiter limiter = getConcurrencyLimiter();
+        return limiter == null ? 0 : limiter.getRejected();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges shed because they waited too long to be processed")
+    public long getAdmissionShed() {
+        final ConcurrencyLimiter limiter = getConcurrencyLimiter();
+        return limiter == null ? 0 : limiter.getShed();
+    }
+
+    public EndpointBalancer.Strategy getLoadBalancing() {
+        return loadBalancing;
+    }
+
+    /**
+     * The balancer of the exchanges of the corresponding Consumes over its endpoints, {@code null} if the endpoint is
+     * chosen by the NMR.
+     */
+    public @Nullable EndpointBalancer getEndpointBalancer() {
+        EndpointBalancer result = this.endpointBalancer;
+        if (result == null && this.loadBalancing != EndpointBalancer.Strategy.NONE) {
+            result = getComponent().getEndpointBalancer(this);
+            this.endpointBalancer = result;
+        }
+        return result;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    void incrementHedgedRequests() {
+        this.hedgedRequests.increment();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges sent again to another endpoint because they were slow")
+    public long getHedgedRequests() {
+        return this.hedgedRequests.sum();
+    }
+
+    public long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    /**
+     * The cache of the responses of the corresponding Consumes, {@code null} if responses are not cached.
+     */
+    public @Nullable ResponseCache getResponseCache() {
+        ResponseCache result = this.responseCache;
+        if (result == null && this.cacheTtl > 0) {
+            result = getComponent().getResponseCache(this);
+            this.responseCache = result;
+        }
+        return result;
+    }
+
+    @ManagedAttribute(description = "Ratio of the requests answered from the response cache of the Consumes")
+    public double getResponseCacheHitRatio() {
+        final ResponseCache cache = getResponseCache();
+        return cache == null ? 0 : cache.getHitRatio();
+    }
+
+    @ManagedAttribute(description = "Number of responses evicted from the response cache of the Consumes")
+    public long getResponseCacheEvictions() {
+        final ResponseCache cache = getResponseCache();
+        return cache == null ? 0 : cache.getEvictions();
+    }
+
+    @ManagedAttribute(description = "Number of responses in the response cache of the Consumes")
+    public int getResponseCacheSize() {
+        final ResponseCache cache = getResponseCache();
+        return cache == null ? 0 : cache.getSize();
+    }
+
     /**
      * Message exchange pattern to use at JBI level combining the MEP defined at the service consumer and the MEP
      * defined at Petals Camel endpoint
@@ -266,6 +865,19 @@ public class PetalsCamelEndpoint extends DefaultEndpoint {
         return service;
     }
 
+    /**
+     * The part of the Petals exchanges created for this endpoint that only depends on its configuration. It is
+     * compiled once the endpoint is configured.
+     */
+    public PetalsExchangeTemplate getExchangeTemplate() {
+        PetalsExchangeTemplate result = this.exchangeTemplate;
+        if (result == null) {
+            result = new PetalsExchangeTemplate(this);
+            this.exchangeTemplate = result;
+        }
+        return result;
+    }
+
     /**
      * It's a to() It can be one of our jbi-consumes
      */
@@ -319,4 +931,83 @@ public class PetalsCamelEndpoint extends DefaultEndpoint {
     public boolean isSynchronous() {
         return this.synchronous;
     }
+
+    /**
+     * Returns whether the synchronous processing of the exchanges received from Petals is done on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        final Boolean result = this.virtualThreads;
+        return result == null ? getComponent().isVirtualThreads() : result.booleanValue();
+    }
+
+    public long getDeadline() {
+        return this.deadline;
+    }
+
+    public AnswerAcknowledgement getAnswerAcknowledgement() {
+        final AnswerAcknowledgement result = this.answerAcknowledgement;
+        if (result == null) {
+            return isSynchronous() ? AnswerAcknowledgement.SYNC : AnswerAcknowledgement.ASYNC;
+        }
+        return result;
+    }
+
+    public long getAnswerAcknowledgementTimeout() {
+        return this.answerAcknowledgementTimeout;
+    }
+
+    public boolean isPassThrough() {
+        return this.passThrough;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public long getBatchTimeout() {
+        return this.batchTimeout;
+    }
+
+    public AcknowledgementTracker getAcknowledgementTracker() {
+        return this.acknowledgementTracker;
+    }
+
+    @ManagedAttribute(description = "Number of answers sent back to Petals acknowledged with the status DONE")
+    public long getAcknowledgedAnswers() {
+        return this.acknowledgementTracker.getAcknowledged();
+    }
+
+    @ManagedAttribute(description = "Number of answers sent back to Petals acknowledged with the status ERROR")
+    public long getAcknowledgementErrors() {
+        return this.acknowledgementTracker.getErrors();
+    }
+
+    @ManagedAttribute(description = "Number of answers sent back to Petals not acknowledged in time")
+    public long getAcknowledgementTimeouts() {
+        return this.acknowledgementTracker.getTimeouts();
+    }
+
+    @ManagedAttribute(description = "Number of answers sent back to Petals waiting for their acknowledgement")
+    public int getPendingAcknowledgements() {
+        return this.acknowledgementTracker.getPending();
+    }
+
+    /**
+     * How the answers sent back to Petals by a from() are acknowledged
+     */
+    public enum AnswerAcknowledgement {
+        /**
+         * The answer is sent synchronously and the acknowledgement is waited for
+         */
+        SYNC,
+        /**
+         * The answer is sent asynchronously and the acknowledgement is handled when received
+         */
+        ASYNC,
+        /**
+         * The answer is sent without waiting for the acknowledgement, which is only counted when received by the
+         * component listener
+         */
+        FIRE_AND_FORGET
+    }
 }
@@ -17,7 +17,14 @@
  */
 package org.ow2.petals.camel.component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.jbi.messaging.MessagingException;
 import javax.jbi.servicedesc.ServiceEndpoint;
@@ -31,9 +38,24 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
 import org.ow2.petals.camel.PetalsChannel.PetalsConsumesChannel;
 import org.ow2.petals.camel.PetalsChannel.SendAsyncCallback;
+import org.ow2.petals.camel.component.exceptions.CircuitBreakerOpenException;
+import org.ow2.petals.camel.component.exceptions.DeadlineExceededException;
+import org.ow2.petals.camel.component.exceptions.InFlightLimitReachedException;
 import org.ow2.petals.camel.component.exceptions.TimeoutException;
+import org.ow2.petals.camel.component.utils.AcknowledgementSender;
+import org.ow2.petals.camel.component.utils.AttachmentSpooler;
+import org.ow2.petals.camel.component.utils.CircuitBreaker;
 import org.ow2.petals.camel.component.utils.Conversions;
-import org.ow2.petals.camel.helpers.MEPHelper;
+import org.ow2.petals.camel.component.utils.Deadlines;
+import org.ow2.petals.camel.component.utils.EndpointBalancer;
+import org.ow2.petals.camel.component.utils.ExecutionContextHelper;
+import org.ow2.petals.camel.component.utils.InFlightWindow;
+import org.ow2.petals.camel.component.utils.LatencyHistogram;
+import org.ow2.petals.camel.component.utils.PetalsProperties;
+import org.ow2.petals.camel.component.utils.RequestCollapser;
+import org.ow2.petals.camel.component.utils.RequestKey;
+import org.ow2.petals.camel.component.utils.ResponseCache;
+import org.ow2.petals.camel.component.utils.SpooledAttachments;
 import org.ow2.petals.commons.log.FlowAttributes;
 import org.ow2.petals.commons.log.Level;
 import org.ow2.petals.commons.log.PetalsExecutionContext;
@@ -56,11 +78,45 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
 
     private final MonitTraceLogger monitTraceLogger;
 
+    private final PetalsExchangeTemplate template;
+
+    @Nullable
+    private final InFlightWindow inFlightWindow;
+
+    @Nullable
+    private final AcknowledgementSender acknowledgements;
+
+    @Nullable
+    private final RequestCollapser collapser;
+
+    @Nullable
+    private final ResponseCache responseCache;
+
+    @Nullable
+    private final CircuitBreaker circuitBreaker;
+
+    @Nullable
+    private final EndpointBalancer balancer;
+
+    /**
+     * The latencies observed for the target of the endpoint, {@code null} if they are not needed
+     */
+    @Nullable
+    private final LatencyHistogram latencies;
+
     public PetalsCamelProducer(final PetalsCamelEndpoint endpoint) {
         super(endpoint);
         this.component = endpoint.getComponent();
         this.consumes = this.component.getContext().getConsumesChannel(endpoint.getService());
         this.monitTraceLogger = this.component.getContext().getMonitTraceLogger();
+        this.template = endpoint.getExchangeTemplate();
+        this.inFlightWindow = endpoint.getInFlightWindow();
+        this.acknowledgements = this.component.getAcknowledgementSender();
+        this.collapser = endpoint.getRequestCollapser();
+        this.responseCache = endpoint.getResponseCache();
+        this.circuitBreaker = this.consumes.getCircuitBreaker();
+        this.balancer = endpoint.getEndpointBalancer();
+        this.latencies = endpoint.getLatencyHistogram();
     }
 
     @NonNullByDefault(false)
@@ -106,7 +162,170 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
      */
     private boolean process(final Exchange camelExchange, final boolean doSync, final AsyncCallback callback) {
 
-        final long timeout = getEndpoint().getTimeout();
+        final RequestCollapser collapser = this.collapser;
+        final ResponseCache cache = this.responseCache;
+        if (collapser == null && cache == null) {
+            return this.processInWindow(camelExchange, doSync, callback);
+        }
+
+        final MEPPatternConstants mep;
+        try {
+            mep = this.template.getMep(camelExchange);
+        } catch (final MessagingException e) {
+            // the error will be reported when creating the Petals exchange
+            return this.processInWindow(camelExchange, doSync, callback);
+        }
+
+        final RequestKey key = RequestKey.of(camelExchange, this.template.getTarget(), mep);
+        if (key == null) {
+            return this.processInWindow(camelExchange, doSync, callback);
+        }
+
+        final AsyncCallback answerCallback;
+        if (cache != null && (mep != null ? mep : getEndpoint().getMep()) == MEPPatternConstants.IN_OUT) {
+            if (cache.replay(key, camelExchange)) {
+                if (this.consumes.getLogger().isLoggable(Level.FINE)) {
+                    this.consumes.getLogger().fine("The Camel exchange " + camelExchange.getExchangeId()
+                            + " was answered from the response cache: " + cache);
+                }
+                callback.done(true);
+                return true;
+            }
+            answerCallback = doneSync -> {
+                try {
+                    cache.store(key, camelExchange);
+                } catch (final RuntimeException e) {
+                    this.consumes.getLogger().log(Level.WARNING,
+                            "Can't cache the answer of the Camel exchange " + camelExchange.getExchangeId(), e);
+                }
+                callback.done(doneSync);
+            };
+        } else {
+            answerCallback = callback;
+        }
+
+        if (collapser == null) {
+            return this.processInWindow(camelExchange, doSync, answerCallback);
+        }
+
+        final long remaining = Deadlines.remaining(camelExchange);
+        if (remaining <= 0) {
+            // it will fail without being sent
+            return this.processInWindow(camelExchange, doSync, answerCallback);
+        }
+        // an identical request in flight is not waited for longer than this exchange would wait for its answer
+        final long timeout = Deadlines.cap(getEndpoint().getEffectiveTimeout(), this.consumes.getDefaultTimeout(),
+                remaining);
+        return collapser.process(camelExchange, key, doSync, timeout < 0 ? this.consumes.getDefaultTimeout() : timeout,
+                answerCallback, (leader, leaderCallback) -> this.processInWindow(leader, doSync, leaderCallback));
+    }
+
+    private boolean processInWindow(final Exchange camelExchange, final boolean doSync,
+            final AsyncCallback callback) {
+
+        final InFlightWindow window = this.inFlightWindow;
+        if (window == null) {
+            return this.doProcess(camelExchange, doSync, callback);
+        }
+
+        // if the exchange is parked, it will be sent from another thread: the flow attributes must follow it
+        final FlowAttributes flowAttributes = PetalsExecutionContext.getFlowAttributes();
+        final boolean entered;
+        try {
+            entered = window.enter(() -> ExecutionContextHelper.runWithFlowAttributes(flowAttributes,
+                    () -> this.doProcess(camelExchange, false, doneSync -> {
+                        window.release();
+                        // we already told Camel that the processing is asynchronous
+                        callback.done(false);
+                    })), !doSync);
+        } catch (final InFlightLimitReachedException e) {
+            this.consumes.getLogger().log(Level.FINE,
+                    "Just rejected the Camel Exchange " + camelExchange.getExchangeId(), e);
+            camelExchange.setException(e);
+            callback.done(true);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            camelExchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+
+        if (!entered) {
+            if (this.consumes.getLogger().isLoggable(Level.FINE)) {
+                this.consumes.getLogger().fine("The Camel exchange " + camelExchange.getExchangeId()
+                        + " is parked until an exchange in flight completes: " + window);
+            }
+            return false;
+        }
+
+        return this.doProcess(camelExchange, doSync, doneSync -> {
+            window.release();
+            callback.done(doneSync);
+        });
+    }
+
+    private boolean doProcess(final Exchange camelExchange, final boolean doSync, final AsyncCallback callback) {
+
+        final long remaining = Deadlines.remaining(camelExchange);
+        if (remaining <= 0) {
+            // the original caller gave up already, there is no need to bother the provider
+            camelExchange.setException(new DeadlineExceededException(this.consumes, -remaining));
+            callback.done(true);
+            return true;
+        }
+
+        final long timeout = Deadlines.cap(getEndpoint().getEffectiveTimeout(), this.consumes.getDefaultTimeout(),
+                remaining);
+
+        final LatencyHistogram histogram = this.latencies;
+        if (histogram == null) {
+            return this.doProcessWithCircuitBreaker(camelExchange, doSync, timeout, callback);
+        }
+
+        final long start = System.currentTimeMillis();
+        return this.doProcessWithCircuitBreaker(camelExchange, doSync, timeout, doneSync -> {
+            final Exception exception = camelExchange.getException();
+            if (exception == null) {
+                histogram.record(System.currentTimeMillis() - start);
+            } else if (exception instanceof TimeoutException) {
+                // the provider did not answer in time: its latency is at least the timeout, else an adaptive timeout
+                // too low would never grow again
+                final long used = timeout < 0 ? this.consumes.getDefaultTimeout() : timeout;
+                histogram.record(Math.max(System.currentTimeMillis() - start, used));
+            } else {
+                // the other errors tell nothing about the latency of the providers
+            }
+            callback.done(doneSync);
+        });
+    }
+
+    private boolean doProcessWithCircuitBreaker(final Exchange camelExchange, final boolean doSync,
+            final long timeout, final AsyncCallback callback) {
+
+        final CircuitBreaker breaker = this.circuitBreaker;
+        final CircuitBreaker.Permit permit = breaker == null ? null : breaker.tryAcquire();
+        if (breaker != null && permit == null) {
+            final Exception e = new CircuitBreakerOpenException(this.consumes);
+            this.consumes.getLogger().log(Level.FINE,
+                    "Just failed the Camel Exchange " + camelExchange.getExchangeId() + " without sending it", e);
+            camelExchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+
+        // the outcome is reported to the circuit breaker once the exchange is answered, or the circuit breaker is
+        // released if the exchange can't be sent
+        return this.send(camelExchange, doSync, timeout, permit, callback);
+    }
+
+    /**
+     * @param timeout
+     *            the timeout of the exchange, if less than 0 then the default timeout of the consumes is used, if
+     *            equals to 0 then no timeout
+     */
+    private boolean send(final Exchange camelExchange, final boolean doSync, final long timeout,
+            @Nullable final CircuitBreaker.Permit permit, final AsyncCallback callback) {
 
         final FlowAttributes faAsBC;
         if (PetalsExecutionContext.getFlowAttributes() == null) {
@@ -127,10 +346,22 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
             faAsBC = null;
         }
 
+        EndpointBalancer.Ticket ticket = null;
         try {
+            // the request of a hedged exchange is converted twice, so it must be made replayable beforehand
+            final boolean hedgeable = !doSync && isHedgingReady()
+                    && Conversions.makeBodyReplayable(camelExchange.getIn());
+
             final org.ow2.petals.component.framework.api.message.Exchange exchange = createPetalsExchange(
                     camelExchange);
 
+            final EndpointBalancer.Ticket selected = balance(exchange);
+            ticket = selected;
+            final AsyncCallback answerCallback = selected == null ? callback : doneSync -> {
+                selected.complete(camelExchange.getException() != null);
+                callback.done(doneSync);
+            };
+
             if (doSync) {
 
                 if (this.consumes.getLogger().isLoggable(Level.FINE)) {
@@ -139,7 +370,7 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
                 }
 
                 // false means timed out!
-                final boolean timedOut = !this.consumes.sendSync(exchange, timeout);
+                final boolean timedOut = !sendSync(exchange, timeout);
                 // this has been done synchronously
                 final boolean doneSync = true;
 
@@ -148,8 +379,12 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
                             + exchange.getExchangeId() + ") back from a send in sync mode ");
                 }
 
-                handleAnswer(camelExchange, exchange, timedOut, doneSync, callback, faAsBC);
+                handleAnswer(camelExchange, exchange, timedOut, timeout, doneSync, answerCallback, permit, faAsBC);
                 return doneSync;
+            } else if (hedgeable && MEPPatternConstants.IN_OUT.value().equals(exchange.getPattern())) {
+                // each Petals exchange completes its own ticket
+                sendHedged(camelExchange, exchange, selected, timeout, callback, permit, faAsBC);
+                return false;
             } else {
                 // this is done asynchronously (except if the send fail, but then the value of this variable won't be
                 // used because the callback will never be called)
@@ -160,7 +395,7 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
                             "Sending a Petals exchange (with id: " + exchange.getExchangeId() + ") in async mode");
                 }
 
-                this.consumes.sendAsync(exchange, timeout, new SendAsyncCallback() {
+                sendAsync(exchange, timeout, new SendAsyncCallback() {
                     @Override
                     public void done(final org.ow2.petals.component.framework.api.message.Exchange exchange,
                             final boolean timedOut) {
@@ -172,7 +407,8 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
                                             + (doneSync ? "(but executed in sync mode apparently)" : ""));
                         }
 
-                        handleAnswer(camelExchange, exchange, timedOut, doneSync, callback, faAsBC);
+                        handleAnswer(camelExchange, exchange, timedOut, timeout, doneSync, answerCallback,
+                                permit, faAsBC);
                     }
                 });
                 return doneSync;
@@ -182,6 +418,14 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
             // handleAnswer could be called, thus this is done synchronously in either case of doSync and the callback
             // must be called
             final boolean doneSync = true;
+            if (ticket != null) {
+                ticket.complete(true);
+            }
+            final CircuitBreaker breaker = this.circuitBreaker;
+            if (breaker != null && permit != null) {
+                // the provider was not involved
+                breaker.release(permit);
+            }
             this.consumes.getLogger().log(Level.SEVERE,
                     "Just set an error on the Camel Exchange " + camelExchange.getExchangeId(), e);
             if (faAsBC != null) {
@@ -194,67 +438,229 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
     }
 
     /**
-     * we tested in deploy that the camel endpoint options do not conflict with the consumes parameters, hence the
-     * assert in the code.
+     * Exchanges are hedged only once enough latencies were observed to know when to hedge them.
      */
-    private org.ow2.petals.component.framework.api.message.Exchange createPetalsExchange(final Exchange camelExchange)
+    private boolean isHedgingReady() {
+        final LatencyHistogram histogram = this.latencies;
+        return getEndpoint().getHedgePercentile() > 0 && histogram != null && histogram.isSignificant();
+    }
+
+    /**
+     * Send the given exchange asynchronously, and if it is not answered after the configured percentile of the
+     * observed latencies, send the same request to another endpoint: the first answer is passed back to Camel and the
+     * other one is only acknowledged.
+     * 
+     * The hedge is built beforehand on the current thread: the Camel exchange is not thread-safe, and once the first
+     * exchange is sent, only the thread handling the first answer can touch it.
+     */
+    private void sendHedged(final Exchange camelExchange,
+            final org.ow2.petals.component.framework.api.message.Exchange exchange,
+            final @Nullable EndpointBalancer.Ticket ticket, final long timeout, final AsyncCallback callback,
+            @Nullable final CircuitBreaker.Permit permit, @Nullable final FlowAttributes faAsBC)
             throws MessagingException {
 
-        final MEPPatternConstants mep;
-        if (getEndpoint().getService().getMEP() == null && getEndpoint().getMep() == null) {
-            mep = MEPHelper.fromExchangePattern2MEPPatternConstants(camelExchange.getPattern());
-            if (mep == null) {
-                throw new MessagingException(
-                        "Can't resolve MEP on the Camel exchange: " + camelExchange.getPattern().name());
+        final LatencyHistogram histogram = this.latencies;
+        assert histogram != null;
+        final long delay = histogram.getPercentile(getEndpoint().getHedgePercentile());
+
+        org.ow2.petals.component.framework.api.message.Exchange builtHedge = null;
+        List<ServiceEndpoint> alternates = Collections.emptyList();
+        if (delay >= 0) {
+            alternates = getAlternateEndpoints(exchange.getEndpoint(), exchange.getService());
+            if (!alternates.isEmpty()) {
+                try {
+                    builtHedge = createPetalsExchange(camelExchange);
+                } catch (final Exception e) {
+                    this.consumes.getLogger().log(Level.FINE,
+                            "Can't hedge the Petals exchange " + exchange.getExchangeId(), e);
+                }
             }
-        } else {
-            mep = getEndpoint().getMep();
         }
+        final org.ow2.petals.component.framework.api.message.Exchange hedge = builtHedge;
+        final List<ServiceEndpoint> candidates = alternates;
+
+        final AtomicBoolean answered = new AtomicBoolean();
+        final AtomicInteger pending = new AtomicInteger(1);
+        final AtomicReference<Runnable> failure = new AtomicReference<>();
+        final SendAsyncCallback onAnswer = (answer, timedOut) -> {
+            final boolean failed = timedOut || answer.isErrorStatus();
+            // a failure is only passed back to Camel if the other exchange can't answer anymore
+            if (failed) {
+                failure.compareAndSet(null,
+                        () -> handleAnswer(camelExchange, answer, timedOut, timeout, false, callback, permit,
+                                faAsBC));
+                if (pending.decrementAndGet() > 0) {
+                    return;
+                }
+            } else {
+                pending.decrementAndGet();
+            }
+            if (answered.compareAndSet(false, true)) {
+                handleAnswer(camelExchange, answer, timedOut, timeout, false, callback, permit, faAsBC);
+            } else if (!timedOut && answer.isActiveStatus()) {
+                this.consumes.getLogger().fine("Acknowledging the late answer of the hedged exchange "
+                        + answer.getExchangeId());
+                try {
+                    answer.setDoneStatus();
+                    final AcknowledgementSender acknowledgements = this.acknowledgements;
+                    if (acknowledgements != null) {
+                        acknowledgements.acknowledge(this.consumes, answer);
+                    } else {
+                        this.consumes.send(answer);
+                    }
+                } catch (final MessagingException e) {
+                    this.consumes.getLogger().log(Level.WARNING,
+                            "Can't send back status DONE for exchange " + answer.getExchangeId(), e);
+                }
+            }
+        };
 
-        // If mep is null, the consumes one will be used, and if not, we verified in deploy it was null in consumes
-        final org.ow2.petals.component.framework.api.message.Exchange exchange = consumes.newExchange(mep,
-                isFlowTracingActivated(camelExchange));
-
-        // the idea is that if there was the service name in the consumes but not the endpoint name,
-        // we can still resolve the endpoint now
-        final QName serviceName;
-        if (getEndpoint().getServiceName() == null) {
-            // could be null, but it's ok
-            serviceName = exchange.getService();
-        } else {
-            assert exchange.getService() == null;
-            serviceName = getEndpoint().getServiceName();
+        sendAsync(exchange, timeout, withTicket(ticket, onAnswer));
+
+        if (hedge == null) {
+            return;
+        }
+
+        final FlowAttributes flowAttributes = PetalsExecutionContext.getFlowAttributes();
+        this.component.getTimeoutScheduler().schedule(() -> ExecutionContextHelper.runWithFlowAttributes(
+                flowAttributes, () -> {
+                    // only the hedge, not yet sent, is touched here
+                    if (answered.get()) {
+                        return;
+                    }
+                    if (pending.getAndIncrement() == 0) {
+                        // the first exchange was already answered or failed
+                        return;
+                    }
+                    final EndpointBalancer balancer = this.balancer;
+                    final EndpointBalancer.Ticket hedgeTicket = balancer == null ? null : balancer.select(candidates);
+                    final ServiceEndpoint alternate = hedgeTicket != null ? hedgeTicket.getEndpoint()
+                            : candidates.get(0);
+                    hedge.setEndpoint(alternate);
+                    if (this.consumes.getLogger().isLoggable(Level.FINE)) {
+                        this.consumes.getLogger().fine("The Petals exchange " + exchange.getExchangeId()
+                                + " is not answered after " + delay + "ms, hedging it with the exchange "
+                                + hedge.getExchangeId() + " to " + alternate.getEndpointName());
+                    }
+                    getEndpoint().incrementHedgedRequests();
+                    try {
+                        sendAsync(hedge, timeout, withTicket(hedgeTicket, onAnswer));
+                    } catch (final MessagingException e) {
+                        if (hedgeTicket != null) {
+                            hedgeTicket.complete(true);
+                        }
+                        this.consumes.getLogger().log(Level.FINE,
+                                "Can't hedge the Petals exchange " + exchange.getExchangeId(), e);
+                        // the first exchange may have failed in the meantime
+                        final Runnable failed = failure.get();
+                        if (pending.decrementAndGet() == 0 && failed != null
+                                && answered.compareAndSet(false, true)) {
+                            failed.run();
+                        }
+                    }
+                }), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The spooled attachments of the request are kept until the exchange is terminated, since the provider may read
+     * them after the Camel exchange is done with them
+     */
+    private boolean sendSync(final org.ow2.petals.component.framework.api.message.Exchange exchange,
+            final long timeout) throws MessagingException {
+        final AttachmentSpooler spooler = this.component.getAttachmentSpooler();
+        if (spooler == null) {
+            return this.consumes.sendSync(exchange, timeout);
+        }
+        spooler.share(exchange.getExchangeId(), exchange.getInMessage());
+        try {
+            return this.consumes.sendSync(exchange, timeout);
+        } finally {
+            spooler.terminated(exchange.getExchangeId());
+        }
+    }
+
+    /**
+     * @see #sendSync(org.ow2.petals.component.framework.api.message.Exchange, long)
+     */
+    private void sendAsync(final org.ow2.petals.component.framework.api.message.Exchange exchange,
+            final long timeout, final SendAsyncCallback callback) throws MessagingException {
+        final AttachmentSpooler spooler = this.component.getAttachmentSpooler();
+        if (spooler == null) {
+            this.consumes.sendAsync(exchange, timeout, callback);
+            return;
         }
+        final String exchangeId = exchange.getExchangeId();
+        spooler.share(exchangeId, exchange.getInMessage());
+        try {
+            this.consumes.sendAsync(exchange, timeout, (answer, timedOut) -> {
+                spooler.terminated(exchangeId);
+                callback.done(answer, timedOut);
+            });
+        } catch (final MessagingException | RuntimeException e) {
+            spooler.terminated(exchangeId);
+            throw e;
+        }
+    }
 
-        final String endpointName = getEndpoint().getEndpointName();
-        final QName operation = getEndpoint().getOperation();
+    private static SendAsyncCallback withTicket(final @Nullable EndpointBalancer.Ticket ticket,
+            final SendAsyncCallback callback) {
+        if (ticket == null) {
+            return callback;
+        }
+        return (answer, timedOut) -> {
+            ticket.complete(timedOut || answer.isErrorStatus());
+            callback.done(answer, timedOut);
+        };
+    }
 
-        if (serviceName != null && endpointName != null) {
-            assert exchange.getEndpoint() == null;
-            final ServiceEndpoint ep = consumes.resolveEndpoint(serviceName, endpointName);
-            if (ep == null) {
-                throw new MessagingException(
-                        "Can't resolve endpoint for service " + serviceName + " and endpoint name " + endpointName);
+    /**
+     * @return the endpoints to which the given exchange can be hedged
+     */
+    private List<ServiceEndpoint> getAlternateEndpoints(final @Nullable ServiceEndpoint first,
+            final @Nullable QName serviceName) {
+        final List<ServiceEndpoint> alternates = new ArrayList<>();
+        for (final ServiceEndpoint candidate : this.consumes.resolveEndpoints(serviceName)) {
+            if (first == null || !(candidate.getEndpointName().equals(first.getEndpointName())
+                    && candidate.getServiceName().equals(first.getServiceName()))) {
+                alternates.add(candidate);
             }
-            exchange.setEndpoint(ep);
-            // let's set it anyway in case it's useful
-            exchange.setService(serviceName);
-        } else if (serviceName != null) {
-            exchange.setService(serviceName);
         }
+        return alternates;
+    }
 
-        if (operation != null) {
-            // we tested in deploy that the camel endpoint options do not conflict with the consumes parameters
-            assert exchange.getOperation() == null;
-            exchange.setOperation(operation);
+    /**
+     * Choose the endpoint of the given Petals exchange among the candidate endpoints, if it is not already set and if
+     * client-side load balancing is enabled.
+     */
+    private @Nullable EndpointBalancer.Ticket balance(
+            final org.ow2.petals.component.framework.api.message.Exchange exchange) {
+        final EndpointBalancer balancer = this.balancer;
+        if (balancer == null || exchange.getEndpoint() != null) {
+            return null;
         }
 
-        // TODO should I check that the camel exchange has the same MEP as the consumes MEP? or compatibility?
-        // for example if I have a inonly exchange sent to an inout service, then I just discard the out
-        // while an InOut exchange for an InOnly service is not possible!
-        // TODO and also I should take into account the MEP of the endpoint??!!
+        final EndpointBalancer.Ticket ticket = balancer.select(this.consumes.resolveEndpoints(exchange.getService()));
+        if (ticket != null) {
+            exchange.setEndpoint(ticket.getEndpoint());
+        }
+        return ticket;
+    }
 
-        Conversions.populateNewPetalsExchange(camelExchange, exchange);
+    private org.ow2.petals.component.framework.api.message.Exchange createPetalsExchange(final Exchange camelExchange)
+            throws MessagingException {
+
+        // If mep is null, the consumes one will be used, and if not, we verified in deploy it was null in consumes
+        final org.ow2.petals.component.framework.api.message.Exchange exchange = consumes
+                .newExchange(this.template.getMep(camelExchange), isFlowTracingActivated(camelExchange));
+
+        this.template.apply(exchange, this.consumes);
+
+        if (getEndpoint().getComponent().isPropertiesContainer()) {
+            PetalsProperties.getOrCreate(camelExchange, PetalsConstants.EXCHANGE_PROPERTIES);
+        }
+
+        Conversions.populateNewPetalsExchange(camelExchange, exchange, getEndpoint().getComponent().getSourceType());
+        Deadlines.propagate(camelExchange, exchange);
 
         return exchange;
     }
@@ -290,7 +696,18 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
 
     private void handleAnswer(final Exchange camelExchange,
             final org.ow2.petals.component.framework.api.message.Exchange exchange, final boolean timedOut,
-            final boolean doneSync, final AsyncCallback callback, @Nullable final FlowAttributes faAsBC) {
+            final long timeout, final boolean doneSync, final AsyncCallback callback,
+            @Nullable final CircuitBreaker.Permit permit, @Nullable final FlowAttributes faAsBC) {
+        final CircuitBreaker breaker = this.circuitBreaker;
+        if (breaker != null && permit != null) {
+            // faults are answers of the provider, only errors and timeouts are failures
+            if (timedOut || exchange.isErrorStatus()) {
+                breaker.onFailure(permit);
+            } else {
+                breaker.onSuccess(permit);
+            }
+        }
+
         if (timedOut) {
             // A timeout warning message is already log by Petals CDK Core
             this.consumes.getLogger().fine(
@@ -306,7 +723,7 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
             }
 
             final Exception timeoutException = new TimeoutException(
-                    this.consumes.buildTimeoutErrorMsg(this.getEndpoint().getTimeout(), currentFlowAttributes));
+                    this.consumes.buildTimeoutErrorMsg(timeout, currentFlowAttributes));
             camelExchange.setException(timeoutException);
 
             if (faAsBC != null) {
@@ -326,7 +743,14 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
             this.consumes.getLogger().fine("Got an answer for the request I sent to the NMR for exchange "
                     + exchange.getExchangeId() + ", sending status DONE to provider and passing it back into Camel");
 
-            Conversions.populateAnswerCamelExchange(exchange, camelExchange);
+            final AttachmentSpooler spooler = this.component.getAttachmentSpooler();
+            if (spooler != null) {
+                // the attachments are not needed anymore once the route is done with this exchange
+                SpooledAttachments.enable(camelExchange, spooler, true);
+            }
+            // the answer is only shared with other exchanges when collapsing or caching
+            Conversions.populateAnswerCamelExchange(exchange, camelExchange,
+                    this.collapser != null || this.responseCache != null);
 
             if (faAsBC != null) {
                 this.monitTraceLogger.logMonitTrace(
@@ -339,7 +763,13 @@ public class PetalsCamelProducer extends DefaultAsyncProducer {
                     // TODO We should send it only when we get the done as the provider...
                     // see also comments is PetalsCamelConsumer
                     exchange.setDoneStatus();
-                    this.consumes.send(exchange);
+                    final AcknowledgementSender acknowledgements = this.acknowledgements;
+                    if (acknowledgements != null) {
+                        // the answer is passed back to Camel without waiting for the status to be sent
+                        acknowledgements.acknowledge(this.consumes, exchange);
+                    } else {
+                        this.consumes.send(exchange);
+                    }
                 } catch (final MessagingException e) {
                     this.consumes.getLogger().log(Level.WARNING,
                             "Can't send back status DONE for exchange " + exchange.getExchangeId(), e);
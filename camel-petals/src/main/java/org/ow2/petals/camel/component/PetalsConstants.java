@@ -43,6 +43,11 @@ public final class PetalsConstants {
      */
     public static final String EXCHANGE_ORIGINAL_PROPERTY_PREFIX = "PetalsOriginalProperty.";
 
+    @Metadata(
+            label = "consumer", javaType = "org.ow2.petals.camel.component.utils.PetalsProperties", description = "The properties transmitted between a service provider and a Camel consumer, used instead of the properties prefixed by PetalsOriginalProperty. if set (see the component option propertiesContainer)"
+    )
+    public static final String EXCHANGE_ORIGINAL_PROPERTIES = "PetalsOriginalProperties";
+
     @Metadata(
             label = "consumer", description = "The interface name of the current associated service provider", javaType = "QName"
     )
@@ -73,6 +78,26 @@ public final class PetalsConstants {
     )
     public static final String EXCHANGE_CURRENT_FLOW_TRACING_ACTIVATION = "PetalsCurrentFlowTracingActivationStateOnJBIExchangeProcessingAtServiceProviderLevel";
 
+    @Metadata(
+            label = "consumer", javaType = "Long", description = "The time (in milliseconds since the epoch) after which the exchanges sent to Petals by the route fail immediately, set from the deadline of the JBI request and the option deadline of the Camel consumer"
+    )
+    public static final String EXCHANGE_DEADLINE = "PetalsDeadline";
+
+    @Metadata(
+            label = "consumer", javaType = "java.util.Map<Integer, Exception>", description = "Set by the route processing a batch of exchanges received from Petals, to answer with an error the exchanges at the given positions in the batch, the others are finished"
+    )
+    public static final String EXCHANGE_BATCH_ERRORS = "PetalsBatchErrors";
+
+    @Metadata(
+            label = "consumer", javaType = "org.ow2.petals.camel.component.utils.PassThroughPayload", description = "Set when the Camel consumer is in pass-through mode: the last content received from Petals, sent back as is while the body of the message is not changed by the route"
+    )
+    public static final String EXCHANGE_PASS_THROUGH = "PetalsPassThrough";
+
+    @Metadata(
+            label = "consumer,producer", javaType = "org.ow2.petals.camel.component.utils.SpooledAttachments", description = "Set when the attachments received from Petals are spooled to files (see the component option attachmentSpoolThreshold): the attachments spooled for the exchange"
+    )
+    public static final String EXCHANGE_SPOOLED_ATTACHMENTS = "PetalsSpooledAttachments";
+
     // ------------------------------------------------------------------------------------------------------------
     // Headers set by our Camel component into Camel message, acting as Camel provider (ie. acting as service consumer)
     // sending JBI request or receiving JVI response.
@@ -89,6 +114,16 @@ public final class PetalsConstants {
      */
     public static final String EXCHANGE_PROPERTY_PREFIX = "PetalsProperty.";
 
+    @Metadata(
+            label = "producer", javaType = "org.ow2.petals.camel.component.utils.PetalsProperties", description = "The properties transmitted between a Camel producer and a service consumer, used instead of the properties prefixed by PetalsProperty. if set (see the component option propertiesContainer)"
+    )
+    public static final String EXCHANGE_PROPERTIES = "PetalsProperties";
+
+    @Metadata(
+            label = "producer", javaType = "java.util.Set<String>", description = "The names of the headers set from the properties of the JBI response, the other headers of the message come from the request. Only set when the responses of the endpoint are collapsed or cached"
+    )
+    public static final String EXCHANGE_ANSWER_HEADERS = "PetalsAnswerHeaders";
+
     @Metadata(label = "producer", javaType = "Boolean", description = "Set to `true` if the JBI respone is a fault")
     public static final String MESSAGE_FAULT_HEADER = "PetalsMessageIsFault";
 
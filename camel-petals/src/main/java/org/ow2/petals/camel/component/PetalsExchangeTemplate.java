@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component;
+
+import javax.jbi.messaging.MessagingException;
+import javax.jbi.servicedesc.ServiceEndpoint;
+import javax.xml.namespace.QName;
+
+import org.apache.camel.Exchange;
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+import org.ow2.petals.camel.PetalsChannel.PetalsConsumesChannel;
+import org.ow2.petals.camel.ServiceEndpointOperation;
+import org.ow2.petals.camel.component.utils.ExchangeTarget;
+import org.ow2.petals.camel.helpers.MEPHelper;
+
+/**
+ * <p>
+ * The part of the Petals exchanges created by a {@link PetalsCamelProducer} that only depends on the configuration of
+ * its {@link PetalsCamelEndpoint} and of the corresponding Consumes.
+ * </p>
+ * <p>
+ * It is computed once the endpoint is configured, so that only the payload remains to be set on each Petals exchange.
+ * We tested when configuring the endpoint that its options do not conflict with the consumes parameters, hence the
+ * asserts in the code.
+ * </p>
+ */
+public final class PetalsExchangeTemplate {
+
+    /**
+     * {@code true} if neither the endpoint nor the consumes declares a MEP: the MEP of the Camel exchange is used.
+     */
+    private final boolean mepFromCamelExchange;
+
+    /**
+     * If {@code null} (and {@link #mepFromCamelExchange} is {@code false}), the consumes one will be used.
+     */
+    @Nullable
+    private final MEPPatternConstants mep;
+
+    /**
+     * The service name set by the endpoint, {@code null} if the consumes one is used.
+     */
+    @Nullable
+    private final QName serviceName;
+
+    /**
+     * The service name used to resolve the endpoint: the one of the endpoint or of the consumes.
+     */
+    @Nullable
+    private final QName resolvedServiceName;
+
+    @Nullable
+    private final String endpointName;
+
+    @Nullable
+    private final QName operation;
+
+    private final String unresolvedEndpointMessage;
+
+    private final ExchangeTarget target;
+
+    public PetalsExchangeTemplate(final PetalsCamelEndpoint endpoint) {
+        final ServiceEndpointOperation service = endpoint.getService();
+
+        this.mepFromCamelExchange = service.getMEP() == null && endpoint.getMep() == null;
+        this.mep = endpoint.getMep();
+
+        this.serviceName = endpoint.getServiceName();
+        // the idea is that if there was the service name in the consumes but not the endpoint name,
+        // we can still resolve the endpoint
+        this.resolvedServiceName = this.serviceName == null ? service.getService() : this.serviceName;
+        this.endpointName = endpoint.getEndpointName();
+        this.operation = endpoint.getOperation();
+
+        this.unresolvedEndpointMessage = "Can't resolve endpoint for service " + this.resolvedServiceName
+                + " and endpoint name " + this.endpointName;
+
+        final String targetEndpoint = this.endpointName;
+        final QName targetOperation = this.operation;
+        this.target = new ExchangeTarget(service.getInterface(), this.resolvedServiceName,
+                targetEndpoint == null ? service.getEndpoint() : targetEndpoint,
+                targetOperation == null ? service.getOperation() : targetOperation);
+    }
+
+    /**
+     * @return where the Petals exchanges are sent, with what the endpoint sets or else what the consumes declares
+     */
+    public ExchangeTarget getTarget() {
+        return this.target;
+    }
+
+    /**
+     * @return the MEP of the Petals exchange to create for the given Camel exchange, {@code null} if the consumes one
+     *         must be used.
+     */
+    public @Nullable MEPPatternConstants getMep(final Exchange camelExchange) throws MessagingException {
+        if (!this.mepFromCamelExchange) {
+            return this.mep;
+        }
+
+        // TODO should I check that the camel exchange has the same MEP as the consumes MEP? or compatibility?
+        // for example if I have a inonly exchange sent to an inout service, then I just discard the out
+        // while an InOut exchange for an InOnly service is not possible!
+        final MEPPatternConstants mep = MEPHelper.fromExchangePattern2MEPPatternConstants(camelExchange.getPattern());
+        if (mep == null) {
+            throw new MessagingException(
+                    "Can't resolve MEP on the Camel exchange: " + camelExchange.getPattern().name());
+        }
+        return mep;
+    }
+
+    /**
+     * Set on the given Petals exchange, freshly created by the consumes, what is defined by the endpoint.
+     */
+    public void apply(final org.ow2.petals.component.framework.api.message.Exchange exchange,
+            final PetalsConsumesChannel consumes) throws MessagingException {
+
+        final QName resolvedService = this.resolvedServiceName;
+        final String endpoint = this.endpointName;
+        if (resolvedService != null && endpoint != null) {
+            assert exchange.getEndpoint() == null;
+            final ServiceEndpoint ep = consumes.resolveEndpoint(resolvedService, endpoint);
+            if (ep == null) {
+                throw new MessagingException(this.unresolvedEndpointMessage);
+            }
+            exchange.setEndpoint(ep);
+            // let's set it anyway in case it's useful
+            exchange.setService(resolvedService);
+        } else if (this.serviceName != null) {
+            assert exchange.getService() == null;
+            exchange.setService(this.serviceName);
+        }
+
+        if (this.operation != null) {
+            assert exchange.getOperation() == null;
+            exchange.setOperation(this.operation);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PetalsExchangeTemplate [mep=" + (this.mepFromCamelExchange ? "<from Camel exchange>" : this.mep)
+                + ", service=" + this.resolvedServiceName + ", endpoint=" + this.endpointName + ", operation="
+                + this.operation + "]";
+    }
+}
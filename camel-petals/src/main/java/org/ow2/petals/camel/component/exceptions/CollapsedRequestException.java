@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.exceptions;
+
+import javax.jbi.messaging.MessagingException;
+
+/**
+ * An exception set on a Camel exchange collapsed with an identical request that failed: its cause is the failure of
+ * the identical request, each collapsed exchange having its own exception.
+ */
+public class CollapsedRequestException extends MessagingException {
+
+    private static final long serialVersionUID = -6452219834175300173L;
+
+    private static final String MESSAGE_PATTERN = "The identical request sent by the Camel exchange %s failed";
+
+    public CollapsedRequestException(final String leaderExchangeId, final Throwable cause) {
+        super(String.format(MESSAGE_PATTERN, leaderExchangeId), cause);
+        this.setStackTrace(new StackTraceElement[0]);
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.jbi.messaging.MessagingException;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.petals.camel.PetalsChannel;
+import org.ow2.petals.commons.log.FlowAttributes;
+import org.ow2.petals.commons.log.PetalsExecutionContext;
+import org.ow2.petals.component.framework.api.message.Exchange;
+
+/**
+ * Sends the status of the exchanges (typically DONE) off the caller thread, so that the answer of an exchange can be
+ * passed back to Camel without waiting for its acknowledgement to be sent.
+ *
+ * The pending acknowledgements are kept on a bounded queue drained by batches by a single task: when the queue is
+ * full, the acknowledgement is sent by the caller itself.
+ */
+public class AcknowledgementSender {
+
+    private static final int BATCH_SIZE = 64;
+
+    private final Executor executor;
+
+    private final Logger logger;
+
+    private final BlockingQueue<PendingAcknowledgement> queue;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * The acknowledgements queued or being sent
+     */
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final Object flushLock = new Object();
+
+    /**
+     * @param executor
+     *            the executor running the task sending the queued acknowledgements
+     * @param queueSize
+     *            the maximum number of acknowledgements waiting to be sent
+     */
+    public AcknowledgementSender(final Executor executor, final int queueSize, final Logger logger) {
+        this.executor = executor;
+        this.logger = logger;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    /**
+     * Send the given exchange, whose status is already set, with the given channel: this is done asynchronously if
+     * possible.
+     */
+    public void acknowledge(final PetalsChannel channel, final Exchange exchange) {
+        final PendingAcknowledgement ack = new PendingAcknowledgement(channel, exchange,
+                PetalsExecutionContext.getFlowAttributes());
+        this.outstanding.incrementAndGet();
+        if (!this.queue.offer(ack)) {
+            // the queue is full, let's slow down the caller
+            send(ack);
+            return;
+        }
+
+        if (this.draining.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this::drain);
+            } catch (final RejectedExecutionException e) {
+                // the executor is stopped, so we drain the queue ourselves
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        final List<PendingAcknowledgement> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            this.queue.drainTo(batch, BATCH_SIZE);
+            if (batch.isEmpty()) {
+                this.draining.set(false);
+                // an acknowledgement could have been queued before we released the flag
+                if (this.queue.isEmpty() || !this.draining.compareAndSet(false, true)) {
+                    return;
+                }
+            } else {
+                for (final PendingAcknowledgement ack : batch) {
+                    assert ack != null;
+                    send(ack);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(final PendingAcknowledgement ack) {
+        try {
+            ExecutionContextHelper.runWithFlowAttributes(ack.flowAttributes, () -> {
+                try {
+                    ack.channel.send(ack.exchange);
+                } catch (final MessagingException e) {
+                    this.logger.log(Level.WARNING,
+                            "Can't send back status for exchange " + ack.exchange.getExchangeId(), e);
+                }
+            });
+        } finally {
+            if (this.outstanding.decrementAndGet() == 0) {
+                synchronized (this.flushLock) {
+                    this.flushLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for all the pending acknowledgements to be sent.
+     * 
+     * @param timeout
+     *            the maximum time to wait, in milliseconds
+     * @return {@code true} if all the acknowledgements were sent before the timeout
+     */
+    public boolean flush(final long timeout) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        synchronized (this.flushLock) {
+            long remaining = timeout;
+            while (this.outstanding.get() > 0 && remaining > 0) {
+                this.flushLock.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return this.outstanding.get() == 0;
+        }
+    }
+
+    /**
+     * @return the number of acknowledgements queued or being sent
+     */
+    public int getPending() {
+        return this.outstanding.get();
+    }
+
+    private static final class PendingAcknowledgement {
+
+        private final PetalsChannel channel;
+
+        private final Exchange exchange;
+
+        @Nullable
+        private final FlowAttributes flowAttributes;
+
+        private PendingAcknowledgement(final PetalsChannel channel, final Exchange exchange,
+                final @Nullable FlowAttributes flowAttributes) {
+            this.channel = channel;
+            this.exchange = exchange;
+            this.flowAttributes = flowAttributes;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The metrics of the acknowledgements (status DONE or ERROR) received for the answers sent by a from() endpoint.
+ *
+ * The answers sent without waiting for their acknowledgement are tracked until it is received: the ones that are not
+ * acknowledged within the timeout are counted as timed out when the tracker is swept, which is done when an answer is
+ * tracked and when the metrics are read.
+ */
+public class AcknowledgementTracker {
+
+    /**
+     * The minimum time (in milliseconds) between two sweeps of the tracked answers done when an answer is tracked
+     */
+    private static final long SWEEP_PERIOD = 1000L;
+
+    /**
+     * The answers sent without waiting for their acknowledgement, by exchange id
+     */
+    private final ConcurrentMap<String, TrackedAnswer> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    private final LongAdder acknowledged = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Track an answer sent without waiting for its acknowledgement
+     * 
+     * @param timeout
+     *            the time (in milliseconds) after which the answer is counted as timed out if it is not acknowledged
+     */
+    public void track(final String exchangeId, final long timeout) {
+        track(exchangeId, timeout, null);
+    }
+
+    /**
+     * Track an answer sent without waiting for its acknowledgement
+     * 
+     * @param timeout
+     *            the time (in milliseconds) after which the answer is counted as timed out if it is not acknowledged
+     * @param onTimeout
+     *            executed if the answer is counted as timed out
+     */
+    public void track(final String exchangeId, final long timeout, final @Nullable Runnable onTimeout) {
+        final long now = System.currentTimeMillis();
+        this.pending.put(exchangeId, new TrackedAnswer(now + timeout, onTimeout));
+
+        final long next = this.nextSweep.get();
+        if (now >= next && this.nextSweep.compareAndSet(next, now + SWEEP_PERIOD)) {
+            sweep(now);
+        }
+    }
+
+    private void sweep(final long now) {
+        for (final Map.Entry<String, TrackedAnswer> entry : this.pending.entrySet()) {
+            final TrackedAnswer answer = entry.getValue();
+            // an acknowledgement or another sweep may have removed it in the meantime
+            if (answer.deadline < now && this.pending.remove(entry.getKey(), answer)) {
+                this.timeouts.increment();
+                final Runnable onTimeout = answer.onTimeout;
+                if (onTimeout != null) {
+                    onTimeout.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * An acknowledgement was received for a tracked answer: it is ignored if the answer was already counted as timed
+     * out
+     * 
+     * @return <code>true</code> if the answer was still waiting for its acknowledgement
+     */
+    public boolean onAcknowledgement(final String exchangeId, final boolean error) {
+        if (this.pending.remove(exchangeId) == null) {
+            return false;
+        }
+        onAcknowledgement(error);
+        return true;
+    }
+
+    /**
+     * An acknowledgement was received for an answer sent while waiting for it
+     */
+    public void onAcknowledgement(final boolean error) {
+        if (error) {
+            this.errors.increment();
+        } else {
+            this.acknowledged.increment();
+        }
+    }
+
+    /**
+     * An answer sent while waiting for its acknowledgement timed out
+     */
+    public void onTimeout() {
+        this.timeouts.increment();
+    }
+
+    /**
+     * @return the number of answers acknowledged with the status DONE
+     */
+    public long getAcknowledged() {
+        return this.acknowledged.sum();
+    }
+
+    /**
+     * @return the number of answers acknowledged with the status ERROR
+     */
+    public long getErrors() {
+        return this.errors.sum();
+    }
+
+    /**
+     * @return the number of answers not acknowledged in time
+     */
+    public long getTimeouts() {
+        sweep(System.currentTimeMillis());
+        return this.timeouts.sum();
+    }
+
+    /**
+     * @return the number of tracked answers waiting for their acknowledgement
+     */
+    public int getPending() {
+        sweep(System.currentTimeMillis());
+        return this.pending.size();
+    }
+
+    @Override
+    public String toString() {
+        return "AcknowledgementTracker [acknowledged=" + getAcknowledged() + ", errors=" + getErrors() + ", timeouts="
+                + getTimeouts() + ", pending=" + getPending() + "]";
+    }
+
+    private static final class TrackedAnswer {
+
+        /**
+         * The time after which the answer is counted as timed out
+         */
+        private final long deadline;
+
+        @Nullable
+        private final Runnable onTimeout;
+
+        private TrackedAnswer(final long deadline, final @Nullable Runnable onTimeout) {
+            this.deadline = deadline;
+            this.onTimeout = onTimeout;
+        }
+    }
+}
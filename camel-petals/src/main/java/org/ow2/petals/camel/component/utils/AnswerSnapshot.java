@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.transform.Source;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.attachment.Attachment;
+import org.apache.camel.attachment.AttachmentMessage;
+import org.apache.camel.util.xml.BytesSource;
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.petals.camel.component.PetalsConstants;
+
+/**
+ * An immutable copy of the answer of a Camel exchange sent to Petals, that can be applied to other Camel exchanges
+ * having sent the same request.
+ */
+public final class AnswerSnapshot {
+
+    private final Map<String, Object> petalsProperties = new HashMap<>();
+
+    @Nullable
+    private final PetalsProperties container;
+
+    private final Map<String, Object> headers;
+
+    private final Map<String, Attachment> attachments = new HashMap<>();
+
+    @Nullable
+    private final byte[] data;
+
+    @Nullable
+    private final String systemId;
+
+    /**
+     * The body when it is not a {@link Source}
+     */
+    @Nullable
+    private final Object body;
+
+    @Nullable
+    private final Exception exception;
+
+    private AnswerSnapshot(final Exchange answered) {
+        final PetalsProperties answeredContainer = PetalsProperties.get(answered, PetalsConstants.EXCHANGE_PROPERTIES);
+        if (answeredContainer != null) {
+            this.container = answeredContainer.safeCopy();
+        } else {
+            this.container = null;
+            for (final Map.Entry<String, Object> property : answered.getProperties().entrySet()) {
+                if (property.getKey().startsWith(PetalsConstants.EXCHANGE_PROPERTY_PREFIX)) {
+                    this.petalsProperties.put(property.getKey(), property.getValue());
+                }
+            }
+        }
+
+        final Message answer = answered.getMessage();
+        // the other headers are the ones of the request of the answered exchange, they must not be shared
+        this.headers = new HashMap<>();
+        final Set<?> answerHeaders = answered.getProperty(PetalsConstants.EXCHANGE_ANSWER_HEADERS, Set.class);
+        if (answerHeaders != null) {
+            for (final Object name : answerHeaders) {
+                final Object value = answer.getHeader((String) name);
+                if (value != null) {
+                    this.headers.put((String) name, value);
+                }
+            }
+        }
+        final Object fault = answer.getHeader(PetalsConstants.MESSAGE_FAULT_HEADER);
+        if (fault != null) {
+            this.headers.put(PetalsConstants.MESSAGE_FAULT_HEADER, fault);
+        }
+        if (answer instanceof AttachmentMessage attachmentMessage && attachmentMessage.hasAttachments()) {
+            this.attachments.putAll(attachmentMessage.getAttachmentObjects());
+        }
+
+        final Object answerBody = answer.getBody();
+        final byte[] converted = answerBody instanceof Source && !(answerBody instanceof BytesSource)
+                ? answer.getBody(byte[].class)
+                : null;
+        if (answerBody instanceof BytesSource bytesSource) {
+            this.data = bytesSource.getData();
+            this.systemId = bytesSource.getSystemId();
+            this.body = null;
+        } else if (converted != null) {
+            this.data = converted;
+            this.systemId = ((Source) answerBody).getSystemId();
+            this.body = null;
+            // the original body may not be readable twice
+            answer.setBody(new BytesSource(converted, this.systemId));
+        } else {
+            this.data = null;
+            this.systemId = null;
+            this.body = answerBody;
+        }
+
+        this.exception = answered.getException();
+    }
+
+    public static AnswerSnapshot of(final Exchange answered) {
+        return new AnswerSnapshot(answered);
+    }
+
+    /**
+     * @return <code>true</code> if the answer is a plain response, without error, fault nor attachments, made of
+     *         bytes only
+     */
+    public boolean isCacheable() {
+        return this.exception == null && this.data != null && this.attachments.isEmpty()
+                && !Boolean.TRUE.equals(this.headers.get(PetalsConstants.MESSAGE_FAULT_HEADER));
+    }
+
+    /**
+     * @return the size of the payload of the answer in bytes
+     */
+    public int getSize() {
+        final byte[] content = this.data;
+        return content == null ? 0 : content.length;
+    }
+
+    /**
+     * Apply this answer to the given Camel exchange, as if it was received from Petals.
+     */
+    public void applyTo(final Exchange camelExchange) {
+        final PetalsProperties snapshotContainer = this.container;
+        if (snapshotContainer != null) {
+            camelExchange.setProperty(PetalsConstants.EXCHANGE_PROPERTIES, snapshotContainer.safeCopy());
+        } else {
+            final Iterator<String> it = camelExchange.getProperties().keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().startsWith(PetalsConstants.EXCHANGE_PROPERTY_PREFIX)) {
+                    it.remove();
+                }
+            }
+            camelExchange.getProperties().putAll(this.petalsProperties);
+        }
+
+        final Message message = camelExchange.getMessage();
+        message.getHeaders().putAll(this.headers);
+        camelExchange.setProperty(PetalsConstants.EXCHANGE_ANSWER_HEADERS, Set.copyOf(this.headers.keySet()));
+        if (!this.attachments.isEmpty()) {
+            final AttachmentMessage attachmentMessage = camelExchange.getMessage(AttachmentMessage.class);
+            for (final Map.Entry<String, Attachment> attachment : this.attachments.entrySet()) {
+                attachmentMessage.addAttachmentObject(attachment.getKey(), attachment.getValue());
+            }
+        }
+
+        final byte[] content = this.data;
+        message.setBody(content == null ? this.body : new BytesSource(content, this.systemId));
+
+        camelExchange.setException(this.exception);
+    }
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.jbi.messaging.NormalizedMessage;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import jakarta.activation.DataHandler;
+import jakarta.activation.DataSource;
+import jakarta.activation.FileDataSource;
+
+/**
+ * Spools the attachments received from Petals to temporary files, so that they are not kept in heap while the route
+ * processes them.
+ *
+ * A spooled attachment is deleted when the Camel exchange is done with it, unless it was sent to Petals: then it is
+ * deleted once the Petals exchanges it was sent with are terminated (see {@link #share(String, NormalizedMessage)}),
+ * since the receiver may read it after the Camel exchange is finished. The attachments that are not released (a
+ * Petals exchange that is never terminated) are deleted when they are garbage collected, or when the spooler is
+ * closed.
+ */
+public class AttachmentSpooler {
+
+    private static final Logger LOG = Logger.getLogger(AttachmentSpooler.class.getName());
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final int threshold;
+
+    private final long maxSpooledBytes;
+
+    @Nullable
+    private final Path directory;
+
+    private final AtomicLong spooledBytes = new AtomicLong();
+
+    /**
+     * The deletion of each spooled file not yet deleted
+     */
+    private final ConcurrentMap<Path, Cleaner.Cleanable> files = new ConcurrentHashMap<>();
+
+    /**
+     * The spooled attachments sent to Petals, by id of the Petals exchange they were sent with
+     */
+    private final ConcurrentMap<String, List<SpooledDataSource>> shared = new ConcurrentHashMap<>();
+
+    /**
+     * @param threshold
+     *            the size (in bytes) above which an attachment is spooled
+     * @param maxSpooledBytes
+     *            the maximum size (in bytes) of the spooled attachments, checked before spooling an attachment
+     * @param directory
+     *            where the attachments are spooled, the default temporary directory if {@code null}
+     */
+    public AttachmentSpooler(final int threshold, final long maxSpooledBytes, final @Nullable Path directory) {
+        assert threshold > 0;
+        this.threshold = threshold;
+        this.maxSpooledBytes = maxSpooledBytes;
+        this.directory = directory;
+    }
+
+    /**
+     * @return the attachment spooled to a file if it is bigger than the threshold, else an attachment with the same
+     *         content (since it had to be read)
+     */
+    public DataHandler spool(final DataHandler attachment) throws IOException {
+        final DataSource source = attachment.getDataSource();
+        if (source instanceof FileDataSource || source instanceof SpooledDataSource
+                || this.spooledBytes.get() >= this.maxSpooledBytes) {
+            // already on disk or no more room on disk
+            return attachment;
+        }
+
+        try (InputStream in = attachment.getInputStream()) {
+            final byte[] head = in.readNBytes(this.threshold);
+            if (head.length < this.threshold) {
+                return new DataHandler(new HeadDataSource(head, attachment.getContentType(), attachment.getName()));
+            }
+
+            final Path file = this.directory == null ? Files.createTempFile("petals-attachment-", ".tmp")
+                    : Files.createTempFile(this.directory, "petals-attachment-", ".tmp");
+            final long size;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(head);
+                size = head.length + in.transferTo(out);
+            } catch (final IOException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            this.spooledBytes.addAndGet(size);
+            return new DataHandler(new SpooledDataSource(file, size, attachment.getContentType(),
+                    attachment.getName(), this.spooledBytes, this.files));
+        }
+    }
+
+    /**
+     * The spooled attachments of the given message are sent to Petals with the given exchange: they are kept until
+     * {@link #terminated(String)} is called for it.
+     */
+    public void share(final String exchangeId, final @Nullable NormalizedMessage message) {
+        if (message == null) {
+            return;
+        }
+        final List<SpooledDataSource> sources = new ArrayList<>();
+        for (final String name : message.getAttachmentNames()) {
+            final DataHandler attachment = message.getAttachment(name);
+            if (attachment != null && attachment.getDataSource() instanceof SpooledDataSource spooled) {
+                spooled.retain();
+                sources.add(spooled);
+            }
+        }
+        if (!sources.isEmpty()) {
+            this.shared.merge(exchangeId, sources, (previous, added) -> {
+                final List<SpooledDataSource> merged = new ArrayList<>(previous);
+                merged.addAll(added);
+                return merged;
+            });
+        }
+    }
+
+    /**
+     * The given Petals exchange is terminated (status DONE or ERROR, or timed out): the spooled attachments sent with
+     * it are not referenced by Petals anymore.
+     */
+    public void terminated(final String exchangeId) {
+        final List<SpooledDataSource> sources = this.shared.remove(exchangeId);
+        if (sources != null) {
+            for (final SpooledDataSource source : sources) {
+                source.release();
+            }
+        }
+    }
+
+    /**
+     * Delete all the spooled attachments, whether they are still referenced or not: the component is stopped.
+     */
+    public void close() {
+        this.shared.clear();
+        for (final Cleaner.Cleanable file : this.files.values()) {
+            file.clean();
+        }
+    }
+
+    /**
+     * @return the size (in bytes) of the attachments currently spooled
+     */
+    public long getSpooledBytes() {
+        return this.spooledBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "AttachmentSpooler [threshold=" + this.threshold + ", maxSpooledBytes=" + this.maxSpooledBytes
+                + ", spooledBytes=" + getSpooledBytes() + "]";
+    }
+
+    /**
+     * An attachment spooled to a temporary file
+     */
+    public static final class SpooledDataSource implements DataSource {
+
+        private final Path file;
+
+        private final String contentType;
+
+        private final String name;
+
+        private final Cleaner.Cleanable cleanable;
+
+        /**
+         * The Camel exchange spooling the attachment, and each Petals exchange it was sent with
+         */
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private SpooledDataSource(final Path file, final long size, final String contentType, final String name,
+                final AtomicLong spooledBytes, final ConcurrentMap<Path, Cleaner.Cleanable> files) {
+            this.file = file;
+            this.contentType = contentType;
+            this.name = name;
+            // the action must not reference this data source, else it is never unreachable
+            this.cleanable = CLEANER.register(this, () -> delete(file, size, spooledBytes, files));
+            files.put(file, this.cleanable);
+        }
+
+        private static void delete(final Path file, final long size, final AtomicLong spooledBytes,
+                final ConcurrentMap<Path, Cleaner.Cleanable> files) {
+            files.remove(file);
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                LOG.log(Level.WARNING, "Can't delete the spooled attachment " + file, e);
+            }
+            spooledBytes.addAndGet(-size);
+        }
+
+        private void retain() {
+            this.references.incrementAndGet();
+        }
+
+        /**
+         * The Camel exchange or a Petals exchange is done with the attachment: it is deleted once none of them
+         * references it anymore
+         */
+        public void release() {
+            if (this.references.decrementAndGet() == 0) {
+                this.cleanable.clean();
+            }
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(this.file);
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            throw new IOException("A spooled attachment is read-only");
+        }
+
+        @Override
+        public String getContentType() {
+            return this.contentType;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    /**
+     * An attachment smaller than the threshold, kept in memory
+     */
+    private static final class HeadDataSource implements DataSource {
+
+        private final byte[] data;
+
+        private final String contentType;
+
+        private final String name;
+
+        private HeadDataSource(final byte[] data, final String contentType, final String name) {
+            this.data = data;
+            this.contentType = contentType;
+            this.name = name;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(this.data);
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            throw new IOException("The attachment is read-only");
+        }
+
+        @Override
+        public String getContentType() {
+            return this.contentType;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Accumulates items and hands them over as a batch once it is full or once its first item waited for the timeout.
+ *
+ * The batches are handed over on the thread adding the last item or on the thread of the scheduler.
+ */
+public class Batcher<T> {
+
+    private final int size;
+
+    private final long timeout;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Consumer<List<T>> flusher;
+
+    private List<T> current;
+
+    @Nullable
+    private ScheduledFuture<?> timer;
+
+    /**
+     * @param size
+     *            the number of items of a full batch
+     * @param timeout
+     *            the time (in milliseconds) after which a batch is handed over even if it is not full
+     * @param flusher
+     *            called with each batch
+     */
+    public Batcher(final int size, final long timeout, final ScheduledExecutorService scheduler,
+            final Consumer<List<T>> flusher) {
+        assert size > 0;
+        this.size = size;
+        this.timeout = timeout;
+        this.scheduler = scheduler;
+        this.flusher = flusher;
+        this.current = new ArrayList<>(size);
+    }
+
+    public void add(final T item) {
+        final List<T> batch;
+        synchronized (this) {
+            this.current.add(item);
+            if (this.current.size() >= this.size) {
+                batch = take();
+            } else if (this.current.size() == 1 && !schedule()) {
+                // the scheduler is stopped: there is no point in waiting
+                batch = take();
+            } else {
+                return;
+            }
+        }
+        this.flusher.accept(batch);
+    }
+
+    private boolean schedule() {
+        final List<T> scheduled = this.current;
+        try {
+            this.timer = this.scheduler.schedule(() -> flush(scheduled), this.timeout, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (final RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private List<T> take() {
+        final List<T> batch = this.current;
+        this.current = new ArrayList<>(this.size);
+        final ScheduledFuture<?> currentTimer = this.timer;
+        if (currentTimer != null) {
+            currentTimer.cancel(false);
+            this.timer = null;
+        }
+        return batch;
+    }
+
+    private void flush(final List<T> scheduled) {
+        final List<T> batch;
+        synchronized (this) {
+            // the batch may have been handed over in the meantime
+            if (this.current != scheduled || scheduled.isEmpty()) {
+                return;
+            }
+            batch = take();
+        }
+        this.flusher.accept(batch);
+    }
+
+    /**
+     * Hand over the current batch if it is not empty, without waiting for it to be full
+     */
+    public void flush() {
+        final List<T> batch;
+        synchronized (this) {
+            if (this.current.isEmpty()) {
+                return;
+            }
+            batch = take();
+        }
+        this.flusher.accept(batch);
+    }
+
+    /**
+     * @return the number of items waiting in the current batch
+     */
+    public synchronized int getPending() {
+        return this.current.size();
+    }
+}
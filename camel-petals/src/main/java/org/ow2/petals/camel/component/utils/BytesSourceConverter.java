@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.stax.StAXSource;
+
+import org.apache.camel.Converter;
+import org.apache.camel.spi.TypeConverterRegistry;
+import org.ow2.petals.jbi.xml.BytesSource;
+
+/**
+ * Camel type converters of the Petals {@link BytesSource}, so that the routes reading it as bytes, a stream or a
+ * string do it directly instead of going through the generic {@link javax.xml.transform.Source} converters (that may
+ * build a DOM).
+ *
+ * They are registered by the Petals component when it is initialized, see {@link #register(TypeConverterRegistry)}.
+ */
+@Converter
+public final class BytesSourceConverter {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = newXMLInputFactory();
+
+    /**
+     * The encoding declared by the XML declaration, read as ISO-8859-1 which preserves its ASCII characters
+     */
+    private static final Pattern XML_DECLARATION_ENCODING = Pattern
+            .compile("^<\\?xml\\s[^>]*?encoding\\s*=\\s*[\"']([A-Za-z][A-Za-z0-9._-]*)[\"']");
+
+    /**
+     * The length of the beginning of the data where the XML declaration is looked for
+     */
+    private static final int XML_DECLARATION_MAX_LENGTH = 256;
+
+    private BytesSourceConverter() {
+    }
+
+    /**
+     * Register these converters in the given registry. This is done at runtime instead of relying on a loader
+     * generated at build time, which the build of this module does not produce.
+     */
+    public static void register(final TypeConverterRegistry registry) {
+        registry.addTypeConverters(new BytesSourceConverter());
+    }
+
+    private static XMLInputFactory newXMLInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    @Converter
+    public static byte[] toBytes(final BytesSource source) {
+        return source.getData();
+    }
+
+    @Converter
+    public static InputStream toInputStream(final BytesSource source) {
+        return new ByteArrayInputStream(source.getData());
+    }
+
+    @Converter
+    public static ByteBuffer toByteBuffer(final BytesSource source) {
+        return ByteBuffer.wrap(source.getData());
+    }
+
+    /**
+     * The data is an XML document: it is decoded with its byte order mark or the encoding of its XML declaration, and
+     * else as UTF-8, the default encoding of XML.
+     */
+    @Converter
+    public static String toString(final BytesSource source) {
+        final byte[] data = source.getData();
+        final int length = data.length;
+        if (length >= 3 && (data[0] & 0xFF) == 0xEF && (data[1] & 0xFF) == 0xBB && (data[2] & 0xFF) == 0xBF) {
+            return new String(data, 3, length - 3, StandardCharsets.UTF_8);
+        }
+        if (length >= 2 && (data[0] & 0xFF) == 0xFE && (data[1] & 0xFF) == 0xFF) {
+            return new String(data, 2, length - 2, StandardCharsets.UTF_16BE);
+        }
+        if (length >= 2 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xFE) {
+            return new String(data, 2, length - 2, StandardCharsets.UTF_16LE);
+        }
+        // without byte order mark, an UTF-16 document must start with '<'
+        if (length >= 2 && data[0] == 0 && data[1] == '<') {
+            return new String(data, StandardCharsets.UTF_16BE);
+        }
+        if (length >= 2 && data[0] == '<' && data[1] == 0) {
+            return new String(data, StandardCharsets.UTF_16LE);
+        }
+        return new String(data, getDeclaredEncoding(data));
+    }
+
+    private static Charset getDeclaredEncoding(final byte[] data) {
+        final String start = new String(data, 0, Math.min(data.length, XML_DECLARATION_MAX_LENGTH),
+                StandardCharsets.ISO_8859_1);
+        final Matcher matcher = XML_DECLARATION_ENCODING.matcher(start);
+        return matcher.find() ? Charset.forName(matcher.group(1)) : StandardCharsets.UTF_8;
+    }
+
+    @Converter
+    public static StAXSource toStAXSource(final BytesSource source) throws XMLStreamException {
+        return new StAXSource(XML_INPUT_FACTORY.createXMLStreamReader(source.getSystemId(),
+                new ByteArrayInputStream(source.getData())));
+    }
+
+    @Converter
+    public static org.apache.camel.util.xml.BytesSource toCamelBytesSource(final BytesSource source) {
+        return new org.apache.camel.util.xml.BytesSource(source.getData(), source.getSystemId());
+    }
+
+    @Converter
+    public static BytesSource toBytesSource(final org.apache.camel.util.xml.BytesSource source) {
+        return new BytesSource(source.getData(), source.getSystemId());
+    }
+
+    @Converter
+    public static BytesSource toBytesSource(final byte[] data) {
+        return new BytesSource(data, null);
+    }
+}
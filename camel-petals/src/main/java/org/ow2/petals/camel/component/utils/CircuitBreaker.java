@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A circuit breaker protecting a consumes: when too many of the last exchanges sent failed (error or timeout), it
+ * opens and the next exchanges fail immediately instead of waiting for an unavailable provider.
+ *
+ * After a while, it becomes half-open and lets one exchange through: it closes again if it succeeds, else it opens
+ * again. Only the outcome of this trial exchange counts: the exchanges sent before the circuit opened may still be
+ * answered while it is half-open, they tell nothing about the recovery of the provider.
+ */
+public class CircuitBreaker {
+
+    public static enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * The consumes this circuit breaker is for
+     */
+    private final Object consumes;
+
+    private final Logger logger;
+
+    private final double failureRatio;
+
+    private final int minimumCalls;
+
+    private final long openDuration;
+
+    /**
+     * The outcomes of the last calls, {@code true} for a failure
+     */
+    private final boolean[] window;
+
+    private int position = 0;
+
+    private int calls = 0;
+
+    private int failures = 0;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    /**
+     * The permit of the exchange let through while half-open, {@code null} if there is none in flight
+     */
+    @Nullable
+    private Permit trial;
+
+    private long transitions = 0;
+
+    private long rejected = 0;
+
+    /**
+     * @param failureRatio
+     *            the ratio of failures (between 0 and 1) over the sliding window opening the circuit
+     * @param windowSize
+     *            the number of the last calls considered
+     * @param minimumCalls
+     *            the number of calls needed in the window before the circuit can open
+     * @param openDuration
+     *            the time (in milliseconds) during which the circuit stays open before letting a trial call through
+     */
+    public CircuitBreaker(final Object consumes, final Logger logger, final double failureRatio,
+            final int windowSize, final int minimumCalls, final long openDuration) {
+        if (failureRatio <= 0 || failureRatio > 1) {
+            throw new IllegalArgumentException("The failure ratio must be in ]0, 1]: " + failureRatio);
+        }
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("The window size must be greater than 0: " + windowSize);
+        }
+        this.consumes = consumes;
+        this.logger = logger;
+        this.failureRatio = failureRatio;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * @return the permit of the exchange to send, {@code null} if it can't be sent. The outcome of the exchange must
+     *         be reported with {@link #onSuccess(Permit)} or {@link #onFailure(Permit)}, or {@link #release(Permit)}
+     *         if it was finally not sent.
+     */
+    public synchronized @Nullable Permit tryAcquire() {
+        switch (this.state) {
+            case CLOSED:
+                return Permit.CALL;
+            case OPEN:
+                if (System.currentTimeMillis() - this.openedAt < this.openDuration) {
+                    this.rejected++;
+                    return null;
+                }
+                transitionTo(State.HALF_OPEN);
+                return newTrial();
+            case HALF_OPEN:
+            default:
+                if (this.trial != null) {
+                    this.rejected++;
+                    return null;
+                }
+                return newTrial();
+        }
+    }
+
+    private Permit newTrial() {
+        final Permit result = new Permit();
+        this.trial = result;
+        return result;
+    }
+
+    public synchronized void onSuccess(final Permit permit) {
+        if (this.state == State.HALF_OPEN) {
+            if (permit == this.trial) {
+                this.trial = null;
+                transitionTo(State.CLOSED);
+            }
+        } else if (this.state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure(final Permit permit) {
+        if (this.state == State.HALF_OPEN) {
+            if (permit == this.trial) {
+                this.trial = null;
+                open();
+            }
+        } else if (this.state == State.CLOSED) {
+            record(true);
+            if (this.calls >= this.minimumCalls && this.failures >= this.failureRatio * this.calls) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * The exchange let through was not sent (an error of the client, before the provider could be involved): it tells
+     * nothing about the provider, but another exchange can be let through if it was the trial one.
+     */
+    public synchronized void release(final Permit permit) {
+        if (permit == this.trial) {
+            this.trial = null;
+        }
+    }
+
+    private void record(final boolean failure) {
+        if (this.calls == this.window.length) {
+            if (this.window[this.position]) {
+                this.failures--;
+            }
+        } else {
+            this.calls++;
+        }
+        this.window[this.position] = failure;
+        if (failure) {
+            this.failures++;
+        }
+        this.position = (this.position + 1) % this.window.length;
+    }
+
+    private void open() {
+        this.openedAt = System.currentTimeMillis();
+        transitionTo(State.OPEN);
+    }
+
+    private void transitionTo(final State newState) {
+        final State oldState = this.state;
+        this.state = newState;
+        this.transitions++;
+        if (newState == State.CLOSED) {
+            // a fresh start
+            this.calls = 0;
+            this.failures = 0;
+            this.position = 0;
+        }
+        this.logger.log(newState == State.OPEN ? Level.WARNING : Level.INFO, "The circuit breaker of the consumes "
+                + this.consumes + " went from " + oldState + " to " + newState + ": " + this);
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    /**
+     * @return the number of state changes of the circuit breaker
+     */
+    public synchronized long getTransitions() {
+        return this.transitions;
+    }
+
+    /**
+     * @return the number of exchanges that were not sent because the circuit was open
+     */
+    public synchronized long getRejected() {
+        return this.rejected;
+    }
+
+    public double getFailureRatio() {
+        return this.failureRatio;
+    }
+
+    public int getWindowSize() {
+        return this.window.length;
+    }
+
+    public int getMinimumCalls() {
+        return this.minimumCalls;
+    }
+
+    public long getOpenDuration() {
+        return this.openDuration;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker [state=" + this.state + ", failures=" + this.failures + "/" + this.calls
+                + ", failureRatio=" + this.failureRatio + ", windowSize=" + this.window.length + ", openDuration="
+                + this.openDuration + "]";
+    }
+
+    /**
+     * What lets an exchange through the circuit breaker: the one of the trial exchange is the only one closing (or
+     * opening again) a half-open circuit.
+     */
+    public static final class Permit {
+
+        /**
+         * The permit of the exchanges sent while the circuit is closed
+         */
+        private static final Permit CALL = new Permit();
+
+        private Permit() {
+            // created by the circuit breaker
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The admission control of the exchanges received for a provides operation: at most a given number of them are
+ * processed by the route at the same time.
+ *
+ * The exceeding exchanges are rejected immediately, except if queueing is enabled: they then wait for an exchange to
+ * be processed, and are shed CoDel-style when they wait too long. When the time spent in the queue stays over the
+ * target for an interval, the exchanges at the head of the queue are shed at an increasing rate until it goes back
+ * under the target, so that the latency stays bounded under overload while bursts are absorbed.
+ */
+public class ConcurrencyLimiter {
+
+    public static enum Admission {
+        /**
+         * The exchange can be processed now, {@link ConcurrencyLimiter#release()} must be called once it is processed
+         */
+        ADMITTED,
+        /**
+         * The exchange is queued, one of the tasks given to {@link ConcurrencyLimiter#admit(Runnable, Runnable)} will
+         * be run later
+         */
+        QUEUED,
+        /**
+         * The exchange must be rejected now
+         */
+        REJECTED
+    }
+
+    /**
+     * The provides operation this limiter is for
+     */
+    private final Object provides;
+
+    private final Logger logger;
+
+    private final int maxConcurrent;
+
+    private final int queueSize;
+
+    private final long target;
+
+    private final long interval;
+
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+
+    private int inFlight = 0;
+
+    /**
+     * The time at which the sojourn time will have been over the target for an interval, 0 if it is under the target
+     */
+    private long firstAboveTime = 0;
+
+    private boolean dropping = false;
+
+    private long dropNext = 0;
+
+    private int dropCount = 0;
+
+    private long rejected = 0;
+
+    private long shed = 0;
+
+    /**
+     * @param maxConcurrent
+     *            the number of exchanges processed at the same time
+     * @param queueSize
+     *            the number of exchanges waiting to be processed, if less or equal to 0 then exceeding exchanges are
+     *            rejected immediately
+     * @param target
+     *            the acceptable time (in milliseconds) spent in the queue
+     * @param interval
+     *            the time (in milliseconds) during which the time spent in the queue can stay over the target before
+     *            exchanges are shed
+     */
+    public ConcurrencyLimiter(final Object provides, final Logger logger, final int maxConcurrent,
+            final int queueSize, final long target, final long interval) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("The maximum concurrency must be greater than 0: " + maxConcurrent);
+        }
+        if (queueSize > 0 && (target <= 0 || interval <= 0)) {
+            throw new IllegalArgumentException(
+                    "The target and the interval must be greater than 0: " + target + ", " + interval);
+        }
+        this.provides = provides;
+        this.logger = logger;
+        this.maxConcurrent = maxConcurrent;
+        this.queueSize = Math.max(0, queueSize);
+        this.target = target;
+        this.interval = interval;
+    }
+
+    /**
+     * @param onAdmitted
+     *            run when a queued exchange can be processed, it must not block since it is run by the thread calling
+     *            {@link #release()}
+     * @param onShed
+     *            run when a queued exchange is shed
+     */
+    public Admission admit(final Runnable onAdmitted, final Runnable onShed) {
+        synchronized (this) {
+            if (this.inFlight < this.maxConcurrent && this.queue.isEmpty()) {
+                this.inFlight++;
+                return Admission.ADMITTED;
+            }
+            if (this.queue.size() < this.queueSize) {
+                this.queue.addLast(new Waiter(onAdmitted, onShed, System.currentTimeMillis()));
+                return Admission.QUEUED;
+            }
+            this.rejected++;
+        }
+        if (this.logger.isLoggable(Level.FINE)) {
+            this.logger.fine("Rejecting an exchange for " + this.provides + ": " + this);
+        }
+        return Admission.REJECTED;
+    }
+
+    /**
+     * To be called once an admitted exchange is processed: its place is given to the next queued exchange that is not
+     * shed, if any.
+     */
+    public void release() {
+        final List<Waiter> toShed = new ArrayList<>();
+        Waiter next = null;
+        synchronized (this) {
+            while (next == null) {
+                final Waiter head = this.queue.pollFirst();
+                if (head == null) {
+                    this.inFlight--;
+                    break;
+                }
+                if (shouldShed(head, System.currentTimeMillis())) {
+                    this.shed++;
+                    toShed.add(head);
+                } else {
+                    // the place is given to the next exchange
+                    next = head;
+                }
+            }
+        }
+
+        if (!toShed.isEmpty()) {
+            this.logger.warning("Shedding " + toShed.size() + " exchange(s) for " + this.provides
+                    + " because they waited too long: " + this);
+        }
+        for (final Waiter waiter : toShed) {
+            runSafely(waiter.onShed);
+        }
+        if (next != null) {
+            runSafely(next.onAdmitted);
+        }
+    }
+
+    /**
+     * The CoDel control law: once the time spent in the queue stayed over the target for an interval, the head of the
+     * queue is shed, and the next ones are shed more and more often until it goes back under the target.
+     */
+    private boolean shouldShed(final Waiter head, final long now) {
+        final long sojourn = now - head.enqueuedAt;
+        if (sojourn < this.target) {
+            this.firstAboveTime = 0;
+            this.dropping = false;
+            return false;
+        }
+        if (this.firstAboveTime == 0) {
+            this.firstAboveTime = now + this.interval;
+            return false;
+        }
+        if (now < this.firstAboveTime) {
+            return false;
+        }
+        if (!this.dropping) {
+            this.dropping = true;
+            // if we were dropping recently, the rate of drops is kept
+            this.dropCount = this.dropCount > 2 && now - this.dropNext < 8 * this.interval ? this.dropCount - 2 : 1;
+            this.dropNext = now + (long) (this.interval / Math.sqrt(this.dropCount));
+            return true;
+        }
+        if (now >= this.dropNext) {
+            this.dropCount++;
+            this.dropNext += (long) (this.interval / Math.sqrt(this.dropCount));
+            return true;
+        }
+        return false;
+    }
+
+    private void runSafely(final Runnable task) {
+        try {
+            task.run();
+        } catch (final RuntimeException e) {
+            this.logger.log(Level.SEVERE, "Unexpected error while dispatching an exchange for " + this.provides, e);
+        }
+    }
+
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return this.queue.size();
+    }
+
+    /**
+     * @return the number of exchanges rejected because the limit was reached and the queue was full
+     */
+    public synchronized long getRejected() {
+        return this.rejected;
+    }
+
+    /**
+     * @return the number of queued exchanges shed because they waited too long
+     */
+    public synchronized long getShed() {
+        return this.shed;
+    }
+
+    public int getMaxConcurrent() {
+        return this.maxConcurrent;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ConcurrencyLimiter [maxConcurrent=" + this.maxConcurrent + ", inFlight=" + this.inFlight + ", queued="
+                + this.queue.size() + ", rejected=" + this.rejected + ", shed=" + this.shed + "]";
+    }
+
+    private static final class Waiter {
+
+        private final Runnable onAdmitted;
+
+        private final Runnable onShed;
+
+        private final long enqueuedAt;
+
+        private Waiter(final Runnable onAdmitted, final Runnable onShed, final long enqueuedAt) {
+            this.onAdmitted = onAdmitted;
+            this.onShed = onShed;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -17,9 +17,12 @@
  */
 package org.ow2.petals.camel.component.utils;
 
+import java.io.InputStream;
 import java.net.URI;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -28,9 +31,15 @@ import javax.jbi.messaging.MessagingException;
 import javax.jbi.messaging.NormalizedMessage;
 import javax.xml.transform.Source;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamSource;
 
 import org.apache.camel.Exchange;
+import org.apache.camel.Message;
 import org.apache.camel.attachment.AttachmentMessage;
+import org.apache.camel.attachment.DefaultAttachmentMessage;
+import org.apache.camel.support.DefaultMessage;
+import org.eclipse.jdt.annotation.Nullable;
 import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
 import org.ow2.petals.camel.component.PetalsConstants;
 import org.ow2.petals.jbi.xml.BytesSource;
@@ -52,9 +61,22 @@ public class Conversions {
 
     /**
      * Used to update properties of an exchange we sent
+     * 
+     * @param containerName
+     *            the name of the {@link PetalsProperties} used instead of the prefixed properties if the Camel exchange
+     *            holds one
      */
     private static void copyProperties(final Exchange from,
-            final org.ow2.petals.component.framework.api.message.Exchange to, final String prefix) {
+            final org.ow2.petals.component.framework.api.message.Exchange to, final String prefix,
+            final String containerName) {
+
+        final PetalsProperties container = PetalsProperties.get(from, containerName);
+        if (container != null) {
+            // the route may still have set some of them as prefixed properties
+            container.fold(from, prefix);
+            container.copyTo(to);
+            return;
+        }
 
         for (final Entry<String, Object> prop : from.getProperties().entrySet()) {
             if (prop.getKey().startsWith(prefix)) {
@@ -65,14 +87,52 @@ public class Conversions {
 
     /**
      * Used to update properties from an exchange we received
+     * 
+     * @param containerName
+     *            the name of the {@link PetalsProperties} used instead of the prefixed properties if the Camel exchange
+     *            holds one
      */
     private static void copyProperties(final org.ow2.petals.component.framework.api.message.Exchange from,
-            final Exchange to, final String prefix) {
+            final Exchange to, final String prefix, final String containerName) {
+
+        final PetalsProperties container = PetalsProperties.get(to, containerName);
+        if (container != null) {
+            container.copyFrom(from);
+            return;
+        }
+
         for (final String prop : from.getPropertyNames()) {
             to.setProperty(prefix + prop, from.getProperty(prop));
         }
     }
 
+    /**
+     * Replace the body of the given message by a {@link org.apache.camel.util.xml.BytesSource} if needed, so that it
+     * can be converted to a Petals message several times.
+     * 
+     * @return <code>false</code> if the body can't be read as bytes
+     */
+    public static boolean makeBodyReplayable(final Message message) {
+        final Object body = message.getBody();
+        if (body == null || body instanceof org.apache.camel.util.xml.BytesSource || body instanceof DOMSource
+                || body instanceof String || body instanceof byte[]) {
+            return true;
+        }
+
+        final byte[] data;
+        try {
+            data = message.getBody(byte[].class);
+        } catch (final RuntimeException e) {
+            return false;
+        }
+        if (data == null) {
+            return false;
+        }
+        message.setBody(new org.apache.camel.util.xml.BytesSource(data,
+                body instanceof Source source ? source.getSystemId() : null));
+        return true;
+    }
+
     /**
      * Populates a new camel exchange with an exchange coming from petals
      * 
@@ -85,13 +145,27 @@ public class Conversions {
      */
     public static void populateNewCamelExchange(final org.ow2.petals.component.framework.api.message.Exchange from,
             final boolean currentFlowTracingActivation, final Exchange to) {
+        populateNewCamelExchange(from, currentFlowTracingActivation, false, to);
+    }
+
+    /**
+     * Populates a new camel exchange with an exchange coming from petals
+     * 
+     * @param lazyHeaders
+     *            if <code>true</code>, the properties of the JBI in message are copied to the headers of the Camel in
+     *            message only when they are accessed.
+     */
+    public static void populateNewCamelExchange(final org.ow2.petals.component.framework.api.message.Exchange from,
+            final boolean currentFlowTracingActivation, final boolean lazyHeaders, final Exchange to) {
 
         to.setExchangeId(from.getExchangeId());
 
         // let's first copy properties that were potentially in the new created exchange
-        copyProperties(to, from, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTY_PREFIX);
+        copyProperties(to, from, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTY_PREFIX,
+                PetalsConstants.EXCHANGE_ORIGINAL_PROPERTIES);
 
-        copyProperties(from, to, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTY_PREFIX);
+        copyProperties(from, to, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTY_PREFIX,
+                PetalsConstants.EXCHANGE_ORIGINAL_PROPERTIES);
 
         to.setProperty(PetalsConstants.EXCHANGE_ORIGINAL_INTERFACE, from.getInterfaceName());
         to.setProperty(PetalsConstants.EXCHANGE_ORIGINAL_SERVICE, from.getService());
@@ -102,25 +176,114 @@ public class Conversions {
         to.setProperty(PetalsConstants.EXCHANGE_CURRENT_FLOW_TRACING_ACTIVATION,
                 Boolean.valueOf(currentFlowTracingActivation));
 
-        populateCamelMessage(from.getInMessage(), to.getIn(AttachmentMessage.class));
+        if (lazyHeaders) {
+            to.setIn(new NormalizedMessageView(to, from.getInMessage()));
+            populateCamelMessageContent(from.getInMessage(), to.getIn(AttachmentMessage.class));
+        } else {
+            populateCamelMessage(from.getInMessage(), to.getIn(AttachmentMessage.class));
+        }
+    }
+
+    /**
+     * Populates a new camel exchange with a batch of exchanges coming from petals: its body is the list of their in
+     * messages, and its properties are those of the first one.
+     * 
+     * @param lazyHeaders
+     *            if <code>true</code>, the properties of the JBI in messages are copied to the headers of the Camel
+     *            messages only when they are accessed.
+     */
+    public static void populateBatchCamelExchange(
+            final List<org.ow2.petals.component.framework.api.message.Exchange> from,
+            final boolean currentFlowTracingActivation, final boolean lazyHeaders, final Exchange to) {
+
+        final org.ow2.petals.component.framework.api.message.Exchange first = from.get(0);
+
+        copyProperties(to, first, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTY_PREFIX,
+                PetalsConstants.EXCHANGE_ORIGINAL_PROPERTIES);
+
+        copyProperties(first, to, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTY_PREFIX,
+                PetalsConstants.EXCHANGE_ORIGINAL_PROPERTIES);
+
+        to.setProperty(PetalsConstants.EXCHANGE_ORIGINAL_INTERFACE, first.getInterfaceName());
+        to.setProperty(PetalsConstants.EXCHANGE_ORIGINAL_SERVICE, first.getService());
+        to.setProperty(PetalsConstants.EXCHANGE_ORIGINAL_ENDPOINT, first.getEndpoint());
+        to.setProperty(PetalsConstants.EXCHANGE_ORIGINAL_OPERATION, first.getOperation());
+        to.setProperty(PetalsConstants.EXCHANGE_ORIGINAL_MEP, first.getPattern());
+
+        to.setProperty(PetalsConstants.EXCHANGE_CURRENT_FLOW_TRACING_ACTIVATION,
+                Boolean.valueOf(currentFlowTracingActivation));
+
+        final List<Message> messages = new ArrayList<>(from.size());
+        for (final org.ow2.petals.component.framework.api.message.Exchange exchange : from) {
+            // the messages are usable by a splitter as they are
+            final AttachmentMessage message;
+            if (lazyHeaders) {
+                message = new DefaultAttachmentMessage(new NormalizedMessageView(to, exchange.getInMessage()));
+                populateCamelMessageContent(exchange.getInMessage(), message);
+            } else {
+                message = new DefaultAttachmentMessage(new DefaultMessage(to));
+                populateCamelMessage(exchange.getInMessage(), message);
+            }
+            message.setMessageId(exchange.getExchangeId());
+            messages.add(message);
+        }
+        to.getIn().setBody(messages);
+    }
+
+    /**
+     * Populates one of the petals exchanges of a batch from the answer we got through Camel: an error of the whole
+     * batch or the error set for this exchange in {@link PetalsConstants#EXCHANGE_BATCH_ERRORS}, else the exchange is
+     * finished.
+     * 
+     * @param index
+     *            the position of the exchange in the batch
+     */
+    public static void populateBatchAnswerPetalsExchange(final Exchange from, final int index,
+            final org.ow2.petals.component.framework.api.message.Exchange to) throws MessagingException {
+
+        Object error = from.getException();
+        if (error == null) {
+            final Map<?, ?> errors = from.getProperty(PetalsConstants.EXCHANGE_BATCH_ERRORS, Map.class);
+            error = errors == null ? null : errors.get(index);
+        }
+
+        if (error instanceof Exception e) {
+            to.setError(e);
+        } else if (error != null) {
+            to.setError(new Exception(error.toString()));
+        } else {
+            to.setDoneStatus();
+        }
     }
 
     /**
      * Populates a camel exchange from the answer we got through petals
+     * 
+     * @param answerHeaders
+     *            if the names of the headers coming from the answer must be set in
+     *            {@link PetalsConstants#EXCHANGE_ANSWER_HEADERS}, they are only needed to share the answer with other
+     *            exchanges
      */
     public static void populateAnswerCamelExchange(final org.ow2.petals.component.framework.api.message.Exchange from,
-            final Exchange to) {
+            final Exchange to, final boolean answerHeaders) {
 
         // let's first clean the previous properties before copying those of the answer
-        final Iterator<String> it = to.getProperties().keySet().iterator();
-        while (it.hasNext()) {
-            if (it.next().startsWith(PetalsConstants.EXCHANGE_PROPERTY_PREFIX)) {
-                it.remove();
+        final PetalsProperties container = PetalsProperties.get(to, PetalsConstants.EXCHANGE_PROPERTIES);
+        if (container != null) {
+            container.clear();
+        } else {
+            final Iterator<String> it = to.getProperties().keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().startsWith(PetalsConstants.EXCHANGE_PROPERTY_PREFIX)) {
+                    it.remove();
+                }
             }
         }
 
-        copyProperties(from, to, PetalsConstants.EXCHANGE_PROPERTY_PREFIX);
+        copyProperties(from, to, PetalsConstants.EXCHANGE_PROPERTY_PREFIX, PetalsConstants.EXCHANGE_PROPERTIES);
 
+        // the message still holds the headers of the request, only these ones come from the answer
+        Set<String> answerHeaderNames = Set.of();
         if (from.isErrorStatus()) {
             // there has been a technical error
             final Exception error = from.getError();
@@ -130,19 +293,25 @@ public class Conversions {
             to.getMessage().setBody(null);
         } else if (from.getFault() != null) {
             // there has been a fault
-            populateCamelMessage(from.getFault(), to.getMessage(AttachmentMessage.class));
+            answerHeaderNames = populateCamelMessage(from.getFault(), to.getMessage(AttachmentMessage.class));
             to.getMessage().setHeader(PetalsConstants.MESSAGE_FAULT_HEADER, true);
             // TODO add test of conversions in both direction to be sure everything is correct!
         } else if (from.isOutMessage()) {
             // this is a response
-            populateCamelMessage(from.getOutMessage(), to.getMessage(AttachmentMessage.class));
+            answerHeaderNames = populateCamelMessage(from.getOutMessage(), to.getMessage(AttachmentMessage.class));
         } else {
             // the exchange is finished! it corresponds to done for petals exchange, but in Camel there is
             // nothing specific to do...
         }
+        if (answerHeaders) {
+            to.setProperty(PetalsConstants.EXCHANGE_ANSWER_HEADERS, Set.copyOf(answerHeaderNames));
+        }
     }
 
-    private static void populateCamelMessage(final NormalizedMessage from,
+    /**
+     * @return the names of the headers set from the properties of the given message
+     */
+    private static Set<String> populateCamelMessage(final NormalizedMessage from,
             final AttachmentMessage toAttachmentMessage) {
 
         // Normally, it is an empty message that is populated...
@@ -152,9 +321,18 @@ public class Conversions {
             toAttachmentMessage.setHeader(prop, from.getProperty(prop));
         }
 
+        populateCamelMessageContent(from, toAttachmentMessage);
+
+        return props;
+    }
+
+    private static void populateCamelMessageContent(final NormalizedMessage from,
+            final AttachmentMessage toAttachmentMessage) {
+
         final Set<String> attachs = from.getAttachmentNames();
         for (String attach : attachs) {
-            toAttachmentMessage.addAttachment(attach, from.getAttachment(attach));
+            toAttachmentMessage.addAttachment(attach,
+                    SpooledAttachments.spool(toAttachmentMessage.getExchange(), from.getAttachment(attach)));
         }
 
         final Source content = from.getContent();
@@ -162,12 +340,13 @@ public class Conversions {
         // let's take advantage of petals's BytesSource to avoid unneeded conversions
         final Source body;
         if (content instanceof BytesSource byteSource) {
-            body = new org.apache.camel.util.xml.BytesSource(byteSource.getData(), content.getSystemId());
+            body = BytesSourceConverter.toCamelBytesSource(byteSource);
         } else {
             body = content;
         }
 
         toAttachmentMessage.setBody(body);
+        PassThroughPayload.capture(toAttachmentMessage, body, content);
     }
 
     /**
@@ -175,14 +354,26 @@ public class Conversions {
      */
     public static void populateNewPetalsExchange(final Exchange from,
             final org.ow2.petals.component.framework.api.message.Exchange to) throws MessagingException {
+        populateNewPetalsExchange(from, to, SourceType.DOM);
+    }
+
+    /**
+     * Populates a new petals exchange with an exchange coming from camel
+     * 
+     * @param sourceType
+     *            how the body is converted if it is not a {@link Source}
+     */
+    public static void populateNewPetalsExchange(final Exchange from,
+            final org.ow2.petals.component.framework.api.message.Exchange to, final SourceType sourceType)
+            throws MessagingException {
 
         // let's first copy properties that were potentially in the new created exchange
         // (such as flow attributes or other CDK things)
-        copyProperties(to, from, PetalsConstants.EXCHANGE_PROPERTY_PREFIX);
+        copyProperties(to, from, PetalsConstants.EXCHANGE_PROPERTY_PREFIX, PetalsConstants.EXCHANGE_PROPERTIES);
 
-        copyProperties(from, to, PetalsConstants.EXCHANGE_PROPERTY_PREFIX);
+        copyProperties(from, to, PetalsConstants.EXCHANGE_PROPERTY_PREFIX, PetalsConstants.EXCHANGE_PROPERTIES);
 
-        populateNormalizedMessage(from.getIn(AttachmentMessage.class), to.getInMessage());
+        populateNormalizedMessage(from.getIn(AttachmentMessage.class), to.getInMessage(), sourceType);
     }
 
     /**
@@ -192,14 +383,29 @@ public class Conversions {
      */
     public static void populateAnswerPetalsExchange(final Exchange from,
             final org.ow2.petals.component.framework.api.message.Exchange to) throws MessagingException {
+        populateAnswerPetalsExchange(from, to, SourceType.DOM);
+    }
+
+    /**
+     * <p>
+     * Populates a Petals exchange from the answer we got through Camel.
+     * </p>
+     * 
+     * @param sourceType
+     *            how the body is converted if it is not a {@link Source}
+     */
+    public static void populateAnswerPetalsExchange(final Exchange from,
+            final org.ow2.petals.component.framework.api.message.Exchange to, final SourceType sourceType)
+            throws MessagingException {
 
         // let's clean what was in the Exchange before copying from the answer
-        final Set<String> oldProps = new HashSet<>(to.getPropertyNames());
-        for (final String oldProp : oldProps) {
+        // (the names are copied since removing a property may change them)
+        for (final String oldProp : to.getPropertyNames().toArray(new String[0])) {
             to.setProperty(oldProp, null);
         }
 
-        copyProperties(from, to, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTY_PREFIX);
+        copyProperties(from, to, PetalsConstants.EXCHANGE_ORIGINAL_PROPERTY_PREFIX,
+                PetalsConstants.EXCHANGE_ORIGINAL_PROPERTIES);
 
         // Note: the Petals exchange checks that all is correct w.r.t. to MEP and status
 
@@ -208,7 +414,7 @@ public class Conversions {
             to.setError(from.getException());
         } else if (Boolean.TRUE.equals(from.getMessage().getHeader(PetalsConstants.MESSAGE_FAULT_HEADER))) {
             final Fault fault = to.createFault();
-            populateNormalizedMessage(outMessage, fault);
+            populateNormalizedMessage(outMessage, fault, sourceType);
             to.setFault(fault);
         } else {
             MEPPatternConstants mep = MEPPatternConstants
@@ -216,10 +422,10 @@ public class Conversions {
 
             // TODO maybe we should be able to handle situations when the exchanges have different MEP
             if (mep == MEPPatternConstants.IN_OUT) {
-                populateNormalizedMessage(outMessage, to.getOutMessage());
+                populateNormalizedMessage(outMessage, to.getOutMessage(), sourceType);
             } else if (mep == MEPPatternConstants.IN_OPTIONAL_OUT) {
                 if (outMessage != null) {
-                    populateNormalizedMessage(outMessage, to.getOutMessage());
+                    populateNormalizedMessage(outMessage, to.getOutMessage(), sourceType);
                 } else {
                     // the exchange is finished
                     to.setDoneStatus();
@@ -234,13 +440,16 @@ public class Conversions {
     }
 
     private static void populateNormalizedMessage(final AttachmentMessage fromAttachmentMessage,
-            final NormalizedMessage to)
+            final NormalizedMessage to, final SourceType sourceType)
             throws MessagingException {
 
         // Normally, it is an empty message that is populated...
 
-        for (final Entry<String, Object> e : fromAttachmentMessage.getHeaders().entrySet()) {
-            to.setProperty(e.getKey(), e.getValue());
+        final NormalizedMessageView view = NormalizedMessageView.of(fromAttachmentMessage);
+        if (view == null || !view.copyHeadersTo(to)) {
+            for (final Entry<String, Object> e : fromAttachmentMessage.getHeaders().entrySet()) {
+                to.setProperty(e.getKey(), e.getValue());
+            }
         }
 
         if (fromAttachmentMessage.hasAttachments()) {
@@ -250,19 +459,69 @@ public class Conversions {
         }
 
         final Object body = fromAttachmentMessage.getBody();
+        final Source untouched = PassThroughPayload.untouchedContent(fromAttachmentMessage);
         final Source content;
-        // TODO maybe replace all of that with type converters registered to Camel?
-        if (body instanceof org.apache.camel.util.xml.BytesSource bodyByteSource) {
+        if (untouched != null) {
+            // the route did not change the content received from Petals: it is passed through as is
+            content = untouched;
+        } else if (body instanceof org.apache.camel.util.xml.BytesSource bodyByteSource) {
             // let's apply the inverse transformation applied earlier
-            content = new BytesSource(bodyByteSource.getData(), ((Source) body).getSystemId());
+            content = BytesSourceConverter.toBytesSource(bodyByteSource);
         } else if (body instanceof Source bodySource) {
             // let's continue with a Source then
             content = bodySource;
         } else {
-            // TODO provide an endpoint option to force the use of a desired Source implementation?
-            // This uses available converters (see http://camel.apache.org/type-converter.html)
-            content = fromAttachmentMessage.getBody(DOMSource.class);
+            content = convertBody(fromAttachmentMessage, sourceType);
         }
         to.setContent(content);
     }
+
+    /**
+     * Converts a body that is not a {@link Source}. This uses available converters (see
+     * http://camel.apache.org/type-converter.html)
+     */
+    public static @Nullable Source convertBody(final Message message, final SourceType sourceType) {
+        final Source converted;
+        switch (sourceType) {
+            case BYTES:
+                final byte[] data = message.getBody(byte[].class);
+                converted = data == null ? null : BytesSourceConverter.toBytesSource(data);
+                break;
+            case STAX:
+                converted = message.getBody(StAXSource.class);
+                break;
+            case STREAM:
+                final InputStream stream = message.getBody(InputStream.class);
+                converted = stream == null ? null : new StreamSource(stream);
+                break;
+            case DOM:
+            default:
+                converted = null;
+                break;
+        }
+        // if the body can't be converted that way, a DOM is built
+        return converted != null ? converted : message.getBody(DOMSource.class);
+    }
+
+    /**
+     * How a body that is not a {@link Source} is converted to the content of a Petals message
+     */
+    public enum SourceType {
+        /**
+         * The body is parsed to a DOM tree
+         */
+        DOM,
+        /**
+         * The body is serialized to bytes, kept in a {@link BytesSource} that can be read several times
+         */
+        BYTES,
+        /**
+         * The body is read with a StAX reader, that can be read only once
+         */
+        STAX,
+        /**
+         * The body is read as a stream, that can be read only once
+         */
+        STREAM
+    }
 }
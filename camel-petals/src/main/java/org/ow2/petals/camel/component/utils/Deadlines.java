@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import org.apache.camel.Exchange;
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.petals.camel.component.PetalsConstants;
+
+/**
+ * Utils to handle the deadline of a route: the time after which the exchanges it sends to Petals are useless because
+ * the original caller gave up.
+ * 
+ * The deadline is kept in the Camel exchange as the property {@link PetalsConstants#EXCHANGE_DEADLINE}. The time
+ * remaining before it is propagated to the Petals exchanges sent by the route as the JBI property
+ * {@link #JBI_PROPERTY}, so that a route of another service unit answering them shares it: it is relative, since the
+ * clocks of the Petals nodes may differ, and it is turned back into a deadline as soon as it is received.
+ */
+public final class Deadlines {
+
+    /**
+     * The JBI property holding the time (in milliseconds) remaining to a Petals exchange when it was sent
+     */
+    public static final String JBI_PROPERTY = "org.ow2.petals.camel.remaining-time";
+
+    private Deadlines() {
+        // Utility class --> No constructor
+    }
+
+    /**
+     * @param from
+     *            a Petals exchange just received
+     * @param budget
+     *            the time (in milliseconds) given to the route, if less or equal to 0 then only the time remaining to
+     *            the Petals exchange is used
+     * @return the deadline (in milliseconds since the epoch) of the given Petals exchange: the time remaining to it,
+     *         reduced to the given budget, counted from now, {@link Long#MAX_VALUE} if it has none
+     */
+    public static long deadline(final org.ow2.petals.component.framework.api.message.Exchange from,
+            final long budget) {
+        final long now = System.currentTimeMillis();
+        final long remaining = toMillis(from.getProperty(JBI_PROPERTY));
+        long deadline = remaining == Long.MAX_VALUE ? Long.MAX_VALUE : now + Math.max(0, remaining);
+        if (budget > 0) {
+            deadline = Math.min(deadline, now + budget);
+        }
+        return deadline;
+    }
+
+    /**
+     * Set the deadline of the given Camel exchange
+     * 
+     * @param deadline
+     *            in milliseconds since the epoch, {@link Long#MAX_VALUE} if there is none
+     */
+    public static void stamp(final Exchange to, final long deadline) {
+        if (deadline != Long.MAX_VALUE) {
+            to.setProperty(PetalsConstants.EXCHANGE_DEADLINE, deadline);
+        }
+    }
+
+    /**
+     * Set the time remaining before the deadline of the given Camel exchange on the given Petals exchange sent by the
+     * route.
+     */
+    public static void propagate(final Exchange from,
+            final org.ow2.petals.component.framework.api.message.Exchange to) {
+        final long remaining = remaining(from);
+        if (remaining != Long.MAX_VALUE) {
+            to.setProperty(JBI_PROPERTY, Math.max(0, remaining));
+        }
+    }
+
+    /**
+     * @return the time (in milliseconds) remaining before the deadline of the given Camel exchange,
+     *         {@link Long#MAX_VALUE} if it has no deadline
+     */
+    public static long remaining(final Exchange exchange) {
+        final long deadline = toMillis(exchange.getProperty(PetalsConstants.EXCHANGE_DEADLINE));
+        return deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+    }
+
+    /**
+     * @param timeout
+     *            the timeout of the exchange, if less than 0 then the default timeout is used, if equals to 0 then no
+     *            timeout
+     * @param defaultTimeout
+     *            the default timeout, less than 0 if unknown
+     * @param remaining
+     *            the time remaining before the deadline of the exchange
+     * @return the timeout of the exchange reduced to the remaining time
+     */
+    public static long cap(final long timeout, final long defaultTimeout, final long remaining) {
+        if (remaining == Long.MAX_VALUE) {
+            return timeout;
+        }
+        final long actual = timeout < 0 ? defaultTimeout : timeout;
+        return actual <= 0 ? remaining : Math.min(actual, remaining);
+    }
+
+    private static long toMillis(final @Nullable Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        } else if (value instanceof String string) {
+            try {
+                return Long.parseLong(string.trim());
+            } catch (final NumberFormatException e) {
+                return Long.MAX_VALUE;
+            }
+        } else {
+            return Long.MAX_VALUE;
+        }
+    }
+}
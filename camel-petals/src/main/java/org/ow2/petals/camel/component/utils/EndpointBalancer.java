@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jbi.servicedesc.ServiceEndpoint;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Client-side load balancing of the exchanges of a consumes over the endpoints implementing its service (or
+ * interface), based on the observed latency and the number of exchanges in flight of each endpoint.
+ */
+public class EndpointBalancer {
+
+    public static enum Strategy {
+        /**
+         * The endpoint is chosen by the NMR
+         */
+        NONE,
+        /**
+         * The endpoint with the least exchanges in flight is chosen, the fastest one in case of a tie
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * Two endpoints are picked randomly and the one with the best latency (weighted by its exchanges in flight) is
+         * chosen
+         */
+        POWER_OF_TWO_CHOICES
+    }
+
+    /**
+     * Weight of the last observed latency in the moving average
+     */
+    private static final double EWMA_WEIGHT = 0.2;
+
+    /**
+     * The consumes this balancer is for
+     */
+    private final Object consumes;
+
+    private final Strategy strategy;
+
+    private final ConcurrentMap<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public EndpointBalancer(final Object consumes, final Strategy strategy) {
+        this.consumes = consumes;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Choose an endpoint among the candidates: the returned ticket must be completed when the exchange sent to the
+     * chosen endpoint is answered.
+     * 
+     * @return {@code null} if there is no candidate
+     */
+    public @Nullable Ticket select(final List<ServiceEndpoint> candidates) {
+        final int size = candidates.size();
+        if (size == 0 || this.strategy == Strategy.NONE) {
+            return null;
+        }
+
+        ServiceEndpoint chosen;
+        EndpointStats chosenStats;
+        if (size == 1) {
+            chosen = candidates.get(0);
+            chosenStats = getStats(chosen);
+        } else if (this.strategy == Strategy.POWER_OF_TWO_CHOICES) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final int first = random.nextInt(size);
+            final int second = (first + 1 + random.nextInt(size - 1)) % size;
+            chosen = candidates.get(first);
+            chosenStats = getStats(chosen);
+            final ServiceEndpoint other = candidates.get(second);
+            final EndpointStats otherStats = getStats(other);
+            if (otherStats.getScore() < chosenStats.getScore()) {
+                chosen = other;
+                chosenStats = otherStats;
+            }
+        } else {
+            chosen = candidates.get(0);
+            chosenStats = getStats(chosen);
+            for (int i = 1; i < size; i++) {
+                final ServiceEndpoint candidate = candidates.get(i);
+                final EndpointStats candidateStats = getStats(candidate);
+                final int outstanding = candidateStats.getOutstanding();
+                final int chosenOutstanding = chosenStats.getOutstanding();
+                if (outstanding < chosenOutstanding || (outstanding == chosenOutstanding
+                        && candidateStats.getLatency() < chosenStats.getLatency())) {
+                    chosen = candidate;
+                    chosenStats = candidateStats;
+                }
+            }
+        }
+
+        assert chosen != null;
+        chosenStats.outstanding.incrementAndGet();
+        return new Ticket(chosen, chosenStats);
+    }
+
+    private EndpointStats getStats(final ServiceEndpoint endpoint) {
+        final EndpointStats result = this.stats.computeIfAbsent(
+                endpoint.getServiceName() + "/" + endpoint.getEndpointName(), k -> new EndpointStats());
+        assert result != null;
+        return result;
+    }
+
+    public Strategy getStrategy() {
+        return this.strategy;
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointBalancer [consumes=" + this.consumes + ", strategy=" + this.strategy + ", endpoints="
+                + this.stats + "]";
+    }
+
+    public static final class Ticket {
+
+        private final ServiceEndpoint endpoint;
+
+        private final EndpointStats stats;
+
+        private final long start = System.nanoTime();
+
+        private boolean completed = false;
+
+        private Ticket(final ServiceEndpoint endpoint, final EndpointStats stats) {
+            this.endpoint = endpoint;
+            this.stats = stats;
+        }
+
+        public ServiceEndpoint getEndpoint() {
+            return this.endpoint;
+        }
+
+        /**
+         * @param failed
+         *            if the exchange failed (error or timeout): the latency of the endpoint is then penalised so that a
+         *            failing endpoint does not attract the traffic by answering fast
+         */
+        public synchronized void complete(final boolean failed) {
+            if (this.completed) {
+                return;
+            }
+            this.completed = true;
+            this.stats.outstanding.decrementAndGet();
+            this.stats.record(System.nanoTime() - this.start, failed);
+        }
+    }
+
+    private static final class EndpointStats {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        /**
+         * Moving average of the latency, in nanoseconds
+         */
+        private double latency = 0;
+
+        private int getOutstanding() {
+            return this.outstanding.get();
+        }
+
+        private synchronized double getLatency() {
+            return this.latency;
+        }
+
+        private double getScore() {
+            // + 1 so that the exchanges in flight count even for an endpoint never answered yet
+            return (getLatency() + 1) * (getOutstanding() + 1);
+        }
+
+        private synchronized void record(final long sample, final boolean failed) {
+            final double observed = failed ? Math.max(sample, 2 * this.latency) : sample;
+            this.latency = this.latency == 0 ? observed : (1 - EWMA_WEIGHT) * this.latency + EWMA_WEIGHT * observed;
+        }
+
+        @Override
+        public String toString() {
+            return "[outstanding=" + getOutstanding() + ", latency=" + (long) (getLatency() / 1000000) + "ms]";
+        }
+    }
+}
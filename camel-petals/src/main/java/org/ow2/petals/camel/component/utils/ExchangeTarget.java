@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.Objects;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Where the Petals exchanges of a to() endpoint are sent: the interface, service, endpoint and operation resolved from
+ * the endpoint and its consumes.
+ *
+ * The endpoints of the same consumes may target different services or endpoints: what is shared by them and depends
+ * on the provider answering (answers, latencies) must be kept per target.
+ */
+public final class ExchangeTarget {
+
+    @Nullable
+    private final QName interfaceName;
+
+    @Nullable
+    private final QName service;
+
+    @Nullable
+    private final String endpoint;
+
+    @Nullable
+    private final QName operation;
+
+    private final int hash;
+
+    public ExchangeTarget(final @Nullable QName interfaceName, final @Nullable QName service,
+            final @Nullable String endpoint, final @Nullable QName operation) {
+        this.interfaceName = interfaceName;
+        this.service = service;
+        this.endpoint = endpoint;
+        this.operation = operation;
+        this.hash = Objects.hash(interfaceName, service, endpoint, operation);
+    }
+
+    public @Nullable QName getInterfaceName() {
+        return this.interfaceName;
+    }
+
+    public @Nullable QName getService() {
+        return this.service;
+    }
+
+    public @Nullable String getEndpoint() {
+        return this.endpoint;
+    }
+
+    public @Nullable QName getOperation() {
+        return this.operation;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ExchangeTarget other)) {
+            return false;
+        }
+        return Objects.equals(this.interfaceName, other.interfaceName) && Objects.equals(this.service, other.service)
+                && Objects.equals(this.endpoint, other.endpoint) && Objects.equals(this.operation, other.operation);
+    }
+
+    @Override
+    public String toString() {
+        return "ExchangeTarget [interface=" + this.interfaceName + ", service=" + this.service + ", endpoint="
+                + this.endpoint + ", operation=" + this.operation + "]";
+    }
+}
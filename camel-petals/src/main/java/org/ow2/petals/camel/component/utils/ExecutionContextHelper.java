@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.petals.commons.log.FlowAttributes;
+import org.ow2.petals.commons.log.PetalsExecutionContext;
+
+/**
+ * Utils to carry the Petals execution context when the processing of an exchange switches threads.
+ */
+public final class ExecutionContextHelper {
+
+    private ExecutionContextHelper() {
+        // Utility class --> No constructor
+    }
+
+    /**
+     * Execute the given task with the given flow attributes in the execution context, the ones of the current thread
+     * are restored afterwards.
+     */
+    public static void runWithFlowAttributes(final @Nullable FlowAttributes flowAttributes, final Runnable task) {
+        final FlowAttributes previous = PetalsExecutionContext.getFlowAttributes();
+        if (flowAttributes != null) {
+            PetalsExecutionContext.putFlowAttributes(flowAttributes);
+        } else {
+            PetalsExecutionContext.clear();
+        }
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                PetalsExecutionContext.putFlowAttributes(previous);
+            } else {
+                PetalsExecutionContext.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.petals.camel.component.exceptions.InFlightLimitReachedException;
+
+/**
+ * A bounded window of exchanges in flight, shared by all the producers of a consumes.
+ *
+ * When the window is full, a new exchange is handled according to the {@link Policy} of the window.
+ *
+ * A parked exchange is handed over to the executor of the window by the thread calling {@link #release()}, usually the
+ * one handling the answer of another exchange: this thread must not run the route of the parked exchange, which may
+ * complete synchronously and release the window again. Without executor, or if it rejects the task, the parked
+ * exchanges are run one after the other by the outermost call to {@link #release()} of the thread, never recursively.
+ */
+public class InFlightWindow {
+
+    public static enum Policy {
+        /**
+         * The caller waits until an exchange in flight completes
+         */
+        BLOCK,
+        /**
+         * The exchange is rejected immediately
+         */
+        REJECT,
+        /**
+         * The exchange is parked on a bounded queue and sent when an exchange in flight completes, it is rejected if
+         * the queue is full
+         */
+        QUEUE
+    }
+
+    /**
+     * The consumes this window is for
+     */
+    private final Object consumes;
+
+    private final int maxInFlight;
+
+    private final Policy policy;
+
+    private final int queueSize;
+
+    private final Semaphore permits;
+
+    @Nullable
+    private final BlockingQueue<Runnable> parked;
+
+    @Nullable
+    private final Executor executor;
+
+    /**
+     * The parked tasks left to run by the outermost call to {@link #runInline(Runnable)} of the thread, if any
+     */
+    private final ThreadLocal<Deque<Runnable>> inline = new ThreadLocal<>();
+
+    public InFlightWindow(final Object consumes, final int maxInFlight, final Policy policy, final int queueSize) {
+        this(consumes, maxInFlight, policy, queueSize, null);
+    }
+
+    /**
+     * @param executor
+     *            the executor running the parked tasks, if {@code null} they are run by the thread releasing the window
+     */
+    public InFlightWindow(final Object consumes, final int maxInFlight, final Policy policy, final int queueSize,
+            final @Nullable Executor executor) {
+        assert maxInFlight > 0;
+        this.consumes = consumes;
+        this.maxInFlight = maxInFlight;
+        this.policy = policy;
+        this.queueSize = queueSize;
+        this.permits = new Semaphore(maxInFlight);
+        this.parked = policy == Policy.QUEUE && queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : null;
+        this.executor = executor;
+    }
+
+    /**
+     * Enter the window. Each successful call must be followed by exactly one call to {@link #release()}, including
+     * when the parked task is executed.
+     *
+     * @param task
+     *            the sending to execute later if the exchange is parked, it is then in charge of calling
+     *            {@link #release()}
+     * @param canPark
+     *            if {@code false}, the {@link Policy#QUEUE} policy behaves as {@link Policy#BLOCK}
+     * @return {@code true} if the caller entered the window and can send now, {@code false} if the task was parked
+     *         (it may even have been executed before this method returns)
+     * @throws InterruptedException
+     *             if the caller was interrupted while waiting
+     * @throws InFlightLimitReachedException
+     *             if the exchange is rejected
+     */
+    public boolean enter(final Runnable task, final boolean canPark)
+            throws InterruptedException, InFlightLimitReachedException {
+        if (this.permits.tryAcquire()) {
+            return true;
+        }
+
+        final BlockingQueue<Runnable> queue = this.parked;
+        if (this.policy == Policy.BLOCK || (this.policy == Policy.QUEUE && !canPark)) {
+            this.permits.acquire();
+            return true;
+        } else if (queue == null || !queue.offer(task)) {
+            throw new InFlightLimitReachedException(this.maxInFlight, this.consumes);
+        }
+
+        // an exchange in flight may have completed before we parked the task
+        if (this.permits.tryAcquire()) {
+            runNextParked();
+        }
+        return false;
+    }
+
+    /**
+     * Leave the window: if a task is parked, it inherits the place in the window and it is handed over to the executor
+     * of the window.
+     */
+    public void release() {
+        runNextParked();
+    }
+
+    private void runNextParked() {
+        final BlockingQueue<Runnable> queue = this.parked;
+        final Runnable next = queue == null ? null : queue.poll();
+        if (next == null) {
+            this.permits.release();
+            return;
+        }
+
+        final Executor dispatcher = this.executor;
+        if (dispatcher != null) {
+            try {
+                dispatcher.execute(next);
+                return;
+            } catch (final RejectedExecutionException e) {
+                // the task keeps its place in the window, the current thread runs it
+            }
+        }
+        runInline(next);
+    }
+
+    /**
+     * Run the given task, unless this thread is already running parked tasks: a parked task completing synchronously
+     * releases the window again, its successor is then run by the outer loop instead of growing the stack.
+     */
+    private void runInline(final Runnable task) {
+        final Deque<Runnable> pending = this.inline.get();
+        if (pending != null) {
+            pending.add(task);
+            return;
+        }
+
+        final Deque<Runnable> tasks = new ArrayDeque<>();
+        this.inline.set(tasks);
+        RuntimeException failure = null;
+        try {
+            for (Runnable next = task; next != null; next = tasks.poll()) {
+                try {
+                    next.run();
+                } catch (final RuntimeException e) {
+                    // the other tasks hold a place in the window, they must run anyway
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            this.inline.remove();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public int getMaxInFlight() {
+        return this.maxInFlight;
+    }
+
+    public Policy getPolicy() {
+        return this.policy;
+    }
+
+    public int getQueueSize() {
+        return this.queueSize;
+    }
+
+    /**
+     * @return the number of exchanges in flight
+     */
+    public int getInFlight() {
+        return this.maxInFlight - this.permits.availablePermits();
+    }
+
+    /**
+     * @return the number of exchanges waiting to enter the window
+     */
+    public int getParked() {
+        final BlockingQueue<Runnable> queue = this.parked;
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public String toString() {
+        return "InFlightWindow [maxInFlight=" + this.maxInFlight + ", policy=" + this.policy + ", queueSize="
+                + this.queueSize + ", inFlight=" + getInFlight() + ", parked=" + getParked() + "]";
+    }
+}
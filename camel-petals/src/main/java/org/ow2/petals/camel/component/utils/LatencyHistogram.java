@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The distribution of the latencies observed for the exchanges sent to a target, from which percentiles are computed.
+ *
+ * Latencies are counted in buckets growing by 10%, so a percentile is known with a precision of 10%. The counts are
+ * halved regularly so that the distribution follows the recent behaviour of the providers.
+ *
+ * Recording a latency only updates its bucket, without lock. The percentiles are computed from a snapshot of the
+ * buckets, taken again once {@value #REFRESH_SAMPLES} latencies were recorded, after {@value #REFRESH_PERIOD}ms, or as
+ * soon as a latency at least as high as all the ones of the snapshot is recorded, so that a timeout computed from them
+ * grows without delay when the providers slow down.
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.1;
+
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+
+    /**
+     * Enough for latencies of about 10 days
+     */
+    private static final int BUCKETS = 220;
+
+    /**
+     * The counts are halved when this number of latencies has been recorded since the last time
+     */
+    private static final long DECAY_PERIOD = 10000;
+
+    /**
+     * The number of latencies under which the percentiles are not meaningful
+     */
+    private static final long MINIMUM_SAMPLES = 20;
+
+    /**
+     * The number of latencies recorded after which the snapshot is taken again
+     */
+    private static final long REFRESH_SAMPLES = 16;
+
+    /**
+     * The time (in milliseconds) after which the snapshot is taken again
+     */
+    private static final long REFRESH_PERIOD = 1000;
+
+    /**
+     * The target this histogram is for
+     */
+    private final Object target;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The number of latencies recorded since the creation of the histogram
+     */
+    private final AtomicLong recorded = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    private volatile Snapshot snapshot = new Snapshot(new long[BUCKETS], 0, 0, System.currentTimeMillis());
+
+    /**
+     * If a latency at least as high as the ones of the snapshot was recorded since it was taken
+     */
+    private volatile boolean stale = false;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public LatencyHistogram(final Object target) {
+        this.target = target;
+    }
+
+    private static int bucket(final long latency) {
+        if (latency <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, (int) (Math.log(latency + 1) / LOG_GROWTH));
+    }
+
+    /**
+     * @return the highest latency counted in the given bucket
+     */
+    private static long upperBound(final int bucket) {
+        return (long) Math.ceil(Math.pow(GROWTH, bucket + 1)) - 1;
+    }
+
+    /**
+     * @param latency
+     *            in milliseconds
+     */
+    public void record(final long latency) {
+        this.counts.incrementAndGet(bucket(latency));
+        if (latency > this.max.get()) {
+            this.max.accumulateAndGet(latency, Math::max);
+        }
+        if (latency >= this.snapshot.max) {
+            this.stale = true;
+        }
+        if (this.recorded.incrementAndGet() % DECAY_PERIOD == 0) {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.counts.getAndUpdate(i, count -> count / 2);
+            }
+        }
+    }
+
+    private Snapshot snapshot() {
+        final Snapshot current = this.snapshot;
+        if (!this.stale && this.recorded.get() - current.recorded < REFRESH_SAMPLES
+                && System.currentTimeMillis() - current.takenAt < REFRESH_PERIOD) {
+            return current;
+        }
+        if (!this.refreshing.compareAndSet(false, true)) {
+            // another thread is taking it
+            return current;
+        }
+        try {
+            this.stale = false;
+            final long recordedAt = this.recorded.get();
+            final long[] cumulative = new long[BUCKETS];
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += this.counts.get(i);
+                cumulative[i] = seen;
+            }
+            final Snapshot taken = new Snapshot(cumulative, this.max.get(), recordedAt, System.currentTimeMillis());
+            this.snapshot = taken;
+            return taken;
+        } finally {
+            this.refreshing.set(false);
+        }
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100
+     * @return the latency (in milliseconds) under which the given percentile of the exchanges were answered, -1 if
+     *         nothing was recorded
+     */
+    public long getPercentile(final double percentile) {
+        final Snapshot current = snapshot();
+        final long total = current.getTotal();
+        if (total == 0) {
+            return -1;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+        // the first bucket reaching the rank, it can't be empty
+        int low = 0;
+        int high = BUCKETS - 1;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (current.cumulative[middle] >= rank) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return Math.min(upperBound(low), current.max);
+    }
+
+    /**
+     * @return the number of latencies the percentiles are computed from
+     */
+    public long getCount() {
+        return snapshot().getTotal();
+    }
+
+    /**
+     * @return <code>true</code> if enough latencies were recorded for the percentiles to be meaningful
+     */
+    public boolean isSignificant() {
+        return getCount() >= MINIMUM_SAMPLES;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram [target=" + this.target + ", count=" + getCount() + ", p50=" + getPercentile(50)
+                + "ms, p95=" + getPercentile(95) + "ms, p99=" + getPercentile(99) + "ms, max=" + this.max.get()
+                + "ms]";
+    }
+
+    /**
+     * The immutable state of the histogram the percentiles are computed from
+     */
+    private static final class Snapshot {
+
+        /**
+         * The number of latencies counted in each bucket and the ones before it
+         */
+        private final long[] cumulative;
+
+        private final long max;
+
+        /**
+         * The number of latencies recorded when it was taken
+         */
+        private final long recorded;
+
+        private final long takenAt;
+
+        private Snapshot(final long[] cumulative, final long max, final long recorded, final long takenAt) {
+            this.cumulative = cumulative;
+            this.max = max;
+            this.recorded = recorded;
+            this.takenAt = takenAt;
+        }
+
+        private long getTotal() {
+            return this.cumulative[BUCKETS - 1];
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.jbi.messaging.NormalizedMessage;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.attachment.DefaultAttachmentMessage;
+import org.apache.camel.support.DefaultMessage;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A Camel message whose headers are the properties of a Petals message, copied only when they are first read or
+ * written.
+ *
+ * As long as the headers are not accessed, they can be copied to another Petals message without building the Camel
+ * headers map. Once they are, the headers set or removed one by one are tracked, so that only them are taken from the
+ * Camel headers map: the other ones are still the properties of the source. If the map itself is accessed, it may be
+ * modified directly and all the headers have to be copied from it.
+ */
+public class NormalizedMessageView extends DefaultMessage {
+
+    private final NormalizedMessage source;
+
+    /**
+     * The names of the headers set or removed, {@code null} if there is none. Camel headers are case insensitive.
+     */
+    @Nullable
+    private Set<String> modified;
+
+    /**
+     * {@code true} if the headers map was accessed by the caller, the modified headers are then unknown
+     */
+    private boolean exposed = false;
+
+    /**
+     * {@code true} while the headers map is accessed by one of the methods of this class, and not by the caller
+     */
+    private boolean internal = false;
+
+    public NormalizedMessageView(final Exchange exchange, final NormalizedMessage source) {
+        super(exchange);
+        this.source = source;
+    }
+
+    @Override
+    protected void populateInitialHeaders(final Map<String, Object> map) {
+        final Set<String> props = this.source.getPropertyNames();
+        for (final String prop : props) {
+            map.put(prop, this.source.getProperty(prop));
+        }
+    }
+
+    public NormalizedMessage getSource() {
+        return this.source;
+    }
+
+    @Override
+    public @Nullable Object getHeader(final String name) {
+        final boolean wasInternal = startInternal();
+        try {
+            return super.getHeader(name);
+        } finally {
+            this.internal = wasInternal;
+        }
+    }
+
+    @Override
+    public boolean hasHeaders() {
+        final boolean wasInternal = startInternal();
+        try {
+            return super.hasHeaders();
+        } finally {
+            this.internal = wasInternal;
+        }
+    }
+
+    @Override
+    public void setHeader(final String name, @Nullable final Object value) {
+        final boolean wasInternal = startInternal();
+        try {
+            super.setHeader(name, value);
+            modified(name);
+        } finally {
+            this.internal = wasInternal;
+        }
+    }
+
+    @Override
+    public @Nullable Object removeHeader(final String name) {
+        final boolean wasInternal = startInternal();
+        try {
+            final Object result = super.removeHeader(name);
+            modified(name);
+            return result;
+        } finally {
+            this.internal = wasInternal;
+        }
+    }
+
+    @Override
+    public boolean removeHeaders(final String pattern) {
+        this.exposed = true;
+        return super.removeHeaders(pattern);
+    }
+
+    @Override
+    public boolean removeHeaders(final String pattern, final String... excludePatterns) {
+        this.exposed = true;
+        return super.removeHeaders(pattern, excludePatterns);
+    }
+
+    @Override
+    public Map<String, Object> getHeaders() {
+        if (!this.internal) {
+            // the map can be modified directly
+            this.exposed = true;
+        }
+        return super.getHeaders();
+    }
+
+    @Override
+    public void setHeaders(final Map<String, Object> headers) {
+        this.exposed = true;
+        super.setHeaders(headers);
+    }
+
+    /**
+     * The methods above may access the headers map themselves: it is not exposed for all that.
+     * 
+     * @return the previous value, to restore once done
+     */
+    private boolean startInternal() {
+        final boolean result = this.internal;
+        this.internal = true;
+        return result;
+    }
+
+    private void modified(final String name) {
+        if (this.exposed) {
+            return;
+        }
+        Set<String> names = this.modified;
+        if (names == null) {
+            names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            this.modified = names;
+        }
+        names.add(name);
+    }
+
+    /**
+     * Copy the headers to the given Petals message as properties, without building the Camel headers map if they were
+     * never accessed, and only taking the headers set or removed from it else.
+     * 
+     * @return <code>false</code> if the headers map was accessed: nothing was copied and all the headers must be taken
+     *         from it
+     */
+    public boolean copyHeadersTo(final NormalizedMessage to) {
+        if (!hasPopulatedHeaders()) {
+            if (to != this.source) {
+                copyProperties(to, Set.of());
+            }
+            return true;
+        }
+
+        if (this.exposed) {
+            return false;
+        }
+        final Set<String> modifiedNames = this.modified;
+        final Set<String> names = modifiedNames == null ? Set.of() : modifiedNames;
+        if (to != this.source) {
+            copyProperties(to, names);
+        }
+        for (final String name : names) {
+            final Object value = getHeader(name);
+            // a removed header is removed from the source, and not copied to another message
+            if (value != null || to == this.source) {
+                to.setProperty(name, value);
+            }
+        }
+        return true;
+    }
+
+    private void copyProperties(final NormalizedMessage to, final Set<String> excluded) {
+        final Set<String> props = this.source.getPropertyNames();
+        for (final String prop : props) {
+            if (!excluded.contains(prop)) {
+                to.setProperty(prop, this.source.getProperty(prop));
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the headers were accessed, and thus may differ from the properties of the source
+     */
+    public boolean isMaterialized() {
+        return hasPopulatedHeaders();
+    }
+
+    /**
+     * @return the view if the message is one (or wraps one)
+     */
+    public static @Nullable NormalizedMessageView of(final Message message) {
+        final Message actual = message instanceof DefaultAttachmentMessage attachmentMessage
+                ? attachmentMessage.getDelegateMessage()
+                : message;
+        return actual instanceof NormalizedMessageView view ? view : null;
+    }
+}
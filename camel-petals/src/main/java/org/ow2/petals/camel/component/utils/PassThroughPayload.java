@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import javax.xml.transform.Source;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.petals.camel.component.PetalsConstants;
+
+/**
+ * The last content received from Petals by a Camel exchange in pass-through mode, with the body it was converted to.
+ *
+ * As long as the route does not change this body, the content is sent back to Petals as is instead of being converted
+ * from the body. It is immutable: each content received replaces it, so that the copies of the Camel exchange (e.g. by
+ * a multicast) are not affected.
+ */
+public final class PassThroughPayload {
+
+    private static final PassThroughPayload NONE = new PassThroughPayload(null, null);
+
+    @Nullable
+    private final Object body;
+
+    @Nullable
+    private final Source content;
+
+    private PassThroughPayload(final @Nullable Object body, final @Nullable Source content) {
+        this.body = body;
+        this.content = content;
+    }
+
+    /**
+     * Enable the pass-through mode for the given Camel exchange
+     */
+    public static void enable(final Exchange exchange) {
+        exchange.setProperty(PetalsConstants.EXCHANGE_PASS_THROUGH, NONE);
+    }
+
+    /**
+     * Remember the content received from Petals as the body of the given message, if its exchange is in pass-through
+     * mode
+     */
+    public static void capture(final Message message, final @Nullable Object body, final @Nullable Source content) {
+        final Exchange exchange = message.getExchange();
+        if (exchange != null && exchange.getProperty(PetalsConstants.EXCHANGE_PASS_THROUGH) != null) {
+            exchange.setProperty(PetalsConstants.EXCHANGE_PASS_THROUGH, new PassThroughPayload(body, content));
+        }
+    }
+
+    /**
+     * @return the content received from Petals if the given message still holds the body it was converted to, else
+     *         {@code null}
+     */
+    public static @Nullable Source untouchedContent(final Message message) {
+        final Exchange exchange = message.getExchange();
+        if (exchange == null) {
+            return null;
+        }
+        final PassThroughPayload payload = exchange.getProperty(PetalsConstants.EXCHANGE_PASS_THROUGH,
+                PassThroughPayload.class);
+        final Object body = message.getBody();
+        if (payload == null || body == null || body != payload.body) {
+            return null;
+        }
+        return payload.content;
+    }
+}
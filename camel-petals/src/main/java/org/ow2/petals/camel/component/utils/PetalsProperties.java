@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.SafeCopyProperty;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The properties of a Petals exchange, kept in a single property of the Camel exchange instead of one prefixed
+ * property each, so that they can be moved between the Petals and Camel exchanges without scanning all the properties
+ * of the Camel exchange.
+ *
+ * The Camel exchanges copied from one holding it (e.g. by a multicast) get their own copy.
+ */
+public final class PetalsProperties implements SafeCopyProperty {
+
+    private final Map<String, Object> properties;
+
+    public PetalsProperties() {
+        this(new HashMap<>());
+    }
+
+    private PetalsProperties(final Map<String, Object> properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param name
+     *            the name of the property of the Camel exchange holding the container
+     * @return the container if the Camel exchange holds one
+     */
+    public static @Nullable PetalsProperties get(final Exchange exchange, final String name) {
+        return exchange.getProperty(name, PetalsProperties.class);
+    }
+
+    /**
+     * @param name
+     *            the name of the property of the Camel exchange holding the container
+     * @return the container held by the Camel exchange, created if needed
+     */
+    public static PetalsProperties getOrCreate(final Exchange exchange, final String name) {
+        PetalsProperties container = get(exchange, name);
+        if (container == null) {
+            container = new PetalsProperties();
+            exchange.setProperty(name, container);
+        }
+        return container;
+    }
+
+    public @Nullable Object get(final String name) {
+        return this.properties.get(name);
+    }
+
+    /**
+     * Set a property, or remove it if the value is {@code null}
+     */
+    public void set(final String name, final @Nullable Object value) {
+        if (value == null) {
+            this.properties.remove(name);
+        } else {
+            this.properties.put(name, value);
+        }
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(this.properties.keySet());
+    }
+
+    public void clear() {
+        this.properties.clear();
+    }
+
+    /**
+     * Move the properties of the given Camel exchange whose name starts with the prefix into the container, overriding
+     * the ones it already holds, so that the routes setting them as prefixed properties don't lose them
+     */
+    public void fold(final Exchange exchange, final String prefix) {
+        if (!exchange.hasProperties()) {
+            return;
+        }
+        final Iterator<Map.Entry<String, Object>> it = exchange.getProperties().entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<String, Object> property = it.next();
+            if (property.getKey().startsWith(prefix)) {
+                set(property.getKey().substring(prefix.length()), property.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Copy all the properties to the given Petals exchange
+     */
+    public void copyTo(final org.ow2.petals.component.framework.api.message.Exchange exchange) {
+        for (final Map.Entry<String, Object> property : this.properties.entrySet()) {
+            exchange.setProperty(property.getKey(), property.getValue());
+        }
+    }
+
+    /**
+     * Copy all the properties of the given Petals exchange
+     */
+    public void copyFrom(final org.ow2.petals.component.framework.api.message.Exchange exchange) {
+        for (final String name : exchange.getPropertyNames()) {
+            set(name, exchange.getProperty(name));
+        }
+    }
+
+    @Override
+    public PetalsProperties safeCopy() {
+        return new PetalsProperties(new HashMap<>(this.properties));
+    }
+
+    @Override
+    public String toString() {
+        return "PetalsProperties " + this.properties;
+    }
+}
@@ -0,0 +1,337 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.petals.camel.component.exceptions.CollapsedRequestException;
+import org.ow2.petals.camel.component.exceptions.TimeoutException;
+import org.ow2.petals.commons.log.FlowAttributes;
+import org.ow2.petals.commons.log.PetalsExecutionContext;
+
+/**
+ * Collapses the identical requests sent concurrently to a consumes: only one Petals exchange is sent, and its answer
+ * is copied to all the Camel exchanges waiting for it.
+ *
+ * Two requests are identical if they have the same {@link RequestKey}, so this must only be used with idempotent and
+ * read-only operations.
+ *
+ * The asynchronous waiters are completed by the given executor, with the flow attributes of their request: the thread
+ * handling the answer only continues the route of the request actually sent.
+ */
+public class RequestCollapser {
+
+    @FunctionalInterface
+    public interface Sender {
+        /**
+         * Actually send the request, with the same contract as
+         * {@link org.apache.camel.AsyncProcessor#process(Exchange, AsyncCallback)}
+         */
+        boolean send(Exchange camelExchange, AsyncCallback callback);
+    }
+
+    /**
+     * The consumes this collapser is for
+     */
+    private final Object consumes;
+
+    private final ConcurrentMap<RequestKey, Flight> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder collapsed = new LongAdder();
+
+    private final Executor executor;
+
+    private final Supplier<ScheduledExecutorService> scheduler;
+
+    /**
+     * @param executor
+     *            the executor completing the asynchronous waiters, the thread handing them over completes them
+     *            itself if they are rejected
+     * @param scheduler
+     *            the scheduler of the timeouts of the asynchronous waiters, looked up for each of them
+     */
+    public RequestCollapser(final Object consumes, final Executor executor,
+            final Supplier<ScheduledExecutorService> scheduler) {
+        this.consumes = consumes;
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Process the given exchange: if an identical request is already in flight, its answer is waited for (by blocking
+     * the current thread if {@code doSync} is true), else the request is sent using the given sender.
+     * 
+     * @param timeout
+     *            the time (in milliseconds) during which the answer of an identical request is waited for, if less or
+     *            equal to 0 then no timeout
+     * @return <code>true</code> if the processing was done synchronously
+     */
+    public boolean process(final Exchange camelExchange, final RequestKey key, final boolean doSync,
+            final long timeout, final AsyncCallback callback, final Sender sender) {
+        while (true) {
+            final Flight flight = new Flight();
+            final Flight current = this.flights.putIfAbsent(key, flight);
+            if (current == null) {
+                return sender.send(camelExchange, doneSync -> {
+                    // next identical requests must not get this answer anymore
+                    this.flights.remove(key, flight);
+                    flight.complete(camelExchange);
+                    callback.done(doneSync);
+                });
+            }
+
+            final Waiter waiter = new Waiter(camelExchange, doSync ? null : callback);
+            if (current.join(waiter)) {
+                this.collapsed.increment();
+                if (doSync) {
+                    await(current, waiter, timeout);
+                    callback.done(true);
+                    return true;
+                } else {
+                    if (timeout > 0) {
+                        schedule(current, waiter, timeout);
+                    }
+                    return false;
+                }
+            }
+
+            // the flight just completed, let's start a new one
+            this.flights.remove(key, current);
+        }
+    }
+
+    private void schedule(final Flight flight, final Waiter waiter, final long timeout) {
+        try {
+            waiter.timeout = this.scheduler.get().schedule(() -> {
+                if (flight.leave(waiter)) {
+                    waiter.camelExchange.setException(timeoutException(timeout));
+                    dispatch(waiter::done);
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            // the component is stopping, the waiter only gets the answer of the request in flight
+        }
+        if (waiter.completed) {
+            // the answer was copied before the timeout was set
+            waiter.cancelTimeout();
+        }
+    }
+
+    private TimeoutException timeoutException(final long timeout) {
+        return new TimeoutException(String.format(
+                "No answer of the identical request in flight to the consumes %s after %dms", this.consumes,
+                timeout));
+    }
+
+    private void dispatch(final Runnable task) {
+        try {
+            this.executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private void await(final Flight flight, final Waiter waiter, final long timeout) {
+        Exception failure;
+        try {
+            if (waiter.await(timeout)) {
+                return;
+            }
+            failure = timeoutException(timeout);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        }
+
+        if (flight.leave(waiter)) {
+            waiter.camelExchange.setException(failure);
+        } else {
+            // the answer is being copied to the exchange, it must not be used before it is done
+            waiter.awaitUninterruptibly();
+        }
+    }
+
+    /**
+     * @return the number of requests that were not sent because an identical request was in flight
+     */
+    public long getCollapsed() {
+        return this.collapsed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RequestCollapser [consumes=" + this.consumes + ", inFlight=" + this.flights.size() + ", collapsed="
+                + getCollapsed() + "]";
+    }
+
+    private final class Flight {
+
+        private final List<Waiter> waiters = new ArrayList<>();
+
+        private boolean completed = false;
+
+        private synchronized boolean join(final Waiter waiter) {
+            if (this.completed) {
+                return false;
+            }
+            this.waiters.add(waiter);
+            return true;
+        }
+
+        /**
+         * @return <code>false</code> if the answer is already being copied to the given waiter
+         */
+        private synchronized boolean leave(final Waiter waiter) {
+            return this.waiters.remove(waiter);
+        }
+
+        private void complete(final Exchange leader) {
+            final List<Waiter> toNotify;
+            synchronized (this) {
+                this.completed = true;
+                toNotify = new ArrayList<>(this.waiters);
+                this.waiters.clear();
+            }
+
+            if (toNotify.isEmpty()) {
+                return;
+            }
+
+            AnswerSnapshot answer = null;
+            RuntimeException failure = null;
+            try {
+                answer = AnswerSnapshot.of(leader);
+            } catch (final RuntimeException e) {
+                failure = e;
+            }
+            final AnswerSnapshot snapshot = answer;
+            final RuntimeException snapshotFailure = failure;
+            for (final Waiter waiter : toNotify) {
+                if (waiter.callback == null) {
+                    // its thread is blocked until the answer is copied
+                    waiter.copyAnswer(leader.getExchangeId(), snapshot, snapshotFailure);
+                } else {
+                    dispatch(() -> waiter.copyAnswer(leader.getExchangeId(), snapshot, snapshotFailure));
+                }
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Exchange camelExchange;
+
+        @Nullable
+        private final AsyncCallback callback;
+
+        /**
+         * The flow attributes of the request, to complete an asynchronous waiter from another thread
+         */
+        @Nullable
+        private final FlowAttributes flowAttributes;
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        @Nullable
+        private volatile Future<?> timeout;
+
+        private volatile boolean completed = false;
+
+        private Waiter(final Exchange camelExchange, final @Nullable AsyncCallback callback) {
+            this.camelExchange = camelExchange;
+            this.callback = callback;
+            this.flowAttributes = callback == null ? null : PetalsExecutionContext.getFlowAttributes();
+        }
+
+        private void cancelTimeout() {
+            final Future<?> scheduled = this.timeout;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        private void done() {
+            final AsyncCallback cb = this.callback;
+            if (cb != null) {
+                // we already told Camel that the processing is asynchronous
+                ExecutionContextHelper.runWithFlowAttributes(this.flowAttributes, () -> cb.done(false));
+            } else {
+                this.latch.countDown();
+            }
+        }
+
+        /**
+         * @return <code>false</code> if the timeout elapsed
+         */
+        private boolean await(final long timeout) throws InterruptedException {
+            if (timeout > 0) {
+                return this.latch.await(timeout, TimeUnit.MILLISECONDS);
+            }
+            this.latch.await();
+            return true;
+        }
+
+        private void awaitUninterruptibly() {
+            boolean interrupted = false;
+            while (this.latch.getCount() > 0) {
+                try {
+                    this.latch.await();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void copyAnswer(final String leaderExchangeId, final @Nullable AnswerSnapshot answer,
+                final @Nullable RuntimeException failure) {
+            try {
+                if (answer != null) {
+                    answer.applyTo(this.camelExchange);
+                }
+                // the exception of the leader must not be shared: each exchange may be handled by another route
+                final Exception shared = answer != null ? this.camelExchange.getException() : failure;
+                if (shared != null) {
+                    this.camelExchange.setException(new CollapsedRequestException(leaderExchangeId, shared));
+                }
+            } catch (final RuntimeException e) {
+                this.camelExchange.setException(e);
+            } finally {
+                this.completed = true;
+                cancelTimeout();
+                done();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.xml.transform.Source;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.attachment.AttachmentMessage;
+import org.apache.camel.util.xml.BytesSource;
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+
+/**
+ * Identifies a request sent to a consumes by its target (interface, service, endpoint and operation), its MEP and its
+ * payload: two requests with the same key are expected to get the same answer from an idempotent operation.
+ *
+ * Headers are ignored and requests with attachments have no key. The whole payload is compared, its hash is only used
+ * to spread the keys.
+ */
+public final class RequestKey {
+
+    private final ExchangeTarget target;
+
+    @Nullable
+    private final MEPPatternConstants mep;
+
+    private final byte[] payload;
+
+    private final int hash;
+
+    private RequestKey(final ExchangeTarget target, final @Nullable MEPPatternConstants mep, final byte[] payload) {
+        this.target = target;
+        this.mep = mep;
+        this.payload = payload;
+        this.hash = Objects.hash(target, mep) * 31 + Arrays.hashCode(payload);
+    }
+
+    /**
+     * Build the key of the request of the given exchange: its body is replaced by a {@link BytesSource} if needed, so
+     * that it can still be read when the request is sent.
+     * 
+     * @param target
+     *            where the request is sent: the endpoints of a consumes may send to different services or endpoints
+     * @return {@code null} if the request can't be identified
+     */
+    public static @Nullable RequestKey of(final Exchange camelExchange, final ExchangeTarget target,
+            final @Nullable MEPPatternConstants mep) {
+        final Message in = camelExchange.getIn();
+        if (in instanceof AttachmentMessage attachmentMessage && attachmentMessage.hasAttachments()) {
+            return null;
+        }
+
+        final Object body = in.getBody();
+        if (body == null) {
+            return null;
+        }
+
+        final byte[] payload;
+        if (body instanceof BytesSource bytesSource) {
+            payload = bytesSource.getData();
+        } else {
+            try {
+                payload = in.getBody(byte[].class);
+            } catch (final RuntimeException e) {
+                return null;
+            }
+            if (payload == null) {
+                return null;
+            }
+            // the original body may not be readable twice
+            in.setBody(new BytesSource(payload, body instanceof Source source ? source.getSystemId() : null));
+        }
+
+        return new RequestKey(target, mep, payload);
+    }
+
+    public @Nullable MEPPatternConstants getMep() {
+        return this.mep;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RequestKey other)) {
+            return false;
+        }
+        return this.target.equals(other.target) && this.mep == other.mep
+                && Arrays.equals(this.payload, other.payload);
+    }
+
+    @Override
+    public String toString() {
+        return "RequestKey [target=" + this.target + ", mep=" + this.mep + ", payload=" + this.payload.length
+                + " bytes]";
+    }
+}
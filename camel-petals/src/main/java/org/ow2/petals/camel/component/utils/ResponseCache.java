@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.camel.Exchange;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A cache of the answers of a consumes, shared by all its endpoints having a response cache.
+ *
+ * The entries expire after the TTL of the cache, and the least recently used entries are evicted when the cache holds
+ * more than its maximum number of entries or payload bytes. Only plain responses are cached: never errors, faults nor
+ * answers with attachments.
+ *
+ * So that the exchanges of the consumes don't all wait for the same lock, the cache is split in segments chosen by the
+ * hash of the requests, each with its own lock and an even share of the limits: the eviction is only least recently
+ * used within a segment, and an answer bigger than the share of the bytes of a segment is not cached.
+ */
+public class ResponseCache {
+
+    /**
+     * The minimum number of entries of a segment, small caches are not split so that their eviction stays exact
+     */
+    private static final int MIN_SEGMENT_ENTRIES = 64;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * The consumes this cache is for
+     */
+    private final Object consumes;
+
+    private final long ttl;
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param ttl
+     *            the time (in milliseconds) during which an answer is cached
+     * @param maxEntries
+     *            the maximum number of answers cached
+     * @param maxBytes
+     *            the maximum size of the payloads cached, if less or equal to 0 then the size is not limited
+     */
+    public ResponseCache(final Object consumes, final long ttl, final int maxEntries, final long maxBytes) {
+        this.consumes = consumes;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        // a power of 2 to choose the segment with a mask
+        int count = 1;
+        while (count < MAX_SEGMENTS && (long) count * 2 * MIN_SEGMENT_ENTRIES <= maxEntries) {
+            count *= 2;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment((maxEntries + count - 1) / count,
+                    maxBytes > 0 ? Math.max(1, maxBytes / count) : 0);
+        }
+    }
+
+    private Segment segmentFor(final RequestKey key) {
+        final int hash = key.hashCode();
+        return this.segments[(hash ^ (hash >>> 16)) & (this.segments.length - 1)];
+    }
+
+    /**
+     * Apply the cached answer of the given request, if any, to the given Camel exchange.
+     * 
+     * @return <code>true</code> if there was an answer cached
+     */
+    public boolean replay(final RequestKey key, final Exchange camelExchange) {
+        final AnswerSnapshot answer = segmentFor(key).get(key);
+        if (answer == null) {
+            this.misses.increment();
+            return false;
+        }
+        this.hits.increment();
+        answer.applyTo(camelExchange);
+        return true;
+    }
+
+    /**
+     * Cache the answer received by the given Camel exchange for the given request, if it is cacheable.
+     */
+    public void store(final RequestKey key, final Exchange answered) {
+        if (answered.getException() != null) {
+            return;
+        }
+
+        final AnswerSnapshot answer = AnswerSnapshot.of(answered);
+        if (!answer.isCacheable()) {
+            return;
+        }
+
+        segmentFor(key).put(key, new Entry(answer, System.currentTimeMillis() + this.ttl));
+    }
+
+    public void clear() {
+        for (final Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    public long getTtl() {
+        return this.ttl;
+    }
+
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    public int getSize() {
+        int size = 0;
+        for (final Segment segment : this.segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the number of answers removed from the cache because they expired or to make room for others
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return the ratio of requests answered from the cache, between 0 and 1
+     */
+    public double getHitRatio() {
+        final long h = getHits();
+        final long total = h + getMisses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCache [consumes=" + this.consumes + ", ttl=" + this.ttl + ", maxEntries=" + this.maxEntries
+                + ", maxBytes=" + this.maxBytes + ", segments=" + this.segments.length + ", size=" + getSize()
+                + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]";
+    }
+
+    private final class Segment {
+
+        private final int maxEntries;
+
+        private final long maxBytes;
+
+        /**
+         * In access order, the eldest entry is the least recently used one
+         */
+        private final LinkedHashMap<RequestKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long bytes = 0;
+
+        private Segment(final int maxEntries, final long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized @Nullable AnswerSnapshot get(final RequestKey key) {
+            final Entry entry = this.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                this.entries.remove(key);
+                this.bytes -= entry.answer.getSize();
+                evictions.increment();
+                return null;
+            }
+            return entry.answer;
+        }
+
+        private synchronized void put(final RequestKey key, final Entry entry) {
+            final int size = entry.answer.getSize();
+            if (this.maxBytes > 0 && size > this.maxBytes) {
+                return;
+            }
+
+            final Entry previous = this.entries.put(key, entry);
+            if (previous != null) {
+                this.bytes -= previous.answer.getSize();
+            }
+            this.bytes += size;
+
+            final Iterator<Map.Entry<RequestKey, Entry>> it = this.entries.entrySet().iterator();
+            while (it.hasNext() && (this.entries.size() > this.maxEntries
+                    || (this.maxBytes > 0 && this.bytes > this.maxBytes))) {
+                final Entry eldest = it.next().getValue();
+                it.remove();
+                this.bytes -= eldest.answer.getSize();
+                evictions.increment();
+            }
+        }
+
+        private synchronized void clear() {
+            this.entries.clear();
+            this.bytes = 0;
+        }
+
+        private synchronized int size() {
+            return this.entries.size();
+        }
+    }
+
+    private static final class Entry {
+
+        private final AnswerSnapshot answer;
+
+        private final long expiresAt;
+
+        private Entry(final AnswerSnapshot answer, final long expiresAt) {
+            this.answer = answer;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
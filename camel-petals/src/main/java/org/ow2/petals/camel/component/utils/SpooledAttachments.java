@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.eclipse.jdt.annotation.Nullable;
+import org.ow2.petals.camel.component.PetalsConstants;
+import org.ow2.petals.camel.component.utils.AttachmentSpooler.SpooledDataSource;
+
+import jakarta.activation.DataHandler;
+
+/**
+ * The attachments spooled for a Camel exchange, released when the exchange is done with them.
+ */
+public final class SpooledAttachments {
+
+    private static final Logger LOG = Logger.getLogger(SpooledAttachments.class.getName());
+
+    private final AttachmentSpooler spooler;
+
+    private final List<SpooledDataSource> spooled = new ArrayList<>();
+
+    private SpooledAttachments(final AttachmentSpooler spooler) {
+        this.spooler = spooler;
+    }
+
+    /**
+     * Spool the attachments received from Petals by the given Camel exchange
+     * 
+     * @param releaseOnCompletion
+     *            if <code>true</code>, the attachments are released once the exchange is completed, else
+     *            {@link #release(Exchange)} must be called
+     */
+    public static void enable(final Exchange exchange, final AttachmentSpooler spooler,
+            final boolean releaseOnCompletion) {
+        if (exchange.getProperty(PetalsConstants.EXCHANGE_SPOOLED_ATTACHMENTS) != null) {
+            return;
+        }
+        exchange.setProperty(PetalsConstants.EXCHANGE_SPOOLED_ATTACHMENTS, new SpooledAttachments(spooler));
+        if (releaseOnCompletion) {
+            exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+                @Override
+                public void onDone(final Exchange completed) {
+                    release(completed);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the attachment spooled if the exchange spools its attachments and if it is big enough, or the attachment
+     *         itself if it can't be spooled
+     */
+    public static DataHandler spool(final @Nullable Exchange exchange, final DataHandler attachment) {
+        final SpooledAttachments attachments = exchange == null ? null
+                : exchange.getProperty(PetalsConstants.EXCHANGE_SPOOLED_ATTACHMENTS, SpooledAttachments.class);
+        if (attachments == null) {
+            return attachment;
+        }
+        final DataHandler result;
+        try {
+            result = attachments.spooler.spool(attachment);
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, "Can't spool the attachment " + attachment.getName() + ", it is kept as is", e);
+            return attachment;
+        }
+        if (result != attachment && result.getDataSource() instanceof SpooledDataSource spooledSource) {
+            synchronized (attachments.spooled) {
+                attachments.spooled.add(spooledSource);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Release the attachments spooled for the given exchange
+     */
+    public static void release(final Exchange exchange) {
+        final SpooledAttachments attachments = exchange.getProperty(PetalsConstants.EXCHANGE_SPOOLED_ATTACHMENTS,
+                SpooledAttachments.class);
+        if (attachments == null) {
+            return;
+        }
+        exchange.removeProperty(PetalsConstants.EXCHANGE_SPOOLED_ATTACHMENTS);
+        synchronized (attachments.spooled) {
+            for (final SpooledDataSource source : attachments.spooled) {
+                source.release();
+            }
+            attachments.spooled.clear();
+        }
+    }
+}
@@ -17,9 +17,13 @@
  */
 package org.ow2.petals.camel.helpers;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.dom.DOMSource;
@@ -28,7 +32,9 @@ import javax.xml.transform.stream.StreamSource;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.attachment.AttachmentMessage;
+import org.apache.camel.util.xml.BytesSource;
 import org.apache.camel.util.xml.StreamSourceCache;
+import org.eclipse.jdt.annotation.Nullable;
 
 import com.ebmwebsourcing.easycommons.stream.EasyByteArrayOutputStream;
 import com.ebmwebsourcing.easycommons.xml.jaxb.AbstractAttachmentMarshaller;
@@ -39,18 +45,118 @@ import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
-import jakarta.xml.bind.attachment.AttachmentMarshaller;
-import jakarta.xml.bind.attachment.AttachmentUnmarshaller;
 
+/**
+ * Helper to (un)marshal Camel message bodies with JAXB.
+ *
+ * Marshallers and unmarshallers are not thread-safe: each call borrows one from a lock-free pool, created from the
+ * same {@link JAXBContext} when the pool is empty, and gives it back afterwards. Threads (including virtual threads)
+ * never wait for each other.
+ *
+ * In bytes body mode, the marshalled body is a {@link BytesSource}: it can be read several times without stream
+ * caching, and it is sent to Petals as is, without going through DOM.
+ */
 public class MarshallingHelper {
 
-    private final Unmarshaller unm;
+    /**
+     * Default maximum number of idle marshallers (and unmarshallers) kept in the pools
+     */
+    public static final int DEFAULT_MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The buffers grown above this size (in bytes) are not kept in the pool, so that a few big bodies do not pin memory
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final JAXBContext context;
 
-    private final Marshaller m;
+    private final Pool<Unmarshaller> unmarshallers;
+
+    private final Pool<Marshaller> marshallers;
+
+    private final Pool<Buffer> buffers;
+
+    private final boolean bytesBody;
 
     public MarshallingHelper(final JAXBContext context) throws JAXBException {
-        this.unm = context.createUnmarshaller();
-        this.m = context.createMarshaller();
+        this(context, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * @param bytesBody
+     *            if {@code true}, the marshalled bodies are {@link BytesSource}, else they are stream based
+     */
+    public MarshallingHelper(final JAXBContext context, final boolean bytesBody) throws JAXBException {
+        this(context, DEFAULT_MAX_IDLE, bytesBody);
+    }
+
+    /**
+     * @param maxIdle
+     *            the maximum number of idle marshallers (and unmarshallers) kept in the pools, the others are created
+     *            on demand and dropped after use
+     */
+    public MarshallingHelper(final JAXBContext context, final int maxIdle) throws JAXBException {
+        this(context, maxIdle, false);
+    }
+
+    /**
+     * @param maxIdle
+     *            the maximum number of idle marshallers (and unmarshallers) kept in the pools, the others are created
+     *            on demand and dropped after use
+     * @param bytesBody
+     *            if {@code true}, the marshalled bodies are {@link BytesSource}, else they are stream based
+     */
+    public MarshallingHelper(final JAXBContext context, final int maxIdle, final boolean bytesBody)
+            throws JAXBException {
+        this.context = context;
+        this.unmarshallers = new Pool<>(maxIdle);
+        this.marshallers = new Pool<>(maxIdle);
+        this.buffers = new Pool<>(maxIdle);
+        this.bytesBody = bytesBody;
+        // fail early if the context can't create them
+        this.unmarshallers.release(context.createUnmarshaller());
+        this.marshallers.release(context.createMarshaller());
+    }
+
+    private Unmarshaller acquireUnmarshaller() throws JAXBException {
+        final Unmarshaller unm = this.unmarshallers.acquire();
+        return unm != null ? unm : this.context.createUnmarshaller();
+    }
+
+    private void releaseUnmarshaller(final Unmarshaller unm) {
+        unm.setAttachmentUnmarshaller(null);
+        this.unmarshallers.release(unm);
+    }
+
+    private Marshaller acquireMarshaller() throws JAXBException {
+        final Marshaller m = this.marshallers.acquire();
+        return m != null ? m : this.context.createMarshaller();
+    }
+
+    private void releaseMarshaller(final Marshaller m) {
+        m.setAttachmentMarshaller(null);
+        this.marshallers.release(m);
+    }
+
+    private Buffer acquireBuffer() {
+        final Buffer buffer = this.buffers.acquire();
+        return buffer != null ? buffer : new Buffer();
+    }
+
+    private void releaseBuffer(final Buffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE) {
+            buffer.reset();
+            this.buffers.release(buffer);
+        }
+    }
+
+    /**
+     * @return {@code true} if the marshalled bodies are {@link BytesSource}
+     */
+    public boolean isBytesBody() {
+        return this.bytesBody;
     }
 
     /**
@@ -81,9 +187,9 @@ public class MarshallingHelper {
             body = camelExchange.getMessage().getBody(DOMSource.class);
         }
 
-        synchronized (this.unm) {
-            final AttachmentUnmarshaller oldAttachmentUnmarshaller = this.unm.getAttachmentUnmarshaller();
-            this.unm.setAttachmentUnmarshaller(new AbstractAttachmentUnmarshaller() {
+        final Unmarshaller unm = acquireUnmarshaller();
+        try {
+            unm.setAttachmentUnmarshaller(new AbstractAttachmentUnmarshaller() {
                 @Override
                 protected DataHandler getAttachment(final String cid) {
                     final AttachmentMessage am = camelExchange.getIn(AttachmentMessage.class);
@@ -91,15 +197,13 @@ public class MarshallingHelper {
                 }
             });
 
-            try {
-                if (Object.class.equals(declaredType)) {
-                    return (T) this.unm.unmarshal(body);
-                } else {
-                    return this.unm.unmarshal(body, declaredType).getValue();
-                }
-            } finally {
-                this.unm.setAttachmentUnmarshaller(oldAttachmentUnmarshaller);
+            if (Object.class.equals(declaredType)) {
+                return (T) unm.unmarshal(body);
+            } else {
+                return unm.unmarshal(body, declaredType).getValue();
             }
+        } finally {
+            releaseUnmarshaller(unm);
         }
     }
 
@@ -140,10 +244,10 @@ public class MarshallingHelper {
     public <T> void marshal(final Exchange camelExchange, final T t, final boolean xop)
             throws JAXBException, IOException {
 
-        synchronized (this.m) {
-            final AttachmentMarshaller oldAttachmentMarshaller = m.getAttachmentMarshaller();
+        final Marshaller m = acquireMarshaller();
+        try {
             if (xop) {
-                this.m.setAttachmentMarshaller(new AbstractAttachmentMarshaller() {
+                m.setAttachmentMarshaller(new AbstractAttachmentMarshaller() {
                     @Override
                     protected void addAttachment(final String cid, final DataHandler data) {
                         final AttachmentMessage am = camelExchange.getMessage(AttachmentMessage.class);
@@ -152,8 +256,21 @@ public class MarshallingHelper {
                 });
             }
 
+            if (this.bytesBody) {
+                final Buffer buffer = acquireBuffer();
+                try {
+                    m.marshal(t, buffer);
+                    // the body gets its own array: it may be sent to Petals and read after the exchange is done, so
+                    // it can't be backed by a recycled buffer
+                    camelExchange.getOut().setBody(new BytesSource(buffer.toByteArray()));
+                } finally {
+                    releaseBuffer(buffer);
+                }
+                return;
+            }
+
             try (final EasyByteArrayOutputStream out = new EasyByteArrayOutputStream()) {
-                this.m.marshal(t, out);
+                m.marshal(t, out);
 
                 // We use a 'StreamSourceCache' instead of 'StreamSource' to workaround a problem of Apache Camel 4.0.x
                 // about its message logging in unit test through PetalsCamelTestSupport(true). The property
@@ -162,9 +279,9 @@ public class MarshallingHelper {
                 // but they are logged, and next the stream can not be read.
                 camelExchange.getOut()
                         .setBody(new StreamSourceCache(new StreamSource(out.toByteArrayInputStream()), camelExchange));
-            } finally {
-                this.m.setAttachmentMarshaller(oldAttachmentMarshaller);
             }
+        } finally {
+            releaseMarshaller(m);
         }
     }
 
@@ -177,8 +294,11 @@ public class MarshallingHelper {
      * @param object
      */
     public void basicMarshal(final OutputStream out, final Object object) throws JAXBException {
-        synchronized (this.m) {
-            this.m.marshal(object, out);
+        final Marshaller m = acquireMarshaller();
+        try {
+            m.marshal(object, out);
+        } finally {
+            releaseMarshaller(m);
         }
     }
 
@@ -190,8 +310,57 @@ public class MarshallingHelper {
      * @param in
      */
     public Object basicUnmarshal(final InputStream in) throws JAXBException {
-        synchronized (this.unm) {
-            return this.unm.unmarshal(in);
+        final Unmarshaller unm = acquireUnmarshaller();
+        try {
+            return unm.unmarshal(in);
+        } finally {
+            releaseUnmarshaller(unm);
+        }
+    }
+
+    /**
+     * A growable buffer, reused from a marshalling to another
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        private Buffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        private int capacity() {
+            return this.buf.length;
+        }
+    }
+
+    /**
+     * A bounded lock-free pool of instances that are not thread-safe
+     */
+    private static final class Pool<T> {
+
+        private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final int maxIdle;
+
+        private Pool(final int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        private @Nullable T acquire() {
+            final T instance = this.idle.poll();
+            if (instance != null) {
+                this.size.decrementAndGet();
+            }
+            return instance;
+        }
+
+        private void release(final T instance) {
+            if (this.size.incrementAndGet() <= this.maxIdle) {
+                this.idle.offer(instance);
+            } else {
+                this.size.decrementAndGet();
+            }
         }
     }
 }
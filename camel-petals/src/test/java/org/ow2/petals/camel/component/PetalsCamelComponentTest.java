@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -38,9 +39,13 @@ import org.junit.jupiter.api.Test;
 import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
 import org.ow2.petals.camel.ServiceEndpointOperation;
 import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
+import org.ow2.petals.camel.component.PetalsCamelEndpoint.AnswerAcknowledgement;
 import org.ow2.petals.camel.component.exceptions.IncompatibleEndpointUsageException;
 import org.ow2.petals.camel.component.exceptions.InvalidURIException;
 import org.ow2.petals.camel.component.mocks.ServiceEndpointOperationMock;
+import org.ow2.petals.camel.component.utils.InFlightWindow;
+import org.ow2.petals.camel.component.utils.LatencyHistogram;
+import org.ow2.petals.camel.component.utils.RequestCollapser;
 import org.ow2.petals.camel.exceptions.UnknownServiceException;
 
 public class PetalsCamelComponentTest extends CamelPetalsTestSupport {
@@ -122,6 +127,141 @@ public class PetalsCamelComponentTest extends CamelPetalsTestSupport {
                 .contains("The parameter exchangePattern can't be set on a from() endpoint"));
     }
 
+    @Test
+    public void testCreateProvidesEndpoint_KO8() {
+        addMockProvides(SERVICE_ID_1);
+        final Exception actualException = assertThrows(ResolveEndpointFailedException.class, () -> {
+            createEndpoint(SERVICE_ID_1 + "?maxInFlight=5");
+        });
+        assertTrue(
+                actualException.getMessage().contains("The parameter maxInFlight can't be set on a from() endpoint"));
+    }
+
+    @Test
+    public void testCreateConsumesEndpoint_MaxInFlight_OK() {
+        addMockConsumes(SERVICE_ID_1);
+
+        final PetalsCamelEndpoint edp1 = createEndpoint(SERVICE_ID_1);
+        assertEquals(0, edp1.getMaxInFlight());
+        assertNull(edp1.getInFlightWindow());
+
+        final PetalsCamelEndpoint edp2 = createEndpoint(SERVICE_ID_1 + "?maxInFlight=5&inFlightPolicy=REJECT");
+        assertEquals(5, edp2.getMaxInFlight());
+        assertEquals(InFlightWindow.Policy.REJECT, edp2.getInFlightPolicy());
+        final InFlightWindow window = edp2.getInFlightWindow();
+        assertNotNull(window);
+        assertEquals(0, window.getInFlight());
+
+        // the window is shared by the endpoints of the same consumes
+        final PetalsCamelEndpoint edp3 = createEndpoint(
+                SERVICE_ID_1 + "?maxInFlight=5&inFlightPolicy=REJECT&timeout=5");
+        assertSame(window, edp3.getInFlightWindow());
+    }
+
+    @Test
+    public void testCreateConsumesEndpoint_KO_VirtualThreads() {
+        addMockConsumes(SERVICE_ID_1);
+        final Exception actualException = assertThrows(ResolveEndpointFailedException.class, () -> {
+            createEndpoint(SERVICE_ID_1 + "?virtualThreads=true");
+        });
+        assertTrue(
+                actualException.getMessage().contains("The parameter virtualThreads can't be set on a to() endpoint"));
+        assertTrue(actualException.getMessage()
+                .contains("only the exchanges received from Petals by a from() endpoint"));
+    }
+
+    @Test
+    public void testCreateProvidesEndpoint_VirtualThreads_OK() {
+        addMockProvides(SERVICE_ID_1);
+        assertFalse(createEndpoint(SERVICE_ID_1).isVirtualThreads());
+        assertTrue(createEndpoint(SERVICE_ID_1 + "?virtualThreads=true").isVirtualThreads());
+    }
+
+    @Test
+    public void testCreateProvidesEndpoint_KO_Collapse() {
+        addMockProvides(SERVICE_ID_1);
+        final Exception actualException = assertThrows(ResolveEndpointFailedException.class, () -> {
+            createEndpoint(SERVICE_ID_1 + "?collapse=true");
+        });
+        assertTrue(actualException.getMessage().contains("The parameter collapse can't be set on a from() endpoint"));
+    }
+
+    @Test
+    public void testCreateConsumesEndpoint_Collapse_OK() {
+        addMockConsumes(SERVICE_ID_1);
+
+        final PetalsCamelEndpoint edp1 = createEndpoint(SERVICE_ID_1);
+        assertFalse(edp1.isCollapse());
+        assertNull(edp1.getRequestCollapser());
+
+        final PetalsCamelEndpoint edp2 = createEndpoint(SERVICE_ID_1 + "?collapse=true");
+        assertTrue(edp2.isCollapse());
+        final RequestCollapser collapser = edp2.getRequestCollapser();
+        assertNotNull(collapser);
+
+        // the collapser is shared by the endpoints of the same consumes
+        final PetalsCamelEndpoint edp3 = createEndpoint(SERVICE_ID_1 + "?collapse=true&timeout=5");
+        assertSame(collapser, edp3.getRequestCollapser());
+    }
+
+    @Test
+    public void testCreateProvidesEndpoint_KO_AdaptiveTimeout() {
+        addMockProvides(SERVICE_ID_1);
+        final Exception actualException = assertThrows(ResolveEndpointFailedException.class, () -> {
+            createEndpoint(SERVICE_ID_1 + "?adaptiveTimeoutPercentile=99");
+        });
+        assertTrue(actualException.getMessage()
+                .contains("The parameter adaptiveTimeoutPercentile can't be set on a from() endpoint"));
+    }
+
+    @Test
+    public void testCreateConsumesEndpoint_AdaptiveTimeout_OK() {
+        addMockConsumes(SERVICE_ID_1);
+
+        final PetalsCamelEndpoint edp = createEndpoint(
+                SERVICE_ID_1 + "?timeout=5000&adaptiveTimeoutPercentile=99&adaptiveTimeoutMin=50");
+        final LatencyHistogram histogram = edp.getLatencyHistogram();
+        assertNotNull(histogram);
+
+        // the static timeout is used until enough latencies are observed
+        assertEquals(5000, edp.getEffectiveTimeout());
+
+        for (int i = 0; i < 100; i++) {
+            histogram.record(10);
+        }
+        assertEquals(50, edp.getEffectiveTimeout());
+
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(100);
+        }
+        final long timeout = edp.getEffectiveTimeout();
+        assertTrue(timeout >= 300 && timeout <= 330, "timeout=" + timeout);
+    }
+
+    @Test
+    public void testCreateConsumesEndpoint_KO_AnswerAcknowledgement() {
+        addMockConsumes(SERVICE_ID_1);
+        final Exception actualException = assertThrows(ResolveEndpointFailedException.class, () -> {
+            createEndpoint(SERVICE_ID_1 + "?answerAcknowledgement=FIRE_AND_FORGET");
+        });
+        assertTrue(actualException.getMessage()
+                .contains("The parameter answerAcknowledgement can't be set on a to() endpoint"));
+    }
+
+    @Test
+    public void testCreateProvidesEndpoint_AnswerAcknowledgement_OK() {
+        addMockProvides(SERVICE_ID_1);
+
+        assertEquals(AnswerAcknowledgement.ASYNC, createEndpoint(SERVICE_ID_1).getAnswerAcknowledgement());
+        assertEquals(AnswerAcknowledgement.SYNC,
+                createEndpoint(SERVICE_ID_1 + "?synchronous=true").getAnswerAcknowledgement());
+
+        final PetalsCamelEndpoint edp = createEndpoint(
+                SERVICE_ID_1 + "?answerAcknowledgement=FIRE_AND_FORGET&answerAcknowledgementTimeout=5000");
+        assertEquals(AnswerAcknowledgement.FIRE_AND_FORGET, edp.getAnswerAcknowledgement());
+        assertEquals(5000, edp.getAnswerAcknowledgementTimeout());
+    }
+
     private static void assertServiceEndpointOperation(final ServiceEndpointOperation expected,
             final ServiceEndpointOperation actual) {
         assertNotNull(expected);
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jbi.messaging.MessagingException;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.engine.PooledExchangeFactory;
+import org.apache.camel.spi.PooledObjectFactory;
+import org.junit.jupiter.api.Test;
+import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
+import org.ow2.petals.camel.component.mocks.ServiceEndpointOperationMock;
+import org.ow2.petals.camel.helpers.PetalsRouteBuilder;
+import org.ow2.petals.component.framework.api.message.Exchange;
+
+/**
+ * The Camel exchanges created for the exchanges received from Petals are released once answered: with a
+ * {@link PooledExchangeFactory}, as a SU configured with pooled exchanges uses, they are recycled.
+ */
+public class PetalsCamelConsumerPooledExchangesTest extends CamelPetalsTestSupport {
+
+    private static final int EXCHANGES = 6;
+
+    private static final int BATCH_SIZE = 3;
+
+    @Override
+    protected CamelContext createCamelContext() throws Exception {
+        final CamelContext context = super.createCamelContext();
+        final PooledExchangeFactory factory = new PooledExchangeFactory();
+        // the factories of the consumers inherit it
+        factory.setStatisticsEnabled(true);
+        context.getCamelContextExtension().setExchangeFactory(factory);
+        return context;
+    }
+
+    @Override
+    protected void initializeServices() {
+        super.initializeServices();
+        pcc().addMockService("sync", new ServiceEndpointOperationMock(TEST_SERVICE_NAME, TEST_INTERFACE_NAME,
+                "syncEndpoint", TEST_OPERATION_NAME, ServiceType.PROVIDES, MEPPatternConstants.IN_OUT.value()));
+        pcc().addMockService("batch", new ServiceEndpointOperationMock(TEST_SERVICE_NAME, TEST_INTERFACE_NAME,
+                "batchEndpoint", TEST_OPERATION_NAME, ServiceType.PROVIDES, MEPPatternConstants.IN_ONLY.value()));
+        pcc().addMockService("virtual", new ServiceEndpointOperationMock(TEST_SERVICE_NAME, TEST_INTERFACE_NAME,
+                "virtualEndpoint", TEST_OPERATION_NAME, ServiceType.PROVIDES, MEPPatternConstants.IN_OUT.value()));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new PetalsRouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("petals:sync?synchronous=true").routeId("sync").setBody(constant("<out/>"));
+                from("petals:batch?synchronous=true&batchSize=" + BATCH_SIZE + "&batchTimeout=60000").routeId("batch")
+                        .log("batch");
+                from("petals:virtual?synchronous=true&virtualThreads=true").routeId("virtual")
+                        .setBody(constant("<out/>"));
+            }
+        };
+    }
+
+    @Test
+    public void testSynchronousExchangesRecycled() throws Exception {
+        final PooledObjectFactory.Statistics statistics = statistics();
+
+        for (final Exchange exchange : process("sync", EXCHANGES)) {
+            assertFalse(exchange.isErrorStatus());
+        }
+
+        assertEquals(EXCHANGES, statistics.getReleasedCounter());
+        // each exchange is released before the next one is received: only the first one is created
+        assertEquals(1, statistics.getCreatedCounter());
+        assertEquals(EXCHANGES - 1, statistics.getAcquiredCounter());
+        assertEquals(0, statistics.getDiscardedCounter());
+    }
+
+    @Test
+    public void testBatchExchangesRecycled() throws Exception {
+        final PooledObjectFactory.Statistics statistics = statistics();
+
+        for (final Exchange exchange : process("batch", EXCHANGES)) {
+            assertFalse(exchange.isErrorStatus());
+        }
+
+        // one Camel exchange per batch
+        assertEquals(EXCHANGES / BATCH_SIZE, statistics.getReleasedCounter());
+        assertEquals(1, statistics.getCreatedCounter());
+        assertEquals(EXCHANGES / BATCH_SIZE - 1, statistics.getAcquiredCounter());
+    }
+
+    @Test
+    public void testVirtualThreadsExchangesRecycled() throws Exception {
+        final PooledObjectFactory.Statistics statistics = statistics();
+
+        process("virtual", EXCHANGES);
+
+        // the exchanges are answered on other threads
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (statistics.getReleasedCounter() < EXCHANGES && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(EXCHANGES, statistics.getReleasedCounter());
+        assertEquals(EXCHANGES, statistics.getCreatedCounter() + statistics.getAcquiredCounter());
+        assertTrue(statistics.getCreatedCounter() <= EXCHANGES);
+        assertEquals(0, statistics.getDiscardedCounter());
+    }
+
+    private PooledObjectFactory.Statistics statistics() {
+        return context().getCamelContextExtension().getExchangeFactoryManager().getStatistics();
+    }
+
+    private List<Exchange> process(final String serviceId, final int count) throws MessagingException {
+        final List<Exchange> exchanges = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Exchange exchange = pcc().createExchange(serviceId, "<in" + i + "/>");
+            pcc().process(serviceId, exchange);
+            exchanges.add(exchange);
+        }
+        return exchanges;
+    }
+}
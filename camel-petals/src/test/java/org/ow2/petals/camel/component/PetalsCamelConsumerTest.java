@@ -17,12 +17,39 @@
  */
 package org.ow2.petals.camel.component;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import javax.jbi.messaging.NormalizedMessage;
+
 import org.apache.camel.EndpointInject;
+import org.apache.camel.Message;
+import org.apache.camel.Route;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.eclipse.jdt.annotation.Nullable;
 import org.junit.jupiter.api.Test;
+import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
+import org.ow2.petals.camel.component.exceptions.SuspendedRouteException;
+import org.ow2.petals.camel.component.mocks.PetalsCamelContextMock.MockSendHandler;
+import org.ow2.petals.camel.component.mocks.ServiceEndpointOperationMock;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter;
 import org.ow2.petals.camel.helpers.PetalsRouteBuilder;
+import org.ow2.petals.commons.log.FlowAttributes;
+import org.ow2.petals.commons.log.PetalsExecutionContext;
 import org.ow2.petals.component.framework.api.message.Exchange;
 
 public class PetalsCamelConsumerTest extends CamelPetalsTestSupport {
@@ -31,8 +58,23 @@ public class PetalsCamelConsumerTest extends CamelPetalsTestSupport {
     protected void initializeServices() {
         super.initializeServices();
         addMockProvides("serviceId1");
+        // another endpoint, for the routes added by the tests
+        pcc().addMockService("serviceId2", new ServiceEndpointOperationMock(TEST_SERVICE_NAME, TEST_INTERFACE_NAME,
+                "otherEndpoint", TEST_OPERATION_NAME, ServiceType.PROVIDES, MEPPatternConstants.IN_OUT.value()));
+        // an InOnly endpoint processing one exchange at a time
+        pcc().addMockService("serviceId3", new ServiceEndpointOperationMock(TEST_SERVICE_NAME, TEST_INTERFACE_NAME,
+                "batchEndpoint", TEST_OPERATION_NAME, ServiceType.PROVIDES, MEPPatternConstants.IN_ONLY.value()),
+                new MockSendHandler() {
+                    @Override
+                    public ConcurrencyLimiter getConcurrencyLimiter() {
+                        return PetalsCamelConsumerTest.this.limiter;
+                    }
+                });
     }
 
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter("serviceId3",
+            Logger.getLogger(PetalsCamelConsumerTest.class.getName()), 1, 0, 0, 0);
+
     @EndpointInject("mock:result")
     @Nullable
     protected MockEndpoint resultEndpoint;
@@ -64,4 +106,209 @@ public class PetalsCamelConsumerTest extends CamelPetalsTestSupport {
 
         resultEndpoint().assertIsSatisfied();
     }
+
+    @Test
+    public void testPassThroughIsOptIn() throws Exception {
+        final Route route = context().getRoute("serviceId1");
+        assertNotNull(route);
+        final PetalsCamelConsumer consumer = assertInstanceOf(PetalsCamelConsumer.class, route.getConsumer());
+        assertFalse(consumer.isPassThrough());
+
+        context().addRoutes(new PetalsRouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("petals:serviceId2?passThrough=true").routeId("serviceId2").to("mock:result");
+            }
+        });
+        final Route passThroughRoute = context().getRoute("serviceId2");
+        assertNotNull(passThroughRoute);
+        // the route sends the content to a mock endpoint, the option is only warned about
+        assertTrue(assertInstanceOf(PetalsCamelConsumer.class, passThroughRoute.getConsumer()).isPassThrough());
+    }
+
+    @Test
+    public void testLazyHeaders() throws Exception {
+        final PetalsCamelComponent component = context().getComponent("petals", PetalsCamelComponent.class);
+        assertNotNull(component);
+        component.setLazyHeaders(true);
+
+        final String content = "<aa/>";
+        expectBodyReceived(resultEndpoint(), content);
+        resultEndpoint().expectedHeaderReceived("foo", "bar");
+
+        final Exchange petalsExchange = pcc().createExchange("serviceId1", content);
+        petalsExchange.getInMessage().setProperty("foo", "bar");
+
+        pcc().process("serviceId1", petalsExchange);
+
+        resultEndpoint().assertIsSatisfied();
+    }
+
+    @Test
+    public void testLazyHeadersWrittenBack() throws Exception {
+        final PetalsCamelComponent component = context().getComponent("petals", PetalsCamelComponent.class);
+        assertNotNull(component);
+        component.setLazyHeaders(true);
+
+        context().addRoutes(new PetalsRouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("petals:serviceId2?synchronous=true").routeId("serviceId2").process(exchange -> {
+                    final Message message = exchange.getMessage();
+                    assertEquals("old", message.getHeader("changed"));
+                    message.setHeader("changed", "new");
+                    message.setHeader("added", "value");
+                    message.removeHeader("removed");
+                });
+            }
+        });
+
+        final Exchange petalsExchange = pcc().createExchange("serviceId2", "<aa/>");
+        petalsExchange.getInMessage().setProperty("kept", "value");
+        petalsExchange.getInMessage().setProperty("changed", "old");
+        petalsExchange.getInMessage().setProperty("removed", "value");
+
+        pcc().process("serviceId2", petalsExchange);
+
+        final NormalizedMessage out = petalsExchange.getOutMessage();
+        assertNotNull(out);
+        assertEquals("value", out.getProperty("kept"));
+        assertEquals("new", out.getProperty("changed"));
+        assertEquals("value", out.getProperty("added"));
+        assertNull(out.getProperty("removed"));
+    }
+
+    @Test
+    public void testSuspended() throws Exception {
+        final PetalsCamelComponent component = context().getComponent("petals", PetalsCamelComponent.class);
+        assertNotNull(component);
+        assertTrue(component.suspendAndDrainConsumers());
+
+        resultEndpoint().expectedMessageCount(0);
+
+        final Exchange rejected = pcc().createExchange("serviceId1", "<aa/>");
+        pcc().process("serviceId1", rejected);
+
+        resultEndpoint().assertIsSatisfied();
+        assertTrue(rejected.isErrorStatus());
+        assertInstanceOf(SuspendedRouteException.class, rejected.getError());
+
+        component.resumeConsumers();
+        resultEndpoint().reset();
+
+        final String content = "<bb/>";
+        expectBodyReceived(resultEndpoint(), content);
+
+        pcc().process("serviceId1", pcc().createExchange("serviceId1", content));
+
+        resultEndpoint().assertIsSatisfied();
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        final PetalsCamelComponent component = context().getComponent("petals", PetalsCamelComponent.class);
+        assertNotNull(component);
+        component.setVirtualThreads(true);
+
+        final AtomicReference<Thread> routeThread = new AtomicReference<>();
+        final AtomicReference<FlowAttributes> routeFlowAttributes = new AtomicReference<>();
+        resultEndpoint().whenAnyExchangeReceived(exchange -> {
+            routeThread.set(Thread.currentThread());
+            routeFlowAttributes.set(PetalsExecutionContext.getFlowAttributes());
+        });
+
+        final String content = "<aa/>";
+        expectBodyReceived(resultEndpoint(), content);
+
+        final Exchange petalsExchange = pcc().createExchange("serviceId1", content);
+        pcc().process("serviceId1", petalsExchange);
+
+        resultEndpoint().assertIsSatisfied();
+
+        // the route is not executed by the thread that received the exchange from Petals
+        assertNotSame(Thread.currentThread(), routeThread.get());
+
+        final FlowAttributes expected = PetalsExecutionContext.getFlowAttributes();
+        final FlowAttributes actual = routeFlowAttributes.get();
+        assertNotNull(expected);
+        assertNotNull(actual);
+        assertEquals(expected.getFlowInstanceId(), actual.getFlowInstanceId());
+        assertEquals(expected.getFlowStepId(), actual.getFlowStepId());
+    }
+
+    @Test
+    public void testVirtualThreadsConcurrencyBound() throws Exception {
+        final PetalsCamelComponent component = context().getComponent("petals", PetalsCamelComponent.class);
+        assertNotNull(component);
+        component.setVirtualThreads(true);
+        component.setVirtualThreadsMaxConcurrency(1);
+
+        final Thread petalsThread = Thread.currentThread();
+        final List<Thread> routeThreads = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        resultEndpoint().whenAnyExchangeReceived(exchange -> {
+            routeThreads.add(Thread.currentThread());
+            if (Thread.currentThread() != petalsThread) {
+                // holds the only permit
+                release.await();
+            }
+        });
+        resultEndpoint().expectedMessageCount(2);
+
+        final Exchange first = pcc().createExchange("serviceId1", "<a/>");
+        pcc().process("serviceId1", first);
+        final Exchange second = pcc().createExchange("serviceId1", "<b/>");
+        pcc().process("serviceId1", second);
+
+        // the second exchange was processed by the thread that received it from Petals
+        assertTrue(routeThreads.contains(petalsThread));
+        assertFalse(second.isErrorStatus());
+
+        release.countDown();
+        resultEndpoint().assertIsSatisfied();
+        assertEquals(2, routeThreads.size());
+    }
+
+    @Test
+    public void testBatchWithFewerAdmissionsThanItsSize() throws Exception {
+        context().addRoutes(new PetalsRouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("petals:serviceId3?batchSize=3&batchTimeout=60000").routeId("serviceId3").to("mock:result");
+            }
+        });
+        final AtomicReference<FlowAttributes> routeFlowAttributes = new AtomicReference<>();
+        resultEndpoint().whenAnyExchangeReceived(
+                exchange -> routeFlowAttributes.set(PetalsExecutionContext.getFlowAttributes()));
+        resultEndpoint().expectedMessageCount(1);
+
+        final List<Exchange> batch = new ArrayList<>();
+        FlowAttributes firstFlowAttributes = null;
+        for (int i = 0; i < 3; i++) {
+            final Exchange petalsExchange = pcc().createExchange("serviceId3", "<a" + i + "/>");
+            pcc().process("serviceId3", petalsExchange);
+            if (i == 0) {
+                firstFlowAttributes = PetalsExecutionContext.getFlowAttributes();
+            }
+            batch.add(petalsExchange);
+            // the exchange waiting for its batch does not hold its admission
+            assertEquals(0, this.limiter.getInFlight());
+        }
+
+        resultEndpoint().assertIsSatisfied();
+        final List<?> messages = assertInstanceOf(List.class,
+                resultEndpoint().getReceivedExchanges().get(0).getIn().getBody());
+        assertEquals(3, messages.size());
+        for (final Exchange petalsExchange : batch) {
+            assertFalse(petalsExchange.isErrorStatus());
+        }
+        assertEquals(0, this.limiter.getRejected());
+
+        // the batch is processed with the flow attributes of its first exchange
+        final FlowAttributes actual = routeFlowAttributes.get();
+        assertNotNull(firstFlowAttributes);
+        assertNotNull(actual);
+        assertEquals(firstFlowAttributes.getFlowInstanceId(), actual.getFlowInstanceId());
+        assertEquals(firstFlowAttributes.getFlowStepId(), actual.getFlowStepId());
+    }
 }
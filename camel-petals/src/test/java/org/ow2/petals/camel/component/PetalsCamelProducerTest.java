@@ -18,16 +18,27 @@
 package org.ow2.petals.camel.component;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.StringReader;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 import javax.jbi.messaging.Fault;
 import javax.jbi.messaging.MessagingException;
+import javax.jbi.servicedesc.ServiceEndpoint;
+import javax.xml.namespace.QName;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 
@@ -40,16 +51,25 @@ import org.custommonkey.xmlunit.Diff;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+import org.ow2.petals.camel.PetalsChannel.SendAsyncCallback;
 import org.ow2.petals.camel.ServiceEndpointOperation;
 import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
+import org.ow2.petals.camel.component.exceptions.TimeoutException;
 import org.ow2.petals.camel.component.mocks.PetalsCamelContextMock.MockSendHandler;
+import org.ow2.petals.camel.component.mocks.ServiceEndpointOperationMock;
+import org.ow2.petals.camel.component.utils.CircuitBreaker;
+import org.ow2.petals.camel.component.utils.CircuitBreaker.State;
+import org.ow2.petals.camel.component.utils.LatencyHistogram;
 import org.ow2.petals.component.framework.api.message.Exchange;
+import org.ow2.petals.component.framework.util.exception.InvalidFlowTracingActivationExchangePropertyValueException;
+import org.w3c.dom.DocumentFragment;
 
 import com.ebmwebsourcing.easycommons.lang.UncheckedException;
 
@@ -256,4 +276,274 @@ public class PetalsCamelProducerTest extends CamelPetalsTestSupport {
         assertEquals(MEPPatternConstants.fromURI(seo.getMEP()), MEPPatternConstants.fromURI(exchange.getPattern()));
         assertEquals(seo.getInterface(), exchange.getInterfaceName());
     }
+
+    /**
+     * A provider answering the exchanges only when asked to by the test
+     */
+    private static class DeferredSendHandler extends MockSendHandler {
+
+        protected final List<Exchange> sent = new CopyOnWriteArrayList<>();
+
+        protected final List<SendAsyncCallback> callbacks = new CopyOnWriteArrayList<>();
+
+        protected final List<Exchange> acknowledged = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void sendAsync(final Exchange exchange, final long timeout, final SendAsyncCallback callback) {
+            this.sent.add(exchange);
+            this.callbacks.add(callback);
+        }
+
+        @Override
+        public void send(final Exchange exchange) {
+            this.acknowledged.add(exchange);
+        }
+
+        protected void answer(final int index, final String content) throws MessagingException {
+            final Exchange exchange = this.sent.get(index);
+            exchange.setOutMessageContent(new StreamSource(new ReaderInputStream(new StringReader(content))));
+            this.callbacks.get(index).done(exchange, false);
+        }
+    }
+
+    private static ServiceEndpoint serviceEndpoint(final @Nullable QName serviceName, final String endpointName) {
+        final QName service = serviceName != null ? serviceName : new QName(TEST_SERVICE_NAME);
+        return new ServiceEndpoint() {
+            @Override
+            public QName getServiceName() {
+                return service;
+            }
+
+            @Override
+            public QName[] getInterfaces() {
+                return new QName[0];
+            }
+
+            @Override
+            public String getEndpointName() {
+                return endpointName;
+            }
+
+            @Override
+            public @Nullable DocumentFragment getAsReference(final @Nullable QName operationName) {
+                return null;
+            }
+        };
+    }
+
+    private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testHedging() throws Exception {
+        final DeferredSendHandler provider = new DeferredSendHandler() {
+            @Override
+            public List<ServiceEndpoint> resolveEndpoints(final @Nullable QName serviceName) {
+                return List.of(serviceEndpoint(serviceName, TEST_ENDPOINT_NAME),
+                        serviceEndpoint(serviceName, "other"));
+            }
+        };
+        addMockConsumes("serviceId1", provider);
+        final PetalsCamelEndpoint endpoint = createEndpoint("serviceId1?hedgePercentile=50");
+        final LatencyHistogram histogram = endpoint.getLatencyHistogram();
+        assertNotNull(histogram);
+        for (int i = 0; i < 20; i++) {
+            histogram.record(1);
+        }
+
+        final PetalsCamelProducer producer = (PetalsCamelProducer) endpoint.createProducer();
+        producer.start();
+        final org.apache.camel.Exchange camelExchange = endpoint.createExchange(ExchangePattern.InOut);
+        camelExchange.getIn().setBody(IN);
+        final AtomicInteger done = new AtomicInteger();
+        assertFalse(producer.process(camelExchange, doneSync -> done.incrementAndGet()));
+
+        // the first exchange is not answered in time, it is sent again to the other endpoint
+        waitFor(() -> provider.sent.size() == 2);
+        assertEquals(2, provider.sent.size());
+        assertEquals(TEST_ENDPOINT_NAME, provider.sent.get(0).getEndpointName());
+        assertEquals("other", provider.sent.get(1).getEndpointName());
+        assertEquals(1, endpoint.getHedgedRequests());
+
+        // the first answer wins
+        provider.answer(1, OUT);
+        assertEquals(1, done.get());
+        assertNull(camelExchange.getException());
+        final Object answer = camelExchange.getMessage().getBody();
+
+        // the late answer is only acknowledged
+        provider.answer(0, "<late/>");
+        assertEquals(1, done.get());
+        assertSame(answer, camelExchange.getMessage().getBody());
+        assertEquals(List.of(provider.sent.get(1), provider.sent.get(0)), provider.acknowledged);
+        assertSimilar(new Diff(OUT, getContent(camelExchange.getMessage())));
+
+        producer.stop();
+    }
+
+    @Test
+    public void testCollapseOnlyRequestsToTheSameTarget() throws Exception {
+        final DeferredSendHandler provider = new DeferredSendHandler();
+        pcc().addMockService("serviceId1", new ServiceEndpointOperationMock(null, TEST_INTERFACE_NAME, null,
+                TEST_OPERATION_NAME, ServiceType.CONSUMES, MEPPatternConstants.IN_OUT.value()), provider);
+        final PetalsCamelEndpoint endpointA = createEndpoint("serviceId1?collapse=true&serviceName={tests}A");
+        final PetalsCamelEndpoint endpointB = createEndpoint("serviceId1?collapse=true&serviceName={tests}B");
+        assertSame(endpointA.getRequestCollapser(), endpointB.getRequestCollapser());
+
+        final PetalsCamelProducer producerA = (PetalsCamelProducer) endpointA.createProducer();
+        final PetalsCamelProducer producerB = (PetalsCamelProducer) endpointB.createProducer();
+        producerA.start();
+        producerB.start();
+        final org.apache.camel.Exchange exchangeA = endpointA.createExchange(ExchangePattern.InOut);
+        exchangeA.getIn().setBody(IN);
+        final org.apache.camel.Exchange exchangeB = endpointB.createExchange(ExchangePattern.InOut);
+        exchangeB.getIn().setBody(IN);
+        assertFalse(producerA.process(exchangeA, doneSync -> {
+        }));
+        assertFalse(producerB.process(exchangeB, doneSync -> {
+        }));
+
+        // the same payload is sent to each service
+        assertEquals(2, provider.sent.size());
+        assertEquals(new QName("tests", "A"), provider.sent.get(0).getService());
+        assertEquals(new QName("tests", "B"), provider.sent.get(1).getService());
+        assertEquals(0, endpointA.getCollapsedRequests());
+
+        // and each exchange gets the answer of its own service
+        provider.answer(0, OUT);
+        provider.answer(1, "<other/>");
+        assertSimilar(new Diff(OUT, getContent(exchangeA.getMessage())));
+        assertSimilar(new Diff("<other/>", getContent(exchangeB.getMessage())));
+
+        producerA.stop();
+        producerB.stop();
+    }
+
+    @Test
+    public void testCacheOnlyAnswersOfTheSameTarget() throws Exception {
+        final DeferredSendHandler provider = new DeferredSendHandler();
+        pcc().addMockService("serviceId1", new ServiceEndpointOperationMock(null, TEST_INTERFACE_NAME, null,
+                TEST_OPERATION_NAME, ServiceType.CONSUMES, MEPPatternConstants.IN_OUT.value()), provider);
+        final PetalsCamelEndpoint endpointA = createEndpoint("serviceId1?cacheTtl=60000&serviceName={tests}A");
+        final PetalsCamelEndpoint endpointB = createEndpoint("serviceId1?cacheTtl=60000&serviceName={tests}B");
+        assertSame(endpointA.getResponseCache(), endpointB.getResponseCache());
+
+        final PetalsCamelProducer producerA = (PetalsCamelProducer) endpointA.createProducer();
+        final PetalsCamelProducer producerB = (PetalsCamelProducer) endpointB.createProducer();
+        producerA.start();
+        producerB.start();
+        final org.apache.camel.Exchange exchangeA = endpointA.createExchange(ExchangePattern.InOut);
+        exchangeA.getIn().setBody(IN);
+        assertFalse(producerA.process(exchangeA, doneSync -> {
+        }));
+        provider.answer(0, OUT);
+        assertEquals(1, endpointA.getResponseCacheSize());
+
+        // the answer of the service A must not be replayed for the same payload sent to the service B
+        final org.apache.camel.Exchange exchangeB = endpointB.createExchange(ExchangePattern.InOut);
+        exchangeB.getIn().setBody(IN);
+        assertFalse(producerB.process(exchangeB, doneSync -> {
+        }));
+        assertEquals(2, provider.sent.size());
+        assertEquals(new QName("tests", "B"), provider.sent.get(1).getService());
+        provider.answer(1, "<other/>");
+        assertSimilar(new Diff("<other/>", getContent(exchangeB.getMessage())));
+        assertEquals(2, endpointA.getResponseCacheSize());
+
+        // while it is for the service A
+        final org.apache.camel.Exchange replayedA = endpointA.createExchange(ExchangePattern.InOut);
+        replayedA.getIn().setBody(IN);
+        assertTrue(producerA.process(replayedA, doneSync -> {
+        }));
+        assertEquals(2, provider.sent.size());
+        assertSimilar(new Diff(OUT, getContent(replayedA.getMessage())));
+
+        producerA.stop();
+        producerB.stop();
+    }
+
+    @Test
+    public void testAdaptiveTimeoutGrowsWithTimeouts() throws Exception {
+        final List<Long> timeouts = new CopyOnWriteArrayList<>();
+        addMockConsumes("serviceId1", new MockSendHandler() {
+            @Override
+            public void sendAsync(final Exchange exchange, final long timeout, final SendAsyncCallback callback) {
+                // the provider became too slow for the current timeout
+                timeouts.add(timeout);
+                callback.done(exchange, true);
+            }
+        });
+        final PetalsCamelEndpoint endpoint = createEndpoint(
+                "serviceId1?timeout=5000&adaptiveTimeoutPercentile=99&adaptiveTimeoutMin=1");
+        final LatencyHistogram histogram = endpoint.getLatencyHistogram();
+        assertNotNull(histogram);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(10);
+        }
+        final long initial = endpoint.getEffectiveTimeout();
+        assertEquals(30, initial);
+
+        final PetalsCamelProducer producer = (PetalsCamelProducer) endpoint.createProducer();
+        producer.start();
+        for (int i = 0; i < 5; i++) {
+            final org.apache.camel.Exchange camelExchange = endpoint.createExchange(ExchangePattern.InOut);
+            camelExchange.getIn().setBody(IN);
+            producer.process(camelExchange, doneSync -> {
+            });
+            assertInstanceOf(TimeoutException.class, camelExchange.getException());
+        }
+        producer.stop();
+
+        assertEquals(initial, timeouts.get(0));
+        assertTrue(endpoint.getEffectiveTimeout() > initial, "timeout=" + endpoint.getEffectiveTimeout());
+        assertTrue(timeouts.get(4) > initial, "timeouts=" + timeouts);
+    }
+
+    @Test
+    public void testCircuitBreakerCountsOnlyProviderFailures() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("serviceId1", Logger.getLogger("serviceId1"), 0.5, 4, 2,
+                60000L);
+        addMockConsumes("serviceId1", new MockSendHandler() {
+            @Override
+            public void sendAsync(final Exchange exchange, final long timeout) throws MessagingException {
+                exchange.setError(new Exception("the provider failed"));
+            }
+
+            @Override
+            public @Nullable CircuitBreaker getCircuitBreaker() {
+                return breaker;
+            }
+        });
+        final PetalsCamelEndpoint endpoint = createEndpoint("serviceId1");
+        final PetalsCamelProducer producer = (PetalsCamelProducer) endpoint.createProducer();
+        producer.start();
+
+        // errors of the client: the provider is not involved
+        for (int i = 0; i < 4; i++) {
+            final org.apache.camel.Exchange camelExchange = endpoint.createExchange(ExchangePattern.InOut);
+            camelExchange.getIn().setBody(IN);
+            camelExchange.setProperty(PetalsConstants.EXCHANGE_CURRENT_FLOW_TRACING_ACTIVATION, "invalid");
+            producer.process(camelExchange, doneSync -> {
+            });
+            assertInstanceOf(InvalidFlowTracingActivationExchangePropertyValueException.class,
+                    camelExchange.getException());
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+
+        // errors of the provider
+        for (int i = 0; i < 2; i++) {
+            final org.apache.camel.Exchange camelExchange = endpoint.createExchange(ExchangePattern.InOut);
+            camelExchange.getIn().setBody(IN);
+            producer.process(camelExchange, doneSync -> {
+            });
+            assertNotNull(camelExchange.getException());
+        }
+        assertEquals(State.OPEN, breaker.getState());
+
+        producer.stop();
+    }
 }
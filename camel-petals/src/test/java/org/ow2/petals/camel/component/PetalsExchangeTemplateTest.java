@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+
+import javax.jbi.messaging.MessagingException;
+import javax.jbi.servicedesc.ServiceEndpoint;
+import javax.xml.namespace.QName;
+
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.support.DefaultExchange;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+import org.ow2.petals.camel.ServiceEndpointOperation;
+import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
+import org.ow2.petals.camel.component.mocks.PetalsCamelContextMock.MockSendHandler;
+import org.ow2.petals.camel.component.mocks.ServiceEndpointOperationMock;
+import org.ow2.petals.component.framework.api.message.Exchange;
+
+public class PetalsExchangeTemplateTest extends CamelPetalsTestSupport {
+
+    private static final String SERVICE_ID = "serviceId";
+
+    @Test
+    public void testMepOfTheEndpoint() throws Exception {
+        addConsumes(TEST_SERVICE_NAME, TEST_ENDPOINT_NAME, null);
+        final PetalsExchangeTemplate template = createEndpoint(SERVICE_ID + "?exchangePattern=InOut")
+                .getExchangeTemplate();
+
+        assertEquals(MEPPatternConstants.IN_OUT, template.getMep(camelExchange(ExchangePattern.InOnly)));
+        assertEquals(MEPPatternConstants.IN_OUT, template.getMep(camelExchange(ExchangePattern.InOut)));
+    }
+
+    @Test
+    public void testMepOfTheConsumes() throws Exception {
+        addConsumes(TEST_SERVICE_NAME, TEST_ENDPOINT_NAME, MEPPatternConstants.ROBUST_IN_ONLY.value());
+        final PetalsExchangeTemplate template = createEndpoint(SERVICE_ID).getExchangeTemplate();
+
+        assertEquals(MEPPatternConstants.ROBUST_IN_ONLY, template.getMep(camelExchange(ExchangePattern.InOnly)));
+        assertEquals(MEPPatternConstants.ROBUST_IN_ONLY, template.getMep(camelExchange(ExchangePattern.InOut)));
+    }
+
+    /**
+     * Without MEP declared by the endpoint nor the consumes, the endpoint still has its own exchange pattern
+     * ({@link ExchangePattern#InOnly} by default): it is used whatever the pattern of the Camel exchange.
+     */
+    @Test
+    public void testMepWithoutAnyDeclared() throws Exception {
+        addConsumes(TEST_SERVICE_NAME, TEST_ENDPOINT_NAME, null);
+        final PetalsExchangeTemplate template = createEndpoint(SERVICE_ID).getExchangeTemplate();
+
+        assertEquals(MEPPatternConstants.IN_ONLY, template.getMep(camelExchange(ExchangePattern.InOnly)));
+        assertEquals(MEPPatternConstants.IN_ONLY, template.getMep(camelExchange(ExchangePattern.InOut)));
+    }
+
+    @Test
+    public void testEndpointResolvedFromTheNamesOfTheEndpoint() throws Exception {
+        final ServiceEndpointOperation seo = addConsumes(null, null, MEPPatternConstants.IN_OUT.value());
+        final PetalsExchangeTemplate template = createEndpoint(
+                SERVICE_ID + "?serviceName={tests}Other&endpointName=otherEndpoint&operation={tests}otherOperation")
+                .getExchangeTemplate();
+
+        final Exchange exchange = pcc().createExchange(SERVICE_ID);
+        template.apply(exchange, pcc().getConsumesChannel(seo));
+
+        final ServiceEndpoint endpoint = exchange.getEndpoint();
+        assertNotNull(endpoint);
+        assertEquals(new QName(ServiceEndpointOperationMock.TEST_NS, "Other"), endpoint.getServiceName());
+        assertEquals("otherEndpoint", endpoint.getEndpointName());
+        assertEquals(new QName(ServiceEndpointOperationMock.TEST_NS, "Other"), exchange.getService());
+        assertEquals(new QName(ServiceEndpointOperationMock.TEST_NS, "otherOperation"), exchange.getOperation());
+    }
+
+    @Test
+    public void testEndpointUnresolved() throws Exception {
+        final ServiceEndpointOperation seo = new ServiceEndpointOperationMock(null, TEST_INTERFACE_NAME, null,
+                TEST_OPERATION_NAME, ServiceType.CONSUMES, MEPPatternConstants.IN_OUT.value());
+        pcc().addMockService(SERVICE_ID, seo, new MockSendHandler() {
+            @Override
+            public boolean isResolvable(final QName serviceName, final String endpointName) {
+                return false;
+            }
+        });
+        final PetalsExchangeTemplate template = createEndpoint(
+                SERVICE_ID + "?serviceName={tests}Other&endpointName=otherEndpoint").getExchangeTemplate();
+
+        final Exchange exchange = pcc().createExchange(SERVICE_ID);
+        final MessagingException e = assertThrows(MessagingException.class,
+                () -> template.apply(exchange, pcc().getConsumesChannel(seo)));
+        assertTrue(e.getMessage().startsWith("Can't resolve endpoint for service {tests}Other"), e.getMessage());
+        assertNull(exchange.getEndpoint());
+    }
+
+    @Test
+    public void testServiceWithoutEndpoint() throws Exception {
+        final ServiceEndpointOperation seo = addConsumes(null, null, MEPPatternConstants.IN_OUT.value());
+        final PetalsExchangeTemplate template = createEndpoint(SERVICE_ID + "?serviceName={tests}Other")
+                .getExchangeTemplate();
+
+        final Exchange exchange = pcc().createExchange(SERVICE_ID);
+        template.apply(exchange, pcc().getConsumesChannel(seo));
+
+        assertNull(exchange.getEndpoint());
+        assertEquals(new QName(ServiceEndpointOperationMock.TEST_NS, "Other"), exchange.getService());
+    }
+
+    private ServiceEndpointOperation addConsumes(final @Nullable String service, final @Nullable String endpoint,
+            final @Nullable URI mep) {
+        final ServiceEndpointOperation seo = new ServiceEndpointOperationMock(service, TEST_INTERFACE_NAME, endpoint,
+                service == null ? null : TEST_OPERATION_NAME, ServiceType.CONSUMES, mep);
+        pcc().addMockService(SERVICE_ID, seo, new MockSendHandler());
+        return seo;
+    }
+
+    private org.apache.camel.Exchange camelExchange(final ExchangePattern pattern) {
+        return new DefaultExchange(context(), pattern);
+    }
+}
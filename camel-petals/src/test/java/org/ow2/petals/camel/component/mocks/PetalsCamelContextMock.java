@@ -23,7 +23,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.StringReader;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
@@ -44,8 +46,11 @@ import org.ow2.petals.camel.PetalsCamelRoute;
 import org.ow2.petals.camel.PetalsChannel;
 import org.ow2.petals.camel.PetalsChannel.PetalsConsumesChannel;
 import org.ow2.petals.camel.PetalsChannel.PetalsProvidesChannel;
+import org.ow2.petals.camel.PetalsChannel.SendAsyncCallback;
 import org.ow2.petals.camel.ServiceEndpointOperation;
 import org.ow2.petals.camel.ServiceEndpointOperation.ServiceType;
+import org.ow2.petals.camel.component.utils.CircuitBreaker;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter;
 import org.ow2.petals.camel.exceptions.UnknownServiceException;
 import org.ow2.petals.commons.log.FlowAttributes;
 import org.ow2.petals.commons.log.Level;
@@ -259,6 +264,34 @@ public class PetalsCamelContextMock implements PetalsCamelContext {
         public void sendAsync(final Exchange exchange, final long timeout) throws MessagingException {
         }
 
+        /**
+         * Override to answer later: the exchange is answered when the given callback is called
+         */
+        public void sendAsync(final Exchange exchange, final long timeout, final SendAsyncCallback callback)
+                throws MessagingException {
+            sendAsync(exchange, timeout);
+            callback.done(exchange, false);
+        }
+
+        public List<ServiceEndpoint> resolveEndpoints(final @Nullable QName serviceName) {
+            return Collections.emptyList();
+        }
+
+        /**
+         * Override to make the resolution of the given endpoint fail
+         */
+        public boolean isResolvable(final QName serviceName, final String endpointName) {
+            return true;
+        }
+
+        public @Nullable CircuitBreaker getCircuitBreaker() {
+            return null;
+        }
+
+        public @Nullable ConcurrencyLimiter getConcurrencyLimiter() {
+            return null;
+        }
+
         public void send(final Exchange exchange) throws MessagingException {
             // do nothing
         }
@@ -266,7 +299,7 @@ public class PetalsCamelContextMock implements PetalsCamelContext {
 
     public abstract class MockChannel implements PetalsChannel {
 
-        private final MockSendHandler handler;
+        protected final MockSendHandler handler;
 
         public MockChannel(MockSendHandler handler) {
             this.handler = handler;
@@ -293,9 +326,10 @@ public class PetalsCamelContextMock implements PetalsCamelContext {
         public void sendAsync(final Exchange exchange, final long timeout, final SendAsyncCallback callback)
                 throws MessagingException {
             setRole(exchange);
-            handler.sendAsync(exchange, timeout);
-            revertRole(exchange);
-            callback.done(exchange, false);
+            handler.sendAsync(exchange, timeout, (answer, timedOut) -> {
+                revertRole(answer);
+                callback.done(answer, timedOut);
+            });
         }
 
         @Override
@@ -327,9 +361,22 @@ public class PetalsCamelContextMock implements PetalsCamelContext {
 
         @Override
         public @Nullable ServiceEndpoint resolveEndpoint(final QName serviceName, final String endpointName) {
+            if (!this.handler.isResolvable(serviceName, endpointName)) {
+                return null;
+            }
             return PetalsCamelContextMock.this.resolveEndpoint(serviceId, serviceName, endpointName);
         }
 
+        @Override
+        public List<ServiceEndpoint> resolveEndpoints(final @Nullable QName serviceName) {
+            return this.handler.resolveEndpoints(serviceName);
+        }
+
+        @Override
+        public @Nullable CircuitBreaker getCircuitBreaker() {
+            return this.handler.getCircuitBreaker();
+        }
+
         @Override
         public void setRole(Exchange exchange) {
             PetalsCamelContextMock.setRole(exchange, Role.PROVIDER);
@@ -366,6 +413,11 @@ public class PetalsCamelContextMock implements PetalsCamelContext {
         public boolean isFlowTracingActivated(final @NonNull Exchange exchange) {
             return true;
         }
+
+        @Override
+        public @Nullable ConcurrencyLimiter getConcurrencyLimiter() {
+            return this.handler.getConcurrencyLimiter();
+        }
     }
 
     @Override
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+
+import javax.jbi.messaging.MessagingException;
+
+import org.easymock.EasyMock;
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.camel.PetalsChannel;
+import org.ow2.petals.component.framework.api.message.Exchange;
+
+public class AcknowledgementSenderTest {
+
+    private static final Logger LOG = Logger.getLogger(AcknowledgementSenderTest.class.getName());
+
+    /**
+     * The tasks are only run when the test decides to
+     */
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private final RecordingChannel channel = new RecordingChannel();
+
+    @Test
+    public void testDrain() {
+        final AcknowledgementSender sender = new AcknowledgementSender(this.tasks::add, 10, LOG);
+        final Exchange first = exchange();
+        final Exchange second = exchange();
+
+        sender.acknowledge(this.channel, first);
+        sender.acknowledge(this.channel, second);
+
+        // a single task drains the queue
+        assertEquals(1, this.tasks.size());
+        assertTrue(this.channel.sent.isEmpty());
+        assertEquals(2, sender.getPending());
+
+        this.tasks.remove(0).run();
+        assertEquals(List.of(first, second), this.channel.sent);
+        assertEquals(0, sender.getPending());
+
+        // once drained, a new task is started for the next acknowledgement
+        sender.acknowledge(this.channel, exchange());
+        assertEquals(1, this.tasks.size());
+    }
+
+    @Test
+    public void testOverflow() {
+        final AcknowledgementSender sender = new AcknowledgementSender(this.tasks::add, 1, LOG);
+        final Exchange queued = exchange();
+        final Exchange overflowing = exchange();
+
+        sender.acknowledge(this.channel, queued);
+        // the queue is full: the caller sends the acknowledgement itself
+        sender.acknowledge(this.channel, overflowing);
+        assertEquals(List.of(overflowing), this.channel.sent);
+        assertEquals(List.of(Thread.currentThread()), this.channel.senders);
+        assertEquals(1, sender.getPending());
+
+        this.tasks.remove(0).run();
+        assertEquals(List.of(overflowing, queued), this.channel.sent);
+        assertEquals(0, sender.getPending());
+    }
+
+    @Test
+    public void testStoppedExecutor() {
+        final AcknowledgementSender sender = new AcknowledgementSender(task -> {
+            throw new RejectedExecutionException();
+        }, 10, LOG);
+        final Exchange exchange = exchange();
+
+        sender.acknowledge(this.channel, exchange);
+        assertEquals(List.of(exchange), this.channel.sent);
+        assertEquals(0, sender.getPending());
+    }
+
+    @Test
+    public void testFlush() throws Exception {
+        final CountDownLatch unblock = new CountDownLatch(1);
+        final RecordingChannel slowChannel = new RecordingChannel() {
+            @Override
+            public void send(final Exchange exchange) throws MessagingException {
+                try {
+                    unblock.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(exchange);
+            }
+        };
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final AcknowledgementSender sender = new AcknowledgementSender(executor, 10, LOG);
+            assertTrue(sender.flush(10));
+
+            sender.acknowledge(slowChannel, exchange());
+            sender.acknowledge(slowChannel, exchange());
+
+            // the acknowledgements can't be sent yet
+            assertFalse(sender.flush(50));
+            assertEquals(2, sender.getPending());
+
+            unblock.countDown();
+            assertTrue(sender.flush(10000));
+            assertEquals(0, sender.getPending());
+            assertEquals(2, slowChannel.sent.size());
+        } finally {
+            unblock.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static Exchange exchange() {
+        final Exchange exchange = EasyMock.createNiceMock(Exchange.class);
+        EasyMock.replay(exchange);
+        return exchange;
+    }
+
+    private static class RecordingChannel implements PetalsChannel {
+
+        protected final List<Exchange> sent = new CopyOnWriteArrayList<>();
+
+        protected final List<Thread> senders = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Logger getLogger() {
+            return LOG;
+        }
+
+        @Override
+        public boolean sendSync(final Exchange exchange, final long timeout) throws MessagingException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendAsync(final Exchange exchange, final long timeout, final SendAsyncCallback callback)
+                throws MessagingException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(final Exchange exchange) throws MessagingException {
+            this.sent.add(exchange);
+            this.senders.add(Thread.currentThread());
+        }
+    }
+}
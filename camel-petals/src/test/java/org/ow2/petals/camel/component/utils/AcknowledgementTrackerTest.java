@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class AcknowledgementTrackerTest {
+
+    @Test
+    public void testAcknowledged() {
+        final AcknowledgementTracker tracker = new AcknowledgementTracker();
+
+        tracker.track("exchange1", 10000);
+        tracker.track("exchange2", 10000);
+        assertEquals(2, tracker.getPending());
+
+        assertTrue(tracker.onAcknowledgement("exchange1", false));
+        assertTrue(tracker.onAcknowledgement("exchange2", true));
+        // the answers waited for are counted too
+        tracker.onAcknowledgement(false);
+
+        assertEquals(2, tracker.getAcknowledged());
+        assertEquals(1, tracker.getErrors());
+        assertEquals(0, tracker.getTimeouts());
+        assertEquals(0, tracker.getPending());
+    }
+
+    @Test
+    public void testTimedOutWithoutNewAnswer() throws InterruptedException {
+        final AcknowledgementTracker tracker = new AcknowledgementTracker();
+        final AtomicInteger timedOut = new AtomicInteger();
+
+        tracker.track("exchange1", 10, timedOut::incrementAndGet);
+        Thread.sleep(50);
+
+        // no other answer is tracked: reading the metrics sweeps the tracker
+        assertEquals(1, tracker.getTimeouts());
+        assertEquals(0, tracker.getPending());
+        assertEquals(1, timedOut.get());
+
+        // a late acknowledgement is not counted in addition to the timeout
+        assertFalse(tracker.onAcknowledgement("exchange1", false));
+        assertEquals(0, tracker.getAcknowledged());
+        assertEquals(1, tracker.getTimeouts());
+        assertEquals(1, timedOut.get());
+    }
+}
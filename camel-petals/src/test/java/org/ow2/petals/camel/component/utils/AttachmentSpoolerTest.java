@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.jbi.messaging.NormalizedMessage;
+
+import org.easymock.EasyMock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ow2.petals.camel.component.utils.AttachmentSpooler.SpooledDataSource;
+
+import jakarta.activation.DataHandler;
+import jakarta.activation.DataSource;
+
+public class AttachmentSpoolerTest {
+
+    @TempDir
+    public Path directory;
+
+    @Test
+    public void testSmallAttachmentKeptInMemory() throws Exception {
+        final AttachmentSpooler spooler = new AttachmentSpooler(16, Long.MAX_VALUE, this.directory);
+
+        final DataHandler spooled = spooler.spool(attachment(new byte[8]));
+
+        assertFalse(spooled.getDataSource() instanceof SpooledDataSource);
+        assertArrayEquals(new byte[8], read(spooled));
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void testLargeAttachmentSpooled() throws Exception {
+        final AttachmentSpooler spooler = new AttachmentSpooler(16, Long.MAX_VALUE, this.directory);
+        final byte[] content = new byte[64];
+        content[63] = 42;
+
+        final DataHandler spooled = spooler.spool(attachment(content));
+
+        final SpooledDataSource source = assertInstanceOf(SpooledDataSource.class, spooled.getDataSource());
+        assertEquals("test.bin", spooled.getName());
+        assertArrayEquals(content, read(spooled));
+        assertEquals(64, spooler.getSpooledBytes());
+        assertEquals(1, countFiles());
+
+        source.release();
+        assertEquals(0, spooler.getSpooledBytes());
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void testSharedAttachmentReleasedOnceTerminated() throws Exception {
+        final AttachmentSpooler spooler = new AttachmentSpooler(16, Long.MAX_VALUE, this.directory);
+
+        final DataHandler spooled = spooler.spool(attachment(new byte[64]));
+        final SpooledDataSource source = (SpooledDataSource) spooled.getDataSource();
+        spooler.share("exchange1", message(spooled));
+        spooler.share("exchange2", message(spooled));
+
+        // the Camel exchange is done with it, but not the Petals exchanges
+        source.release();
+        assertEquals(1, countFiles());
+        assertEquals(64, spooler.getSpooledBytes());
+
+        spooler.terminated("exchange1");
+        // twice does not matter
+        spooler.terminated("exchange1");
+        assertEquals(1, countFiles());
+
+        spooler.terminated("exchange2");
+        assertEquals(0, countFiles());
+        assertEquals(0, spooler.getSpooledBytes());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final AttachmentSpooler spooler = new AttachmentSpooler(16, Long.MAX_VALUE, this.directory);
+
+        final DataHandler spooled = spooler.spool(attachment(new byte[64]));
+        spooler.spool(attachment(new byte[64]));
+        spooler.share("exchange1", message(spooled));
+        assertEquals(2, countFiles());
+
+        spooler.close();
+        assertEquals(0, countFiles());
+        assertEquals(0, spooler.getSpooledBytes());
+
+        // the references left do not delete anything twice
+        ((SpooledDataSource) spooled.getDataSource()).release();
+        spooler.terminated("exchange1");
+        assertEquals(0, spooler.getSpooledBytes());
+    }
+
+    @Test
+    public void testMaxSpooledBytes() throws Exception {
+        final AttachmentSpooler spooler = new AttachmentSpooler(16, 64, this.directory);
+
+        spooler.spool(attachment(new byte[64]));
+        final DataHandler notSpooled = attachment(new byte[64]);
+
+        assertSame(notSpooled, spooler.spool(notSpooled));
+        assertEquals(1, countFiles());
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.count();
+        }
+    }
+
+    private static NormalizedMessage message(final DataHandler attachment) {
+        final NormalizedMessage message = EasyMock.createMock(NormalizedMessage.class);
+        EasyMock.expect(message.getAttachmentNames()).andStubReturn(Set.of("attachment"));
+        EasyMock.expect(message.getAttachment("attachment")).andStubReturn(attachment);
+        EasyMock.replay(message);
+        return message;
+    }
+
+    private static byte[] read(final DataHandler attachment) throws IOException {
+        try (InputStream in = attachment.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static DataHandler attachment(final byte[] content) {
+        return new DataHandler(new DataSource() {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(content);
+            }
+
+            @Override
+            public OutputStream getOutputStream() throws IOException {
+                throw new IOException("read-only");
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/octet-stream";
+            }
+
+            @Override
+            public String getName() {
+                return "test.bin";
+            }
+        });
+    }
+}
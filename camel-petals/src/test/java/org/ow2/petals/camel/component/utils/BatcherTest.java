@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class BatcherTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+
+    @AfterEach
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testFullBatch() {
+        final Batcher<Integer> batcher = new Batcher<>(3, 60000, this.scheduler, this.batches::add);
+
+        batcher.add(1);
+        batcher.add(2);
+        assertTrue(this.batches.isEmpty());
+        assertEquals(2, batcher.getPending());
+
+        batcher.add(3);
+        assertEquals(Arrays.asList(1, 2, 3), this.batches.poll());
+        assertEquals(0, batcher.getPending());
+    }
+
+    @Test
+    public void testBatchTimeout() throws Exception {
+        final Batcher<Integer> batcher = new Batcher<>(3, 50, this.scheduler, this.batches::add);
+
+        batcher.add(1);
+        assertEquals(Arrays.asList(1), this.batches.poll(5, TimeUnit.SECONDS));
+
+        // the timer of the next batch starts with its first item
+        batcher.add(2);
+        batcher.add(3);
+        assertEquals(Arrays.asList(2, 3), this.batches.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFlush() {
+        final Batcher<Integer> batcher = new Batcher<>(3, 60000, this.scheduler, this.batches::add);
+
+        batcher.flush();
+        assertTrue(this.batches.isEmpty());
+
+        batcher.add(1);
+        batcher.flush();
+        assertEquals(Arrays.asList(1), this.batches.poll());
+    }
+
+    @Test
+    public void testStoppedScheduler() {
+        final Batcher<Integer> batcher = new Batcher<>(3, 60000, this.scheduler, this.batches::add);
+        this.scheduler.shutdown();
+
+        // there is nothing to wait for
+        batcher.add(1);
+        assertEquals(Arrays.asList(1), this.batches.poll());
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.transform.stax.StAXSource;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.TypeConverter;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.camel.component.PetalsCamelComponent;
+import org.ow2.petals.jbi.xml.BytesSource;
+
+public class BytesSourceConverterTest {
+
+    private static final String DOCUMENT = "<a>b</a>";
+
+    private final CamelContext context = new DefaultCamelContext();
+
+    @BeforeEach
+    public void start() {
+        // the converters are registered by the component
+        this.context.addComponent("petals", new PetalsCamelComponent());
+        this.context.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        this.context.stop();
+    }
+
+    private BytesSource newSource() {
+        return new BytesSource(DOCUMENT.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    @Test
+    public void testRegisteredConverters() throws Exception {
+        final TypeConverter converter = this.context.getTypeConverter();
+
+        final BytesSource source = newSource();
+        // the data is not copied
+        assertEquals(source.getData(), converter.mandatoryConvertTo(byte[].class, source));
+        assertEquals(DOCUMENT, converter.mandatoryConvertTo(String.class, source));
+        assertArrayEquals(source.getData(), converter.mandatoryConvertTo(InputStream.class, source).readAllBytes());
+        assertEquals(ByteBuffer.wrap(source.getData()), converter.mandatoryConvertTo(ByteBuffer.class, source));
+        assertNotNull(converter.mandatoryConvertTo(StAXSource.class, source).getXMLStreamReader());
+    }
+
+    @Test
+    public void testCamelBytesSource() throws Exception {
+        final BytesSource source = newSource();
+        final org.apache.camel.util.xml.BytesSource camelSource = this.context.getTypeConverter()
+                .mandatoryConvertTo(org.apache.camel.util.xml.BytesSource.class, source);
+        assertEquals(source.getData(), camelSource.getData());
+
+        final BytesSource back = assertInstanceOf(BytesSource.class,
+                this.context.getTypeConverter().mandatoryConvertTo(BytesSource.class, camelSource));
+        assertEquals(source.getData(), back.getData());
+    }
+
+    @Test
+    public void testStringWithDeclaredEncoding() throws Exception {
+        final String document = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><a>\u00e9t\u00e9</a>";
+        assertEquals(document, toString(document.getBytes(StandardCharsets.ISO_8859_1)));
+
+        final String singleQuoted = "<?xml version='1.0' encoding='windows-1252'?><a>\u20ac</a>";
+        assertEquals(singleQuoted, toString(singleQuoted.getBytes(Charset.forName("windows-1252"))));
+    }
+
+    @Test
+    public void testStringWithoutDeclaredEncoding() throws Exception {
+        // UTF-8 is the default encoding of XML, whatever the charset of the exchange
+        final String document = "<?xml version=\"1.0\"?><a>\u00e9t\u00e9</a>";
+        assertEquals(document, toString(document.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("<a>\u00e9t\u00e9</a>", toString("<a>\u00e9t\u00e9</a>".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testStringWithByteOrderMark() throws Exception {
+        final String document = "<a>\u00e9t\u00e9</a>";
+        assertEquals(document, toString(withBom(new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF },
+                document.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(document, toString(withBom(new byte[] { (byte) 0xFE, (byte) 0xFF },
+                document.getBytes(StandardCharsets.UTF_16BE))));
+        assertEquals(document, toString(withBom(new byte[] { (byte) 0xFF, (byte) 0xFE },
+                document.getBytes(StandardCharsets.UTF_16LE))));
+        // no byte order mark, but the first character tells the byte order
+        assertEquals(document, toString(document.getBytes(StandardCharsets.UTF_16BE)));
+        assertEquals(document, toString(document.getBytes(StandardCharsets.UTF_16LE)));
+    }
+
+    private String toString(final byte[] data) throws Exception {
+        return this.context.getTypeConverter().mandatoryConvertTo(String.class, new BytesSource(data, null));
+    }
+
+    private static byte[] withBom(final byte[] bom, final byte[] data) {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        result.writeBytes(bom);
+        result.writeBytes(data);
+        return result.toByteArray();
+    }
+}
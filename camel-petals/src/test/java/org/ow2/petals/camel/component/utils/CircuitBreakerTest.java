@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.camel.component.utils.CircuitBreaker.Permit;
+import org.ow2.petals.camel.component.utils.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+
+    private static final Logger LOG = Logger.getLogger(CircuitBreakerTest.class.getName());
+
+    @Test
+    public void testOpensOnFailureRatio() {
+        final CircuitBreaker breaker = new CircuitBreaker("consumes", LOG, 0.5, 4, 4, 60000L);
+
+        for (int i = 0; i < 2; i++) {
+            breaker.onSuccess(acquire(breaker));
+        }
+        breaker.onFailure(acquire(breaker));
+        assertEquals(State.CLOSED, breaker.getState());
+        breaker.onFailure(acquire(breaker));
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+        assertEquals(1, breaker.getRejected());
+    }
+
+    @Test
+    public void testHalfOpen() throws InterruptedException {
+        final CircuitBreaker breaker = new CircuitBreaker("consumes", LOG, 1, 1, 1, 10L);
+
+        breaker.onFailure(acquire(breaker));
+        assertEquals(State.OPEN, breaker.getState());
+
+        Thread.sleep(20);
+
+        // only one trial is let through
+        final Permit failedTrial = acquire(breaker);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+        breaker.onFailure(failedTrial);
+        assertEquals(State.OPEN, breaker.getState());
+
+        Thread.sleep(20);
+
+        breaker.onSuccess(acquire(breaker));
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(4, breaker.getTransitions());
+    }
+
+    @Test
+    public void testReleaseTrial() throws InterruptedException {
+        final CircuitBreaker breaker = new CircuitBreaker("consumes", LOG, 1, 1, 1, 10L);
+
+        breaker.onFailure(acquire(breaker));
+
+        Thread.sleep(20);
+
+        // the trial exchange could not be sent: another one is let through
+        final Permit trial = acquire(breaker);
+        assertNull(breaker.tryAcquire());
+        breaker.release(trial);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(acquire(breaker));
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * The exchanges sent before the circuit opened are answered while it is half-open: only the trial one decides.
+     */
+    @Test
+    public void testStaleOutcomesWhileHalfOpen() throws InterruptedException {
+        final CircuitBreaker breaker = new CircuitBreaker("consumes", LOG, 1, 1, 1, 10L);
+
+        final Permit staleSuccess = acquire(breaker);
+        final Permit staleFailure = acquire(breaker);
+        breaker.onFailure(acquire(breaker));
+        assertEquals(State.OPEN, breaker.getState());
+
+        Thread.sleep(20);
+
+        final Permit trial = acquire(breaker);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+
+        breaker.onSuccess(staleSuccess);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onFailure(staleFailure);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.release(staleFailure);
+        // the trial is still in flight
+        assertNull(breaker.tryAcquire());
+
+        breaker.onSuccess(trial);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    private static Permit acquire(final CircuitBreaker breaker) {
+        final Permit permit = breaker.tryAcquire();
+        assertNotNull(permit);
+        return permit;
+    }
+}
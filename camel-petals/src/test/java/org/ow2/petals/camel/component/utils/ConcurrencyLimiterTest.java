@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter.Admission;
+
+public class ConcurrencyLimiterTest {
+
+    private static final Logger LOG = Logger.getLogger(ConcurrencyLimiterTest.class.getName());
+
+    @Test
+    public void testRejectWithoutQueue() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter("provides", LOG, 2, 0, 0, 0);
+
+        assertEquals(Admission.ADMITTED, limiter.admit(() -> {
+        }, () -> {
+        }));
+        assertEquals(Admission.ADMITTED, limiter.admit(() -> {
+        }, () -> {
+        }));
+        assertEquals(Admission.REJECTED, limiter.admit(() -> {
+        }, () -> {
+        }));
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release();
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(Admission.ADMITTED, limiter.admit(() -> {
+        }, () -> {
+        }));
+    }
+
+    @Test
+    public void testQueuedExchangeGetsThePlace() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter("provides", LOG, 1, 1, 100, 1000);
+        final AtomicInteger admitted = new AtomicInteger();
+        final AtomicInteger shed = new AtomicInteger();
+
+        assertEquals(Admission.ADMITTED, limiter.admit(admitted::incrementAndGet, shed::incrementAndGet));
+        assertEquals(Admission.QUEUED, limiter.admit(admitted::incrementAndGet, shed::incrementAndGet));
+        // the queue is full
+        assertEquals(Admission.REJECTED, limiter.admit(admitted::incrementAndGet, shed::incrementAndGet));
+
+        limiter.release();
+        assertEquals(1, admitted.get());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+
+        limiter.release();
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, shed.get());
+    }
+
+    @Test
+    public void testShedWhenWaitingTooLong() throws InterruptedException {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter("provides", LOG, 1, 10, 5, 10);
+        final AtomicInteger admitted = new AtomicInteger();
+        final AtomicInteger shed = new AtomicInteger();
+
+        assertEquals(Admission.ADMITTED, limiter.admit(admitted::incrementAndGet, shed::incrementAndGet));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Admission.QUEUED, limiter.admit(admitted::incrementAndGet, shed::incrementAndGet));
+        }
+
+        Thread.sleep(20);
+        // the first one over the target starts the interval
+        limiter.release();
+        assertEquals(1, admitted.get());
+
+        Thread.sleep(20);
+        // the time spent in the queue stayed over the target for the interval
+        limiter.release();
+        assertEquals(1, shed.get());
+        assertEquals(2, admitted.get());
+        assertEquals(1, limiter.getShed());
+        assertEquals(0, limiter.getQueued());
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.camel.Message;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.camel.component.utils.Conversions.SourceType;
+import org.ow2.petals.jbi.xml.BytesSource;
+
+public class ConversionsTest {
+
+    private static final String DOCUMENT = "<a>b</a>";
+
+    private Message newMessage() {
+        final Message message = new DefaultExchange(new DefaultCamelContext()).getIn();
+        message.setBody(DOCUMENT);
+        return message;
+    }
+
+    @Test
+    public void testConvertBodyToDOM() {
+        assertInstanceOf(DOMSource.class, Conversions.convertBody(newMessage(), SourceType.DOM));
+    }
+
+    @Test
+    public void testConvertBodyToBytes() {
+        final Source content = Conversions.convertBody(newMessage(), SourceType.BYTES);
+        final BytesSource bytes = assertInstanceOf(BytesSource.class, content);
+        assertArrayEquals(DOCUMENT.getBytes(StandardCharsets.UTF_8), bytes.getData());
+    }
+
+    @Test
+    public void testConvertBodyToStream() {
+        assertInstanceOf(StreamSource.class, Conversions.convertBody(newMessage(), SourceType.STREAM));
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+public class DeadlinesTest {
+
+    @Test
+    public void testCapWithoutDeadline() {
+        assertEquals(-1, Deadlines.cap(-1, 30000, Long.MAX_VALUE));
+        assertEquals(0, Deadlines.cap(0, 30000, Long.MAX_VALUE));
+        assertEquals(5000, Deadlines.cap(5000, 30000, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testCapWithDeadline() {
+        assertEquals(2000, Deadlines.cap(5000, 30000, 2000));
+        assertEquals(5000, Deadlines.cap(5000, 30000, 8000));
+        // the default timeout is used
+        assertEquals(2000, Deadlines.cap(-1, 30000, 2000));
+        assertEquals(30000, Deadlines.cap(-1, 30000, 40000));
+        // no timeout or unknown default timeout
+        assertEquals(2000, Deadlines.cap(0, 30000, 2000));
+        assertEquals(2000, Deadlines.cap(-1, -1, 2000));
+    }
+
+    @Test
+    public void testDeadlineReanchoredOnReceipt() {
+        final long before = System.currentTimeMillis();
+        final long deadline = Deadlines.deadline(received(5000L), 0);
+        final long after = System.currentTimeMillis();
+
+        // the time remaining is counted from the receipt, whatever the clock of the sender
+        assertTrue(deadline >= before + 5000 && deadline <= after + 5000, "deadline=" + deadline);
+
+        // reduced to the budget of the route
+        assertTrue(Deadlines.deadline(received(5000L), 1000) <= System.currentTimeMillis() + 1000);
+        assertTrue(Deadlines.deadline(received(null), 1000) <= System.currentTimeMillis() + 1000);
+
+        assertEquals(Long.MAX_VALUE, Deadlines.deadline(received(null), 0));
+    }
+
+    @Test
+    public void testPropagateRemainingTime() {
+        final Exchange camelExchange = new DefaultExchange(new DefaultCamelContext());
+        Deadlines.stamp(camelExchange, System.currentTimeMillis() + 5000);
+
+        final Capture<Object> remaining = Capture.newInstance();
+        final org.ow2.petals.component.framework.api.message.Exchange sent = EasyMock
+                .createMock(org.ow2.petals.component.framework.api.message.Exchange.class);
+        sent.setProperty(EasyMock.eq(Deadlines.JBI_PROPERTY), EasyMock.capture(remaining));
+        EasyMock.replay(sent);
+
+        Deadlines.propagate(camelExchange, sent);
+
+        EasyMock.verify(sent);
+        final long value = (Long) remaining.getValue();
+        assertTrue(value > 4000 && value <= 5000, "remaining=" + value);
+    }
+
+    private static org.ow2.petals.component.framework.api.message.Exchange received(final @Nullable Long remaining) {
+        final org.ow2.petals.component.framework.api.message.Exchange exchange = EasyMock
+                .createMock(org.ow2.petals.component.framework.api.message.Exchange.class);
+        EasyMock.expect(exchange.getProperty(Deadlines.JBI_PROPERTY)).andStubReturn(remaining);
+        EasyMock.replay(exchange);
+        return exchange;
+    }
+}
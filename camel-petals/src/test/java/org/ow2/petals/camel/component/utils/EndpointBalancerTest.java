@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.jbi.servicedesc.ServiceEndpoint;
+import javax.xml.namespace.QName;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.camel.component.utils.EndpointBalancer.Strategy;
+import org.ow2.petals.camel.component.utils.EndpointBalancer.Ticket;
+import org.w3c.dom.DocumentFragment;
+
+public class EndpointBalancerTest {
+
+    private static final QName SERVICE = new QName("tests", "Service");
+
+    private final ServiceEndpoint a = endpoint("a");
+
+    private final ServiceEndpoint b = endpoint("b");
+
+    private final ServiceEndpoint c = endpoint("c");
+
+    @Test
+    public void testNoCandidate() {
+        assertNull(new EndpointBalancer("consumes", Strategy.LEAST_OUTSTANDING).select(Collections.emptyList()));
+        assertNull(new EndpointBalancer("consumes", Strategy.NONE).select(Arrays.asList(this.a, this.b)));
+    }
+
+    @Test
+    public void testLeastOutstandingPicksTheIdleEndpoint() {
+        final EndpointBalancer balancer = new EndpointBalancer("consumes", Strategy.LEAST_OUTSTANDING);
+
+        select(balancer, this.a);
+        final Ticket ticket = select(balancer, this.c);
+
+        assertSame(this.b, select(balancer, this.a, this.b, this.c).getEndpoint());
+
+        ticket.complete(false);
+        assertSame(this.c, select(balancer, this.a, this.b, this.c).getEndpoint());
+    }
+
+    @Test
+    public void testPowerOfTwoChoicesPrefersTheFastestEndpoint() throws InterruptedException {
+        final EndpointBalancer balancer = new EndpointBalancer("consumes", Strategy.POWER_OF_TWO_CHOICES);
+
+        select(balancer, this.a).complete(false);
+        final Ticket slow = select(balancer, this.b);
+        Thread.sleep(20);
+        slow.complete(false);
+
+        // with only two candidates, both are compared each time: a stays the best one while a few exchanges are in
+        // flight on it, its latency being far below the one of b
+        for (int i = 0; i < 10; i++) {
+            assertSame(this.a, select(balancer, this.a, this.b).getEndpoint());
+        }
+    }
+
+    @Test
+    public void testPowerOfTwoChoicesWeightsTheOutstandingExchanges() {
+        final EndpointBalancer balancer = new EndpointBalancer("consumes", Strategy.POWER_OF_TWO_CHOICES);
+
+        // none answered yet: only the exchanges in flight make the difference
+        select(balancer, this.a);
+        for (int i = 0; i < 10; i++) {
+            assertSame(this.b, select(balancer, this.a, this.b).getEndpoint());
+            select(balancer, this.a);
+        }
+    }
+
+    @Test
+    public void testFailurePenalisesTheEndpoint() throws InterruptedException {
+        final EndpointBalancer balancer = new EndpointBalancer("consumes", Strategy.LEAST_OUTSTANDING);
+
+        final Ticket first = select(balancer, this.a);
+        Thread.sleep(10);
+        first.complete(false);
+        final Ticket second = select(balancer, this.b);
+        Thread.sleep(50);
+        second.complete(false);
+
+        assertSame(this.a, complete(select(balancer, this.a, this.b)).getEndpoint());
+
+        // a fails fast: without penalty its latency would decrease and it would attract the traffic
+        for (int i = 0; i < 15; i++) {
+            select(balancer, this.a).complete(true);
+        }
+
+        assertSame(this.b, select(balancer, this.a, this.b).getEndpoint());
+    }
+
+    @Test
+    public void testTicketCompletedOnce() {
+        final EndpointBalancer balancer = new EndpointBalancer("consumes", Strategy.LEAST_OUTSTANDING);
+
+        final Ticket ticket = select(balancer, this.a);
+        ticket.complete(false);
+        ticket.complete(true);
+
+        // if a were completed twice, it would have less than no exchange in flight and would be chosen over b, never
+        // answered and thus with a better latency
+        assertSame(this.b, select(balancer, this.a, this.b).getEndpoint());
+    }
+
+    private static Ticket select(final EndpointBalancer balancer, final ServiceEndpoint... candidates) {
+        final Ticket ticket = balancer.select(Arrays.asList(candidates));
+        assertNotNull(ticket);
+        return ticket;
+    }
+
+    private static Ticket complete(final Ticket ticket) {
+        ticket.complete(false);
+        return ticket;
+    }
+
+    private static ServiceEndpoint endpoint(final String name) {
+        return new ServiceEndpoint() {
+            @Override
+            public QName getServiceName() {
+                return SERVICE;
+            }
+
+            @Override
+            public QName[] getInterfaces() {
+                return new QName[0];
+            }
+
+            @Override
+            public String getEndpointName() {
+                return name;
+            }
+
+            @Override
+            public @Nullable DocumentFragment getAsReference(@Nullable QName operationName) {
+                return null;
+            }
+        };
+    }
+}
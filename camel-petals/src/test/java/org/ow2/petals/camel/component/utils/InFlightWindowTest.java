@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.camel.component.exceptions.InFlightLimitReachedException;
+import org.ow2.petals.camel.component.utils.InFlightWindow.Policy;
+
+public class InFlightWindowTest {
+
+    private static final Runnable NOTHING = () -> {
+    };
+
+    @Test
+    public void testReject() throws Exception {
+        final InFlightWindow window = new InFlightWindow("consumes", 1, Policy.REJECT, 0);
+
+        assertTrue(window.enter(NOTHING, true));
+        assertThrows(InFlightLimitReachedException.class, () -> window.enter(NOTHING, true));
+        assertEquals(1, window.getInFlight());
+
+        window.release();
+        assertEquals(0, window.getInFlight());
+        assertTrue(window.enter(NOTHING, true));
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        final InFlightWindow window = new InFlightWindow("consumes", 1, Policy.BLOCK, 0);
+        assertTrue(window.enter(NOTHING, true));
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final Thread blocked = new Thread(() -> {
+            try {
+                if (window.enter(NOTHING, true)) {
+                    entered.countDown();
+                }
+            } catch (final InterruptedException | InFlightLimitReachedException e) {
+                // the latch is not counted down
+            }
+        });
+        blocked.start();
+
+        // the caller waits as long as the window is full
+        assertFalse(entered.await(100, TimeUnit.MILLISECONDS));
+
+        window.release();
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        assertEquals(1, window.getInFlight());
+        blocked.join();
+    }
+
+    @Test
+    public void testQueueReleaseOrder() throws Exception {
+        final InFlightWindow window = new InFlightWindow("consumes", 1, Policy.QUEUE, 2);
+        final List<String> executed = new CopyOnWriteArrayList<>();
+
+        assertTrue(window.enter(NOTHING, true));
+        assertFalse(window.enter(() -> executed.add("first"), true));
+        assertFalse(window.enter(() -> executed.add("second"), true));
+        assertEquals(2, window.getParked());
+        assertTrue(executed.isEmpty());
+
+        // each parked task inherits the place of the exchange released, in the order they were parked
+        window.release();
+        assertEquals(List.of("first"), executed);
+        assertEquals(1, window.getInFlight());
+        assertEquals(1, window.getParked());
+
+        window.release();
+        assertEquals(List.of("first", "second"), executed);
+        assertEquals(1, window.getInFlight());
+        assertEquals(0, window.getParked());
+
+        window.release();
+        assertEquals(0, window.getInFlight());
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        final InFlightWindow window = new InFlightWindow("consumes", 1, Policy.QUEUE, 1);
+
+        assertTrue(window.enter(NOTHING, true));
+        assertFalse(window.enter(NOTHING, true));
+        assertThrows(InFlightLimitReachedException.class, () -> window.enter(NOTHING, true));
+        assertEquals(1, window.getParked());
+    }
+
+    @Test
+    public void testQueueWithoutParking() throws Exception {
+        final InFlightWindow window = new InFlightWindow("consumes", 1, Policy.QUEUE, 1);
+        assertTrue(window.enter(NOTHING, true));
+
+        // a synchronous caller can't be parked: it waits for its place
+        final CountDownLatch entered = new CountDownLatch(1);
+        final Thread blocked = new Thread(() -> {
+            try {
+                if (window.enter(NOTHING, false)) {
+                    entered.countDown();
+                }
+            } catch (final InterruptedException | InFlightLimitReachedException e) {
+                // the latch is not counted down
+            }
+        });
+        blocked.start();
+
+        assertFalse(entered.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(0, window.getParked());
+
+        window.release();
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        blocked.join();
+    }
+
+    @Test
+    public void testParkedTasksCompletingSynchronously() throws Exception {
+        final int parked = 100000;
+        final InFlightWindow window = new InFlightWindow("consumes", 1, Policy.QUEUE, parked);
+        final AtomicInteger executed = new AtomicInteger();
+
+        assertTrue(window.enter(NOTHING, true));
+        for (int i = 0; i < parked; i++) {
+            // as a parked exchange failing before being sent, which releases its place right away
+            assertFalse(window.enter(() -> {
+                executed.incrementAndGet();
+                window.release();
+            }, true));
+        }
+
+        // the parked tasks are run one after the other, without overflowing the stack
+        window.release();
+        assertEquals(parked, executed.get());
+        assertEquals(0, window.getInFlight());
+        assertEquals(0, window.getParked());
+    }
+
+    @Test
+    public void testParkedTasksHandedOverToTheExecutor() throws Exception {
+        final List<Runnable> dispatched = new CopyOnWriteArrayList<>();
+        final InFlightWindow window = new InFlightWindow("consumes", 1, Policy.QUEUE, 1, dispatched::add);
+        final List<String> executed = new CopyOnWriteArrayList<>();
+
+        assertTrue(window.enter(NOTHING, true));
+        assertFalse(window.enter(() -> executed.add("parked"), true));
+
+        // the releasing thread does not run the parked task, which inherits its place in the window
+        window.release();
+        assertTrue(executed.isEmpty());
+        assertEquals(1, dispatched.size());
+        assertEquals(1, window.getInFlight());
+
+        dispatched.get(0).run();
+        assertEquals(List.of("parked"), executed);
+        window.release();
+        assertEquals(0, window.getInFlight());
+    }
+
+    @Test
+    public void testParkedTaskRejectedByTheExecutor() throws Exception {
+        final InFlightWindow window = new InFlightWindow("consumes", 1, Policy.QUEUE, 1, task -> {
+            throw new RejectedExecutionException();
+        });
+        final List<String> executed = new CopyOnWriteArrayList<>();
+
+        assertTrue(window.enter(NOTHING, true));
+        assertFalse(window.enter(() -> executed.add("parked"), true));
+
+        // the task can't be lost, it holds a place in the window
+        window.release();
+        assertEquals(List.of("parked"), executed);
+        assertEquals(1, window.getInFlight());
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        final LatencyHistogram histogram = new LatencyHistogram("consumes");
+        assertEquals(0, histogram.getCount());
+        assertEquals(-1, histogram.getPercentile(95));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram("consumes");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+
+        // percentiles are known with a precision of 10%
+        final long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 50 && p50 <= 55, "p50=" + p50);
+        final long p95 = histogram.getPercentile(95);
+        assertTrue(p95 >= 95 && p95 <= 100, "p95=" + p95);
+        assertEquals(100, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testSnapshotRefresh() {
+        final LatencyHistogram histogram = new LatencyHistogram("target");
+        for (int i = 0; i < 100; i++) {
+            histogram.record(10);
+        }
+        assertEquals(100, histogram.getCount());
+
+        // a few usual latencies don't change the percentiles right away
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5);
+        }
+        assertEquals(100, histogram.getCount());
+
+        // but a slower one does
+        histogram.record(1000);
+        assertEquals(111, histogram.getCount());
+        assertEquals(1000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testConcurrentRecords() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram("target");
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(() -> {
+                    for (int j = 1; j <= 1000; j++) {
+                        histogram.record(j);
+                        histogram.getPercentile(99);
+                    }
+                    return null;
+                });
+            }
+            for (final Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the last latency recorded is the highest one, the snapshot is taken again
+        assertEquals(8000, histogram.getCount());
+        assertEquals(1000, histogram.getPercentile(100));
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.camel.component.PetalsConstants;
+
+public class PetalsPropertiesTest {
+
+    @Test
+    public void testGetOrCreate() {
+        final Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        assertNull(PetalsProperties.get(exchange, PetalsConstants.EXCHANGE_PROPERTIES));
+
+        final PetalsProperties container = PetalsProperties.getOrCreate(exchange,
+                PetalsConstants.EXCHANGE_PROPERTIES);
+        assertSame(container, PetalsProperties.get(exchange, PetalsConstants.EXCHANGE_PROPERTIES));
+        assertSame(container, PetalsProperties.getOrCreate(exchange, PetalsConstants.EXCHANGE_PROPERTIES));
+    }
+
+    @Test
+    public void testCopiedExchangesGetTheirOwnContainer() {
+        final Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        final PetalsProperties container = PetalsProperties.getOrCreate(exchange,
+                PetalsConstants.EXCHANGE_PROPERTIES);
+        container.set("foo", "bar");
+
+        final Exchange copy = exchange.copy();
+        final PetalsProperties copied = PetalsProperties.get(copy, PetalsConstants.EXCHANGE_PROPERTIES);
+        assertNotSame(container, copied);
+        assert copied != null;
+        assertEquals("bar", copied.get("foo"));
+
+        copied.set("foo", null);
+        assertNull(copied.get("foo"));
+        assertEquals("bar", container.get("foo"));
+    }
+
+    @Test
+    public void testFold() {
+        final Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        final PetalsProperties container = PetalsProperties.getOrCreate(exchange,
+                PetalsConstants.EXCHANGE_PROPERTIES);
+        container.set("foo", "bar");
+        container.set("kept", "value");
+        exchange.setProperty(PetalsConstants.EXCHANGE_PROPERTY_PREFIX + "foo", "baz");
+        exchange.setProperty(PetalsConstants.EXCHANGE_PROPERTY_PREFIX + "added", "new");
+        exchange.setProperty("other", "unrelated");
+
+        container.fold(exchange, PetalsConstants.EXCHANGE_PROPERTY_PREFIX);
+
+        assertEquals("baz", container.get("foo"));
+        assertEquals("value", container.get("kept"));
+        assertEquals("new", container.get("added"));
+        assertNull(container.get("other"));
+        assertNull(exchange.getProperty(PetalsConstants.EXCHANGE_PROPERTY_PREFIX + "foo"));
+        assertNull(exchange.getProperty(PetalsConstants.EXCHANGE_PROPERTY_PREFIX + "added"));
+        assertEquals("unrelated", exchange.getProperty("other"));
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.namespace.QName;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.util.xml.BytesSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+import org.ow2.petals.camel.component.PetalsConstants;
+import org.ow2.petals.camel.component.exceptions.CollapsedRequestException;
+import org.ow2.petals.camel.component.exceptions.TimeoutException;
+
+public class RequestCollapserTest {
+
+    private static final QName OPERATION = new QName("http://petals.ow2.org", "op");
+
+    private static final ExchangeTarget TARGET = new ExchangeTarget(new QName("http://petals.ow2.org", "Interface"),
+            new QName("http://petals.ow2.org", "Service"), null, OPERATION);
+
+    private final CamelContext context = new DefaultCamelContext();
+
+    /**
+     * The completions of the asynchronous waiters, run by the tests
+     */
+    private final List<Runnable> dispatched = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final RequestCollapser collapser = new RequestCollapser("consumes", this.dispatched::add,
+            () -> this.scheduler);
+
+    /**
+     * The callback of the request actually sent
+     */
+    private final AtomicReference<AsyncCallback> sent = new AtomicReference<>();
+
+    private final AtomicInteger sends = new AtomicInteger();
+
+    @AfterEach
+    public void shutdownScheduler() {
+        this.scheduler.shutdownNow();
+    }
+
+    private void runDispatched() {
+        for (final Runnable task : this.dispatched) {
+            task.run();
+        }
+        this.dispatched.clear();
+    }
+
+    private Exchange newExchange(final String request) {
+        final Exchange exchange = new DefaultExchange(this.context);
+        exchange.getIn().setBody(new BytesSource(request.getBytes(StandardCharsets.UTF_8)));
+        return exchange;
+    }
+
+    private RequestKey key(final Exchange exchange) {
+        final RequestKey key = RequestKey.of(exchange, TARGET, MEPPatternConstants.IN_OUT);
+        assertNotNull(key);
+        return key;
+    }
+
+    private boolean send(final Exchange exchange, final AsyncCallback callback) {
+        this.sends.incrementAndGet();
+        this.sent.set(callback);
+        return false;
+    }
+
+    private void answer(final Exchange leader, final String response) {
+        leader.getMessage().setBody(new BytesSource(response.getBytes(StandardCharsets.UTF_8)));
+        // as set by Conversions from the properties of the JBI response
+        leader.getMessage().setHeader("answerProperty", "value");
+        leader.setProperty(PetalsConstants.EXCHANGE_ANSWER_HEADERS, Set.of("answerProperty"));
+        this.sent.get().done(false);
+    }
+
+    @Test
+    public void testFanOut() {
+        final Exchange leader = newExchange("<a/>");
+        leader.getIn().setHeader("Authorization", "alice");
+        final AtomicInteger leaderDone = new AtomicInteger();
+        assertFalse(this.collapser.process(leader, key(leader), false, 0, doneSync -> leaderDone.incrementAndGet(),
+                this::send));
+
+        final Exchange waiter = newExchange("<a/>");
+        waiter.getIn().setHeader("Authorization", "bob");
+        final AtomicInteger waiterDone = new AtomicInteger();
+        assertFalse(this.collapser.process(waiter, key(waiter), false, 0, doneSync -> waiterDone.incrementAndGet(),
+                this::send));
+        assertEquals(1, this.sends.get());
+        assertEquals(0, waiterDone.get());
+
+        answer(leader, "<b/>");
+
+        // the waiter is not completed by the thread handling the answer
+        assertEquals(1, leaderDone.get());
+        assertEquals(0, waiterDone.get());
+        assertEquals(1, this.dispatched.size());
+        runDispatched();
+        assertEquals(1, waiterDone.get());
+        assertEquals(1, this.collapser.getCollapsed());
+        final BytesSource body = assertInstanceOf(BytesSource.class, waiter.getMessage().getBody());
+        assertArrayEquals("<b/>".getBytes(StandardCharsets.UTF_8), body.getData());
+        assertEquals("value", waiter.getMessage().getHeader("answerProperty"));
+        assertEquals("bob", waiter.getMessage().getHeader("Authorization"));
+
+        // the flight is over, the next identical request is sent
+        final Exchange next = newExchange("<a/>");
+        this.collapser.process(next, key(next), false, 0, doneSync -> {
+        }, this::send);
+        assertEquals(2, this.sends.get());
+    }
+
+    @Test
+    public void testDifferentTargetsNotCollapsed() {
+        final Exchange first = newExchange("<a/>");
+        this.collapser.process(first, key(first), false, 0, doneSync -> {
+        }, this::send);
+
+        // the same payload sent to another endpoint of the service may get another answer
+        final Exchange other = newExchange("<a/>");
+        final RequestKey otherKey = RequestKey.of(other, new ExchangeTarget(TARGET.getInterfaceName(),
+                TARGET.getService(), "otherEndpoint", OPERATION), MEPPatternConstants.IN_OUT);
+        assertNotNull(otherKey);
+        this.collapser.process(other, otherKey, false, 0, doneSync -> {
+        }, this::send);
+
+        assertEquals(2, this.sends.get());
+        assertEquals(0, this.collapser.getCollapsed());
+    }
+
+    @Test
+    public void testLeaderFailure() {
+        final Exchange leader = newExchange("<a/>");
+        this.collapser.process(leader, key(leader), false, 0, doneSync -> {
+        }, this::send);
+
+        final Exchange waiter1 = newExchange("<a/>");
+        this.collapser.process(waiter1, key(waiter1), false, 0, doneSync -> {
+        }, this::send);
+        final Exchange waiter2 = newExchange("<a/>");
+        this.collapser.process(waiter2, key(waiter2), false, 0, doneSync -> {
+        }, this::send);
+
+        final Exception error = new Exception("error");
+        leader.setException(error);
+        this.sent.get().done(false);
+        runDispatched();
+
+        assertSame(error, leader.getException());
+        final CollapsedRequestException e1 = assertInstanceOf(CollapsedRequestException.class,
+                waiter1.getException());
+        final CollapsedRequestException e2 = assertInstanceOf(CollapsedRequestException.class,
+                waiter2.getException());
+        assertNotSame(e1, e2);
+        assertSame(error, e1.getCause());
+        assertSame(error, e2.getCause());
+        assertNull(waiter1.getMessage().getHeader("answerProperty"));
+        assertTrue(waiter1.isFailed());
+    }
+
+    @Test
+    public void testSynchronousWaiter() throws Exception {
+        final Exchange leader = newExchange("<a/>");
+        this.collapser.process(leader, key(leader), false, 0, doneSync -> {
+        }, this::send);
+
+        final Exchange waiter = newExchange("<a/>");
+        final CompletableFuture<Boolean> processed = CompletableFuture
+                .supplyAsync(() -> this.collapser.process(waiter, key(waiter), true, 60000L, doneSync -> {
+                }, this::send));
+        while (this.collapser.getCollapsed() == 0) {
+            Thread.sleep(10);
+        }
+        assertFalse(processed.isDone());
+
+        answer(leader, "<b/>");
+
+        assertTrue(processed.get(10, TimeUnit.SECONDS));
+        assertNull(waiter.getException());
+        assertEquals("value", waiter.getMessage().getHeader("answerProperty"));
+    }
+
+    @Test
+    public void testWaiterTimeout() {
+        final Exchange leader = newExchange("<a/>");
+        this.collapser.process(leader, key(leader), false, 0, doneSync -> {
+        }, this::send);
+
+        final Exchange waiter = newExchange("<a/>");
+        final AtomicInteger waiterDone = new AtomicInteger();
+        assertTrue(this.collapser.process(waiter, key(waiter), true, 50L, doneSync -> waiterDone.incrementAndGet(),
+                this::send));
+        assertEquals(1, waiterDone.get());
+        assertInstanceOf(TimeoutException.class, waiter.getException());
+
+        // the answer arriving late is not copied to the waiter anymore
+        answer(leader, "<b/>");
+        assertNull(waiter.getMessage().getHeader("answerProperty"));
+        assertEquals(1, waiterDone.get());
+    }
+
+    @Test
+    public void testAsynchronousWaiterTimeout() throws Exception {
+        final Exchange leader = newExchange("<a/>");
+        this.collapser.process(leader, key(leader), false, 0, doneSync -> {
+        }, this::send);
+
+        final Exchange waiter = newExchange("<a/>");
+        final CountDownLatch waiterDone = new CountDownLatch(1);
+        assertFalse(this.collapser.process(waiter, key(waiter), false, 50L, doneSync -> waiterDone.countDown(),
+                this::send));
+
+        // the timeout hands the waiter over to the executor
+        while (this.dispatched.isEmpty()) {
+            Thread.sleep(10);
+        }
+        runDispatched();
+        assertTrue(waiterDone.await(10, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, waiter.getException());
+
+        // the answer arriving late is not copied to the waiter anymore
+        answer(leader, "<b/>");
+        assertTrue(this.dispatched.isEmpty());
+        assertNull(waiter.getMessage().getHeader("answerProperty"));
+    }
+}
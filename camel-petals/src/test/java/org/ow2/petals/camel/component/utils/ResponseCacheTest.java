@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.camel.component.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.util.xml.BytesSource;
+import org.junit.jupiter.api.Test;
+import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
+import org.ow2.petals.camel.component.PetalsConstants;
+
+public class ResponseCacheTest {
+
+    private static final QName OPERATION = new QName("http://petals.ow2.org", "op");
+
+    private static final ExchangeTarget TARGET = new ExchangeTarget(new QName("http://petals.ow2.org", "Interface"),
+            new QName("http://petals.ow2.org", "Service"), null, OPERATION);
+
+    private final CamelContext context = new DefaultCamelContext();
+
+    private Exchange newExchange(final String request) {
+        final Exchange exchange = new DefaultExchange(this.context);
+        exchange.getIn().setBody(new BytesSource(request.getBytes(StandardCharsets.UTF_8)));
+        return exchange;
+    }
+
+    private RequestKey key(final Exchange exchange) {
+        final RequestKey key = RequestKey.of(exchange, TARGET, MEPPatternConstants.IN_OUT);
+        assertNotNull(key);
+        return key;
+    }
+
+    private Exchange answer(final Exchange exchange, final String response) {
+        exchange.getMessage().setBody(new BytesSource(response.getBytes(StandardCharsets.UTF_8)));
+        return exchange;
+    }
+
+    @Test
+    public void testReplay() {
+        final ResponseCache cache = new ResponseCache("consumes", 60000L, 10, 0);
+
+        final Exchange first = newExchange("<a/>");
+        final RequestKey key = key(first);
+        assertFalse(cache.replay(key, first));
+        cache.store(key, answer(first, "<b/>"));
+
+        final Exchange second = newExchange("<a/>");
+        assertTrue(cache.replay(key(second), second));
+        final BytesSource body = assertInstanceOf(BytesSource.class, second.getMessage().getBody());
+        assertArrayEquals("<b/>".getBytes(StandardCharsets.UTF_8), body.getData());
+
+        final Exchange other = newExchange("<c/>");
+        assertFalse(cache.replay(key(other), other));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testOnlyAnswerHeadersAreReplayed() {
+        final ResponseCache cache = new ResponseCache("consumes", 60000L, 10, 0);
+
+        final Exchange first = newExchange("<a/>");
+        first.getIn().setHeader("Authorization", "alice");
+        first.getIn().setHeader("CorrelationId", "1");
+        final RequestKey key = key(first);
+        answer(first, "<b/>");
+        // as set by Conversions from the properties of the JBI response
+        first.getMessage().setHeader("answerProperty", "value");
+        first.setProperty(PetalsConstants.EXCHANGE_ANSWER_HEADERS, Set.of("answerProperty"));
+        cache.store(key, first);
+
+        final Exchange second = newExchange("<a/>");
+        second.getIn().setHeader("Authorization", "bob");
+        assertTrue(cache.replay(key(second), second));
+
+        assertEquals("bob", second.getMessage().getHeader("Authorization"));
+        assertNull(second.getMessage().getHeader("CorrelationId"));
+        assertEquals("value", second.getMessage().getHeader("answerProperty"));
+    }
+
+    @Test
+    public void testOtherTargetIsNotReplayed() {
+        final ResponseCache cache = new ResponseCache("consumes", 60000L, 10, 0);
+
+        final Exchange first = newExchange("<a/>");
+        cache.store(key(first), answer(first, "<b/>"));
+
+        // the same payload sent to another service of the same interface
+        final Exchange other = newExchange("<a/>");
+        final RequestKey otherKey = RequestKey.of(other, new ExchangeTarget(TARGET.getInterfaceName(),
+                new QName("http://petals.ow2.org", "OtherService"), null, OPERATION), MEPPatternConstants.IN_OUT);
+        assertNotNull(otherKey);
+        assertFalse(cache.replay(otherKey, other));
+    }
+
+    @Test
+    public void testFaultsAndErrorsAreNotCached() {
+        final ResponseCache cache = new ResponseCache("consumes", 60000L, 10, 0);
+
+        final Exchange fault = newExchange("<a/>");
+        answer(fault, "<fault/>").getMessage().setHeader(PetalsConstants.MESSAGE_FAULT_HEADER, true);
+        cache.store(key(fault), fault);
+
+        final Exchange error = newExchange("<b/>");
+        error.setException(new Exception("error"));
+        cache.store(key(error), error);
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        final ResponseCache cache = new ResponseCache("consumes", 60000L, 2, 0);
+
+        final Exchange a = newExchange("<a/>");
+        cache.store(key(a), answer(a, "<ra/>"));
+        final Exchange b = newExchange("<b/>");
+        cache.store(key(b), answer(b, "<rb/>"));
+
+        // a becomes the most recently used
+        final Exchange a2 = newExchange("<a/>");
+        assertTrue(cache.replay(key(a2), a2));
+
+        final Exchange c = newExchange("<c/>");
+        cache.store(key(c), answer(c, "<rc/>"));
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        final Exchange b2 = newExchange("<b/>");
+        assertFalse(cache.replay(key(b2), b2));
+        final Exchange a3 = newExchange("<a/>");
+        assertTrue(cache.replay(key(a3), a3));
+    }
+
+    @Test
+    public void testSegmentsKeepTheLimits() {
+        final ResponseCache cache = new ResponseCache("consumes", 60000L, 1000, 4000);
+
+        for (int i = 0; i < 3000; i++) {
+            final Exchange exchange = newExchange("<a" + i + "/>");
+            cache.store(key(exchange), answer(exchange, "<r" + i + "/>"));
+        }
+
+        // the limits are shared between the segments
+        final int size = cache.getSize();
+        assertTrue(size <= 1000, "size: " + size);
+        assertEquals(3000 - size, cache.getEvictions());
+
+        final Exchange last = newExchange("<a2999/>");
+        assertTrue(cache.replay(key(last), last));
+    }
+}
@@ -29,6 +29,7 @@ import org.ow2.petals.component.framework.AbstractComponent;
 import org.ow2.petals.component.framework.api.message.Exchange;
 import org.ow2.petals.component.framework.listener.AbstractJBIListener;
 import org.ow2.petals.component.framework.process.async.AsyncContext;
+import org.ow2.petals.se.camel.exceptions.NotImplementedRouteException;
 import org.ow2.petals.se.camel.impl.PetalsCamelAsyncContext;
 
 /**
@@ -90,6 +91,10 @@ public class CamelJBIListener extends AbstractJBIListener {
                     logger.log(Level.SEVERE, logHint + " encountered a problem.", e);
                     exchange.setError(e);
                 }
+            } else if (isExpectedAcknowledgement(exchange)) {
+                // the acknowledgement of an answer that our camel consumer sent without waiting for it
+                logger.fine(logHint + " acknowledged an answer sent without waiting for it");
+                return false;
             } else if (exchange.isErrorStatus()) {
                 logger.warning(logHint + " received with a status 'ERROR', this shouldn't happen here. Skipped!");
             } else if (exchange.isDoneStatus()) {
@@ -103,6 +108,14 @@ public class CamelJBIListener extends AbstractJBIListener {
         }
     }
 
+    private boolean isExpectedAcknowledgement(final Exchange exchange) {
+        try {
+            return getCamelSE().getCamelSUManager().getRoute(exchange).acknowledged(exchange);
+        } catch (final NotImplementedRouteException e) {
+            return false;
+        }
+    }
+
     @NonNullByDefault(false)
     @Override
     public boolean onAsyncJBIMessage(final Exchange exchange, final AsyncContext asyncContext) {
@@ -28,18 +28,22 @@ import java.util.logging.Logger;
 import org.apache.camel.CamelContext;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.engine.PooledExchangeFactory;
 import org.apache.camel.model.ModelCamelContext;
+import org.eclipse.jdt.annotation.Nullable;
 import org.ow2.petals.camel.PetalsCamelContext;
 import org.ow2.petals.camel.PetalsCamelRoute;
 import org.ow2.petals.camel.PetalsChannel.PetalsConsumesChannel;
 import org.ow2.petals.camel.PetalsChannel.PetalsProvidesChannel;
 import org.ow2.petals.camel.ServiceEndpointOperation;
+import org.ow2.petals.camel.component.PetalsCamelComponent;
 import org.ow2.petals.camel.exceptions.UnknownServiceException;
 import org.ow2.petals.camel.helpers.PetalsRouteBuilder;
 import org.ow2.petals.component.framework.api.monitoring.MonitTraceLogger;
 import org.ow2.petals.component.framework.api.util.Placeholders;
 import org.ow2.petals.se.camel.exceptions.InvalidCamelRouteDefinitionException;
 import org.ow2.petals.se.camel.exceptions.PetalsCamelSEException;
+import org.ow2.petals.se.camel.impl.ResolvedEndpointCache;
 import org.ow2.petals.se.camel.impl.ServiceEndpointOperationConsumes;
 import org.ow2.petals.se.camel.impl.ServiceEndpointOperationProvides;
 import org.ow2.petals.se.camel.utils.CamelRoutesHelper;
@@ -78,20 +82,33 @@ public class CamelSU implements PetalsCamelContext {
 
     private final MonitTraceLogger monitTraceLogger;
 
+    /**
+     * The endpoints resolved by the consumes of this SU
+     */
+    private final ResolvedEndpointCache resolvedEndpoints;
+
     public CamelSU(final ImmutableMap<String, ServiceEndpointOperation> sid2seo, final ImmutableList<String> classNames,
             final ImmutableList<String> xmlNames, final URLClassLoader classLoader, final Logger suLogger,
-            final CamelSUManager manager, final MonitTraceLogger monitTraceLogger) throws PetalsCamelSEException {
+            final CamelSUManager manager, final MonitTraceLogger monitTraceLogger,
+            final ResolvedEndpointCache resolvedEndpoints, final boolean pooledExchanges)
+            throws PetalsCamelSEException {
         this.classLoader = classLoader;
         this.sid2seo = sid2seo;
         this.manager = manager;
         this.suLogger = suLogger;
         this.monitTraceLogger = monitTraceLogger;
+        this.resolvedEndpoints = resolvedEndpoints;
 
         this.context = new DefaultCamelContext();
 
         this.context.getShutdownStrategy().setTimeout(10);
         this.context.getShutdownStrategy().setTimeUnit(TimeUnit.SECONDS);
 
+        if (pooledExchanges) {
+            // the exchanges created by the consumers of the routes are recycled once they are released
+            this.context.getCamelContextExtension().setExchangeFactory(new PooledExchangeFactory());
+        }
+
         // needed so that routes are executed with the correct context classloader
         // (for example JAXB uses it to load classes)
         this.context.setApplicationContextClassLoader(classLoader);
@@ -179,6 +196,12 @@ public class CamelSU implements PetalsCamelContext {
      * Execute actions to do on stop of the route definitions. Only for Camel routes based on {@link PetalsRouteBuilder}
      */
     public void stop() throws PetalsCamelSEException {
+        // the exchanges in flight are answered before the SU is stopped, the new ones are answered with an error
+        final PetalsCamelComponent component = getPetalsComponent();
+        if (component != null) {
+            component.suspendAndDrainConsumers();
+        }
+
         for (final RouteBuilder routeBuilder : this.classRoutes) {
             assert routeBuilder != null;
             if (routeBuilder instanceof PetalsRouteBuilder) {
@@ -189,6 +212,15 @@ public class CamelSU implements PetalsCamelContext {
                 }
             }
         }
+
+        // the acknowledgements still pending must be sent before the SU is stopped
+        if (component != null) {
+            component.flushAcknowledgements();
+        }
+    }
+
+    private @Nullable PetalsCamelComponent getPetalsComponent() {
+        return this.context.hasComponent("petals") instanceof PetalsCamelComponent component ? component : null;
     }
 
     /**
@@ -206,6 +238,12 @@ public class CamelSU implements PetalsCamelContext {
                 }
             }
         }
+
+        // the routes suspended by a previous stop of the SU process exchanges again
+        final PetalsCamelComponent component = getPetalsComponent();
+        if (component != null) {
+            component.resumeConsumers();
+        }
     }
 
     /**
@@ -230,6 +268,10 @@ public class CamelSU implements PetalsCamelContext {
             getLogger().log(Level.SEVERE, "Can't stop the Camel context of the SU", e);
         }
 
+        if (getLogger().isLoggable(Level.FINE)) {
+            getLogger().fine("Endpoint resolutions of the SU: " + this.resolvedEndpoints);
+        }
+
         try {
             this.classLoader.close();
         } catch (final IOException e) {
@@ -286,6 +328,10 @@ public class CamelSU implements PetalsCamelContext {
         return (PetalsProvidesChannel) seo;
     }
 
+    public ResolvedEndpointCache getResolvedEndpoints() {
+        return this.resolvedEndpoints;
+    }
+
     @Override
     public CamelContext getCamelContext() {
         return this.context;
@@ -101,8 +101,10 @@ public class CamelSUManager extends ServiceEngineServiceUnitManager {
             throw new PetalsCamelSEException("Error when getting logger for SU " + serviceUnitName, e);
         }
 
+        final PetalsCamelSender sender = new PetalsCamelSender(getComponent(), suLogger);
+
         final Map<String, ServiceEndpointOperation> sid2seo = PetalsCamelJBIHelper
-                .extractServicesIdAndEndpointOperations(suDH, new PetalsCamelSender(getComponent(), suLogger));
+                .extractServicesIdAndEndpointOperations(suDH, sender);
 
         final List<String> classNames = Lists.newArrayList();
         final List<String> xmlNames = Lists.newArrayList();
@@ -116,7 +118,8 @@ public class CamelSUManager extends ServiceEngineServiceUnitManager {
         assert classLoader != null;
 
         return new CamelSU(ImmutableMap.copyOf(sid2seo), ImmutableList.copyOf(classNames),
-                ImmutableList.copyOf(xmlNames), classLoader, suLogger, this, this.getComponent());
+                ImmutableList.copyOf(xmlNames), classLoader, suLogger, this, this.getComponent(),
+                sender.getResolvedEndpoints(), PetalsCamelJBIHelper.isPooledExchanges(services));
     }
 
     @NonNullByDefault(false)
@@ -148,15 +151,27 @@ public class CamelSUManager extends ServiceEngineServiceUnitManager {
     @NonNullByDefault(false)
     @Override
     protected void doStart(final ServiceUnitDataHandler suDH) throws PEtALSCDKException {
+        // the routes suspended by a previous stop are resumed
         this.su2camel.get(suDH.getName()).start();
-        // TODO handle resume/suspend
+        invalidateResolvedEndpoints();
     }
 
     @NonNullByDefault(false)
     @Override
     protected void doStop(final ServiceUnitDataHandler suDH) throws PEtALSCDKException {
-        // TODO handle resume/suspend
+        // the routes are suspended and their exchanges in flight drained
         this.su2camel.get(suDH.getName()).stop();
+        invalidateResolvedEndpoints();
+    }
+
+    /**
+     * Endpoints are activated or deactivated when a SU is started or stopped: the endpoints resolved by the SUs must
+     * be resolved again.
+     */
+    private void invalidateResolvedEndpoints() {
+        for (final CamelSU camelSu : this.su2camel.values()) {
+            camelSu.getResolvedEndpoints().invalidateAll();
+        }
     }
 
     public void registerRoute(final ServiceEndpointOperation service, final PetalsCamelRoute route) {
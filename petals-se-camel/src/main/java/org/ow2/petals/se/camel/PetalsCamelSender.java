@@ -20,6 +20,7 @@ package org.ow2.petals.se.camel;
 import java.util.logging.Logger;
 
 import org.ow2.petals.component.framework.listener.AbstractListener;
+import org.ow2.petals.se.camel.impl.ResolvedEndpointCache;
 
 /**
  * This is needed to send messages.
@@ -33,9 +34,24 @@ public class PetalsCamelSender extends AbstractListener {
 
     private final Logger suLogger;
 
+    private final ResolvedEndpointCache resolvedEndpoints;
+
     public PetalsCamelSender(final CamelSE component, final Logger suLogger) {
         this.suLogger = suLogger;
         init(component);
+        this.resolvedEndpoints = new ResolvedEndpointCache(
+                (serviceName, endpointName) -> getComponent().getContext().getEndpoint(serviceName, endpointName),
+                (interfaceName, serviceName) -> serviceName != null
+                        ? getComponent().getContext().getEndpointsForService(serviceName)
+                        : getComponent().getContext().getEndpoints(interfaceName),
+                ResolvedEndpointCache.DEFAULT_NEGATIVE_TTL, ResolvedEndpointCache.DEFAULT_CANDIDATES_TTL);
+    }
+
+    /**
+     * The endpoints resolved by the consumes of the SU
+     */
+    public ResolvedEndpointCache getResolvedEndpoints() {
+        return this.resolvedEndpoints;
     }
 
     @Override
@@ -0,0 +1,274 @@
+/**
+ * Copyright (c) 2026 Linagora
+ *
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.se.camel.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import javax.jbi.servicedesc.ServiceEndpoint;
+import javax.xml.namespace.QName;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Cache of the endpoints resolved from a service name and an endpoint name, shared by all the consumes of a SU.
+ *
+ * A resolved endpoint is kept until the cache is invalidated, i.e. when the endpoint registry changes (a SU is started
+ * or stopped) or when a send to this endpoint fails. An unknown endpoint is kept only for a short time (the negative
+ * TTL) so that exchanges to it fail fast without flooding the endpoint registry.
+ *
+ * The candidate endpoints of a service or an interface are also kept, for client-side load balancing, but only for a
+ * limited time since endpoints registered by other containers do not invalidate the cache.
+ */
+public class ResolvedEndpointCache {
+
+    /**
+     * Default time (in milliseconds) during which an unknown endpoint is remembered as unknown
+     */
+    public static final long DEFAULT_NEGATIVE_TTL = 1000L;
+
+    /**
+     * Default time (in milliseconds) during which the candidate endpoints of a service or an interface are remembered
+     */
+    public static final long DEFAULT_CANDIDATES_TTL = 30000L;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<CandidatesKey, CandidatesEntry> candidates = new ConcurrentHashMap<>();
+
+    private final BiFunction<QName, String, ServiceEndpoint> resolver;
+
+    private final BiFunction<QName, QName, ServiceEndpoint[]> candidatesResolver;
+
+    private final long negativeTTL;
+
+    private final long candidatesTTL;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param resolver
+     *            the actual resolution against the endpoint registry
+     * @param negativeTTL
+     *            the time (in milliseconds) during which an unknown endpoint is remembered as unknown, if less or equal
+     *            to 0 then unknown endpoints are never cached
+     */
+    public ResolvedEndpointCache(final BiFunction<QName, String, ServiceEndpoint> resolver,
+            final long negativeTTL) {
+        this(resolver, (interfaceName, serviceName) -> new ServiceEndpoint[0], negativeTTL, 0);
+    }
+
+    /**
+     * @param resolver
+     *            the actual resolution against the endpoint registry
+     * @param candidatesResolver
+     *            the actual resolution of all the endpoints of an interface (first parameter) or of a service (second
+     *            parameter, if not {@code null}) against the endpoint registry
+     * @param negativeTTL
+     *            the time (in milliseconds) during which an unknown endpoint is remembered as unknown, if less or equal
+     *            to 0 then unknown endpoints are never cached
+     * @param candidatesTTL
+     *            the time (in milliseconds) during which the candidate endpoints are remembered, so that endpoints
+     *            registered by other containers are eventually seen, if less or equal to 0 then they are never cached
+     */
+    public ResolvedEndpointCache(final BiFunction<QName, String, ServiceEndpoint> resolver,
+            final BiFunction<QName, QName, ServiceEndpoint[]> candidatesResolver, final long negativeTTL,
+            final long candidatesTTL) {
+        this.resolver = resolver;
+        this.candidatesResolver = candidatesResolver;
+        this.negativeTTL = negativeTTL;
+        this.candidatesTTL = candidatesTTL;
+    }
+
+    public @Nullable ServiceEndpoint resolve(final QName serviceName, final String endpointName) {
+        final Key key = new Key(serviceName, endpointName);
+
+        final Entry cached = this.entries.get(key);
+        if (cached != null && cached.isValid()) {
+            this.hits.increment();
+            return cached.endpoint;
+        }
+
+        this.misses.increment();
+        final ServiceEndpoint resolved = this.resolver.apply(serviceName, endpointName);
+        if (resolved != null) {
+            this.entries.put(key, new Entry(resolved, Long.MAX_VALUE));
+        } else if (this.negativeTTL > 0) {
+            this.entries.put(key, new Entry(null, System.currentTimeMillis() + this.negativeTTL));
+        } else {
+            this.entries.remove(key);
+        }
+        return resolved;
+    }
+
+    /**
+     * @return all the endpoints implementing the given service if not {@code null}, else the given interface
+     */
+    public List<ServiceEndpoint> resolveAll(final QName interfaceName, final @Nullable QName serviceName) {
+        final CandidatesKey key = new CandidatesKey(interfaceName, serviceName);
+
+        final CandidatesEntry cached = this.candidates.get(key);
+        if (cached != null && System.currentTimeMillis() < cached.expiresAt) {
+            this.hits.increment();
+            return cached.endpoints;
+        }
+
+        this.misses.increment();
+        final ServiceEndpoint[] resolved = this.candidatesResolver.apply(interfaceName, serviceName);
+        final List<ServiceEndpoint> endpoints = resolved == null ? Collections.emptyList()
+                : Collections.unmodifiableList(Arrays.asList(resolved.clone()));
+        if (this.candidatesTTL > 0) {
+            this.candidates.put(key, new CandidatesEntry(endpoints, System.currentTimeMillis() + this.candidatesTTL));
+        }
+        return endpoints;
+    }
+
+    /**
+     * Forget the resolution of the given endpoint, for example because a send to it failed.
+     */
+    public void invalidate(final ServiceEndpoint endpoint) {
+        final QName serviceName = endpoint.getServiceName();
+        final String endpointName = endpoint.getEndpointName();
+        if (serviceName != null && endpointName != null) {
+            this.entries.remove(new Key(serviceName, endpointName));
+            this.candidates.values().removeIf(entry -> entry.endpoints.stream()
+                    .anyMatch(candidate -> serviceName.equals(candidate.getServiceName())
+                            && endpointName.equals(candidate.getEndpointName())));
+        }
+    }
+
+    /**
+     * Forget all the resolutions, to be called when the endpoint registry changes.
+     */
+    public void invalidateAll() {
+        this.entries.clear();
+        this.candidates.clear();
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ResolvedEndpointCache [size=" + this.entries.size() + ", hits=" + getHits() + ", misses="
+                + getMisses() + "]";
+    }
+
+    private static final class Key {
+
+        private final QName serviceName;
+
+        private final String endpointName;
+
+        private final int hash;
+
+        private Key(final QName serviceName, final String endpointName) {
+            this.serviceName = serviceName;
+            this.endpointName = endpointName;
+            this.hash = Objects.hash(serviceName, endpointName);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final @Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key other)) {
+                return false;
+            }
+            return this.serviceName.equals(other.serviceName) && this.endpointName.equals(other.endpointName);
+        }
+    }
+
+    private static final class CandidatesKey {
+
+        private final QName interfaceName;
+
+        @Nullable
+        private final QName serviceName;
+
+        private CandidatesKey(final QName interfaceName, final @Nullable QName serviceName) {
+            this.interfaceName = interfaceName;
+            this.serviceName = serviceName;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.interfaceName, this.serviceName);
+        }
+
+        @Override
+        public boolean equals(final @Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CandidatesKey other)) {
+                return false;
+            }
+            return this.interfaceName.equals(other.interfaceName)
+                    && Objects.equals(this.serviceName, other.serviceName);
+        }
+    }
+
+    private static final class CandidatesEntry {
+
+        private final List<ServiceEndpoint> endpoints;
+
+        private final long expiresAt;
+
+        private CandidatesEntry(final List<ServiceEndpoint> endpoints, final long expiresAt) {
+            this.endpoints = endpoints;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Entry {
+
+        @Nullable
+        private final ServiceEndpoint endpoint;
+
+        private final long expiresAt;
+
+        private Entry(final @Nullable ServiceEndpoint endpoint, final long expiresAt) {
+            this.endpoint = endpoint;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isValid() {
+            return this.endpoint != null || System.currentTimeMillis() < this.expiresAt;
+        }
+    }
+}
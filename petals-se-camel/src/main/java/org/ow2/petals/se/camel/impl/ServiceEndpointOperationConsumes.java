@@ -18,6 +18,7 @@
 package org.ow2.petals.se.camel.impl;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Optional;
 
 import javax.jbi.messaging.MessagingException;
@@ -28,6 +29,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
 import org.ow2.petals.camel.PetalsChannel.PetalsConsumesChannel;
+import org.ow2.petals.camel.component.utils.CircuitBreaker;
 import org.ow2.petals.commons.log.FlowAttributes;
 import org.ow2.petals.component.framework.api.message.Exchange;
 import org.ow2.petals.component.framework.jbidescriptor.generated.Consumes;
@@ -40,11 +42,15 @@ public class ServiceEndpointOperationConsumes extends AbstractServiceEndpointOpe
 
     private final Consumes consumes;
 
-    public ServiceEndpointOperationConsumes(final PetalsCamelSender sender, final Consumes consumes)
-            throws InvalidJBIConfigurationException {
+    @Nullable
+    private final CircuitBreaker circuitBreaker;
+
+    public ServiceEndpointOperationConsumes(final PetalsCamelSender sender, final Consumes consumes,
+            final @Nullable CircuitBreaker circuitBreaker) throws InvalidJBIConfigurationException {
         super(consumes.getInterfaceName(), consumes.getServiceName(), consumes.getEndpointName(),
                 consumes.getOperation(), toMEP(consumes), sender);
         this.consumes = consumes;
+        this.circuitBreaker = circuitBreaker;
     }
 
     @Override
@@ -62,7 +68,54 @@ public class ServiceEndpointOperationConsumes extends AbstractServiceEndpointOpe
 
     @Override
     public @Nullable ServiceEndpoint resolveEndpoint(final QName serviceName, final String endpointName) {
-        return sender.getComponent().getContext().getEndpoint(serviceName, endpointName);
+        return sender.getResolvedEndpoints().resolve(serviceName, endpointName);
+    }
+
+    @Override
+    public List<ServiceEndpoint> resolveEndpoints(final @Nullable QName serviceName) {
+        return sender.getResolvedEndpoints().resolveAll(getInterface(), serviceName);
+    }
+
+    @Override
+    public boolean sendSync(final Exchange exchange, final long timeout) throws MessagingException {
+        try {
+            return super.sendSync(exchange, timeout);
+        } catch (final MessagingException e) {
+            invalidateResolvedEndpoint(exchange);
+            throw e;
+        }
+    }
+
+    @Override
+    public void sendAsync(final Exchange exchange, final long timeout, final SendAsyncCallback callback)
+            throws MessagingException {
+        try {
+            super.sendAsync(exchange, timeout, callback);
+        } catch (final MessagingException e) {
+            invalidateResolvedEndpoint(exchange);
+            throw e;
+        }
+    }
+
+    /**
+     * The endpoint of an exchange that can't be sent may have disappeared from the endpoint registry: it must be
+     * resolved again next time.
+     */
+    private void invalidateResolvedEndpoint(final Exchange exchange) {
+        final ServiceEndpoint endpoint = exchange.getEndpoint();
+        if (endpoint != null) {
+            sender.getResolvedEndpoints().invalidate(endpoint);
+        }
+    }
+
+    @Override
+    public @Nullable CircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    @Override
+    public long getDefaultTimeout() {
+        return this.sender.getTimeout(this.consumes);
     }
 
     @Override
@@ -22,7 +22,9 @@ import java.net.URI;
 import javax.xml.namespace.QName;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.ow2.petals.camel.PetalsChannel.PetalsProvidesChannel;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter;
 import org.ow2.petals.component.framework.api.message.Exchange;
 import org.ow2.petals.component.framework.jbidescriptor.generated.Provides;
 import org.ow2.petals.se.camel.PetalsCamelSender;
@@ -31,11 +33,20 @@ public class ServiceEndpointOperationProvides extends AbstractServiceEndpointOpe
 
     private final Provides provides;
 
+    @Nullable
+    private final ConcurrencyLimiter concurrencyLimiter;
+
     public ServiceEndpointOperationProvides(final QName operation, final URI mep, final PetalsCamelSender sender,
             final Provides provides) {
+        this(operation, mep, sender, provides, null);
+    }
+
+    public ServiceEndpointOperationProvides(final QName operation, final URI mep, final PetalsCamelSender sender,
+            final Provides provides, final @Nullable ConcurrencyLimiter concurrencyLimiter) {
         super(provides.getInterfaceName(), provides.getServiceName(), provides.getEndpointName(), operation, mep,
                 sender);
         this.provides = provides;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
     @Override
@@ -76,4 +87,9 @@ public class ServiceEndpointOperationProvides extends AbstractServiceEndpointOpe
         return this.sender.getComponent().isFlowTracingActivated(exchange.getMessageExchange(), this.provides);
     }
 
+    @Override
+    public @Nullable ConcurrencyLimiter getConcurrencyLimiter() {
+        return this.concurrencyLimiter;
+    }
+
 }
@@ -27,11 +27,39 @@ public interface JbiCamelConstants {
 
     public static final String EL_CONSUMES_SERVICE_ID = "service-id";
 
+    public static final String EL_CONSUMES_CIRCUIT_BREAKER_FAILURE_RATIO = "circuit-breaker-failure-ratio";
+
+    public static final String EL_CONSUMES_CIRCUIT_BREAKER_WINDOW_SIZE = "circuit-breaker-window-size";
+
+    public static final String EL_CONSUMES_CIRCUIT_BREAKER_MINIMUM_CALLS = "circuit-breaker-minimum-calls";
+
+    public static final String EL_CONSUMES_CIRCUIT_BREAKER_OPEN_DURATION = "circuit-breaker-open-duration";
+
+    public static final int DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE = 20;
+
+    public static final int DEFAULT_CIRCUIT_BREAKER_MINIMUM_CALLS = 10;
+
+    public static final long DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = 30000L;
+
     public static final QName EL_SERVICES_ROUTE_CLASS = new QName(CAMEL_JBI_NS_URI, "java-routes");
 
     public static final QName EL_SERVICES_ROUTE_XML = new QName(CAMEL_JBI_NS_URI, "xml-routes");
 
+    public static final QName EL_SERVICES_POOLED_EXCHANGES = new QName(CAMEL_JBI_NS_URI, "pooled-exchanges");
+
     public static final QName EL_WSDL_OPERATION = new QName(CAMEL_WSDL_NS_URI, "operation");
 
     public static final String ATTR_WSDL_OPERATION_SERVICEID = "service-id";
+
+    public static final String ATTR_WSDL_OPERATION_MAX_CONCURRENT_EXCHANGES = "max-concurrent-exchanges";
+
+    public static final String ATTR_WSDL_OPERATION_QUEUE_SIZE = "queue-size";
+
+    public static final String ATTR_WSDL_OPERATION_QUEUE_TARGET = "queue-target";
+
+    public static final String ATTR_WSDL_OPERATION_QUEUE_INTERVAL = "queue-interval";
+
+    public static final long DEFAULT_QUEUE_TARGET = 100L;
+
+    public static final long DEFAULT_QUEUE_INTERVAL = 1000L;
 }
@@ -21,9 +21,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 import javax.xml.namespace.QName;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.ow2.easywsdl.extensions.wsdl4complexwsdl.WSDL4ComplexWsdlFactory;
 import org.ow2.easywsdl.extensions.wsdl4complexwsdl.api.WSDL4ComplexWsdlReader;
 import org.ow2.easywsdl.schema.api.XmlException;
@@ -35,6 +37,8 @@ import org.ow2.easywsdl.wsdl.api.InterfaceType;
 import org.ow2.easywsdl.wsdl.api.Service;
 import org.ow2.easywsdl.wsdl.api.abstractItf.AbsItfOperation.MEPPatternConstants;
 import org.ow2.petals.camel.ServiceEndpointOperation;
+import org.ow2.petals.camel.component.utils.CircuitBreaker;
+import org.ow2.petals.camel.component.utils.ConcurrencyLimiter;
 import org.ow2.petals.se.camel.exceptions.InvalidWSDLException;
 import org.ow2.petals.component.framework.api.configuration.SuConfigurationParameters;
 import org.ow2.petals.component.framework.jbidescriptor.generated.Consumes;
@@ -105,7 +109,7 @@ public class PetalsCamelJBIHelper implements JbiCamelConstants {
                             + ") in the operation " + od.operation);
                 }
                 final ServiceEndpointOperation seo = new ServiceEndpointOperationProvides(od.operation, od.mep, sender,
-                        p);
+                        p, getConcurrencyLimiter(od, sender.getLogger()));
                 if (sid2seo.containsValue(seo)) {
                     throw new InvalidJBIConfigurationException("Duplicate service " + seo);
                 }
@@ -116,10 +120,11 @@ public class PetalsCamelJBIHelper implements JbiCamelConstants {
         // for consumes, there is one serviceId per consumes (because it includes the operation)
         for (final Consumes c : jbiDescriptor.getServices().getConsumes()) {
 
-            final ServiceEndpointOperation seo = new ServiceEndpointOperationConsumes(sender, c);
-
             final String serviceId = getServiceId(c, suDH);
 
+            final ServiceEndpointOperation seo = new ServiceEndpointOperationConsumes(sender, c,
+                    getCircuitBreaker(c, suDH, serviceId, sender.getLogger()));
+
             if (sid2seo.containsKey(serviceId)) {
                 throw new InvalidJBIConfigurationException("Duplicate " + EL_CONSUMES_SERVICE_ID + " (" + serviceId
                         + ") in the consumes " + c.getServiceName());
@@ -142,6 +147,18 @@ public class PetalsCamelJBIHelper implements JbiCamelConstants {
         }
     }
 
+    /**
+     * @return <code>true</code> if the Camel exchanges of the SU must be pooled
+     */
+    public static boolean isPooledExchanges(final Services servicesNode) {
+        for (final Element e : servicesNode.getAnyOrAny()) {
+            if (hasQName(e, EL_SERVICES_POOLED_EXCHANGES)) {
+                return Boolean.parseBoolean(e.getTextContent().trim());
+            }
+        }
+        return false;
+    }
+
     public static List<OperationData> getOperationsAndServiceId(final Document doc, final Provides provides)
             throws URISyntaxException, XmlException, InvalidJBIConfigurationException, InvalidWSDLException {
 
@@ -207,11 +224,34 @@ public class PetalsCamelJBIHelper implements JbiCamelConstants {
                 throw new InvalidJBIConfigurationException(
                         "No " + ATTR_WSDL_OPERATION_SERVICEID + " attribute for the operation " + qName);
             }
-            results.add(new OperationData(qName, mep.value(), serviceId));
+            final OperationData od = new OperationData(qName, mep.value(), serviceId);
+            try {
+                od.maxConcurrentExchanges = getIntAttribute(camelOperation,
+                        ATTR_WSDL_OPERATION_MAX_CONCURRENT_EXCHANGES, 0);
+                od.queueSize = getIntAttribute(camelOperation, ATTR_WSDL_OPERATION_QUEUE_SIZE, 0);
+                od.queueTarget = getLongAttribute(camelOperation, ATTR_WSDL_OPERATION_QUEUE_TARGET,
+                        DEFAULT_QUEUE_TARGET);
+                od.queueInterval = getLongAttribute(camelOperation, ATTR_WSDL_OPERATION_QUEUE_INTERVAL,
+                        DEFAULT_QUEUE_INTERVAL);
+            } catch (final NumberFormatException e) {
+                throw new InvalidJBIConfigurationException(
+                        "Invalid admission control configuration for the operation " + qName, e);
+            }
+            results.add(od);
         }
         return results;
     }
 
+    private static int getIntAttribute(final Element e, final String name, final int defaultValue) {
+        final String value = e.getAttribute(name);
+        return StringHelper.isNullOrEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long getLongAttribute(final Element e, final String name, final long defaultValue) {
+        final String value = e.getAttribute(name);
+        return StringHelper.isNullOrEmpty(value) ? defaultValue : Long.parseLong(value.trim());
+    }
+
     public static boolean hasQName(final Node e, final QName name) {
         return new QName(e.getNamespaceURI(), e.getLocalName()).equals(name);
     }
@@ -230,6 +270,52 @@ public class PetalsCamelJBIHelper implements JbiCamelConstants {
         return serviceId;
     }
 
+    /**
+     * @return the circuit breaker configured for the consumes, {@code null} if there is none
+     */
+    public static @Nullable CircuitBreaker getCircuitBreaker(final Consumes c, final ServiceUnitDataHandler suDH,
+            final String serviceId, final Logger logger) throws InvalidJBIConfigurationException {
+
+        final SuConfigurationParameters extensions = suDH.getConfigurationExtensions(c);
+        final String failureRatio = extensions.get(EL_CONSUMES_CIRCUIT_BREAKER_FAILURE_RATIO);
+        if (failureRatio == null || failureRatio.isEmpty()) {
+            return null;
+        }
+
+        final String windowSize = extensions.get(EL_CONSUMES_CIRCUIT_BREAKER_WINDOW_SIZE);
+        final String minimumCalls = extensions.get(EL_CONSUMES_CIRCUIT_BREAKER_MINIMUM_CALLS);
+        final String openDuration = extensions.get(EL_CONSUMES_CIRCUIT_BREAKER_OPEN_DURATION);
+        try {
+            return new CircuitBreaker(serviceId, logger, Double.parseDouble(failureRatio),
+                    windowSize == null || windowSize.isEmpty() ? DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE
+                            : Integer.parseInt(windowSize),
+                    minimumCalls == null || minimumCalls.isEmpty() ? DEFAULT_CIRCUIT_BREAKER_MINIMUM_CALLS
+                            : Integer.parseInt(minimumCalls),
+                    openDuration == null || openDuration.isEmpty() ? DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION
+                            : Long.parseLong(openDuration));
+        } catch (final IllegalArgumentException e) {
+            throw new InvalidJBIConfigurationException(
+                    "Invalid circuit breaker configuration for the consumes " + serviceId, e);
+        }
+    }
+
+    /**
+     * @return the admission control configured for the provides operation, {@code null} if there is none
+     */
+    public static @Nullable ConcurrencyLimiter getConcurrencyLimiter(final OperationData od, final Logger logger)
+            throws InvalidJBIConfigurationException {
+        if (od.maxConcurrentExchanges <= 0) {
+            return null;
+        }
+        try {
+            return new ConcurrencyLimiter(od.serviceId, logger, od.maxConcurrentExchanges, od.queueSize,
+                    od.queueTarget, od.queueInterval);
+        } catch (final IllegalArgumentException e) {
+            throw new InvalidJBIConfigurationException(
+                    "Invalid admission control configuration for the operation " + od.operation, e);
+        }
+    }
+
     @SuppressWarnings("all")
     public static class OperationData {
 
@@ -239,6 +325,20 @@ public class PetalsCamelJBIHelper implements JbiCamelConstants {
 
         public final String serviceId;
 
+        /**
+         * The number of exchanges processed at the same time by the route, 0 for no limit
+         */
+        public int maxConcurrentExchanges = 0;
+
+        /**
+         * The number of exchanges waiting to be processed when the limit is reached, 0 to reject them immediately
+         */
+        public int queueSize = 0;
+
+        public long queueTarget = DEFAULT_QUEUE_TARGET;
+
+        public long queueInterval = DEFAULT_QUEUE_INTERVAL;
+
         public OperationData(final QName operation, final URI mep, final String serviceId) {
             this.operation = operation;
             this.mep = mep;
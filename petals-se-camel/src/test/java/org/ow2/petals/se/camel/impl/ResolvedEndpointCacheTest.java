@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.se.camel.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jbi.servicedesc.ServiceEndpoint;
+import javax.xml.namespace.QName;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.DocumentFragment;
+
+public class ResolvedEndpointCacheTest {
+
+    private static final QName SERVICE = new QName("http://petals.ow2.org", "HelloService");
+
+    private static final QName INTERFACE = new QName("http://petals.ow2.org", "Hello");
+
+    private static final String ENDPOINT = "helloEndpoint";
+
+    private final AtomicInteger resolutions = new AtomicInteger();
+
+    @Test
+    public void testResolvedEndpointIsCachedUntilInvalidation() {
+        final ServiceEndpoint endpoint = createEndpoint(SERVICE, ENDPOINT);
+        final ResolvedEndpointCache cache = new ResolvedEndpointCache((s, e) -> {
+            resolutions.incrementAndGet();
+            return endpoint;
+        }, ResolvedEndpointCache.DEFAULT_NEGATIVE_TTL);
+
+        assertSame(endpoint, cache.resolve(SERVICE, ENDPOINT));
+        assertSame(endpoint, cache.resolve(SERVICE, ENDPOINT));
+        assertEquals(1, resolutions.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        cache.invalidate(endpoint);
+        assertSame(endpoint, cache.resolve(SERVICE, ENDPOINT));
+        assertEquals(2, resolutions.get());
+
+        cache.invalidateAll();
+        assertSame(endpoint, cache.resolve(SERVICE, ENDPOINT));
+        assertEquals(3, resolutions.get());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testUnknownEndpointIsCachedDuringNegativeTTL() throws InterruptedException {
+        final ResolvedEndpointCache cache = new ResolvedEndpointCache((s, e) -> {
+            resolutions.incrementAndGet();
+            return null;
+        }, 100L);
+
+        assertNull(cache.resolve(SERVICE, ENDPOINT));
+        assertNull(cache.resolve(SERVICE, ENDPOINT));
+        assertEquals(1, resolutions.get());
+
+        Thread.sleep(150L);
+
+        assertNull(cache.resolve(SERVICE, ENDPOINT));
+        assertEquals(2, resolutions.get());
+    }
+
+    @Test
+    public void testCandidatesAreCachedUntilInvalidation() {
+        final ServiceEndpoint endpoint1 = createEndpoint(SERVICE, ENDPOINT);
+        final ServiceEndpoint endpoint2 = createEndpoint(SERVICE, ENDPOINT + "2");
+        final ResolvedEndpointCache cache = new ResolvedEndpointCache((s, e) -> null, (i, s) -> {
+            resolutions.incrementAndGet();
+            return new ServiceEndpoint[] { endpoint1, endpoint2 };
+        }, ResolvedEndpointCache.DEFAULT_NEGATIVE_TTL, ResolvedEndpointCache.DEFAULT_CANDIDATES_TTL);
+
+        assertEquals(List.of(endpoint1, endpoint2), cache.resolveAll(INTERFACE, SERVICE));
+        assertEquals(List.of(endpoint1, endpoint2), cache.resolveAll(INTERFACE, SERVICE));
+        assertEquals(1, resolutions.get());
+
+        // the interface alone is another resolution
+        cache.resolveAll(INTERFACE, null);
+        assertEquals(2, resolutions.get());
+
+        cache.invalidate(endpoint2);
+        cache.resolveAll(INTERFACE, SERVICE);
+        cache.resolveAll(INTERFACE, null);
+        assertEquals(4, resolutions.get());
+    }
+
+    private static ServiceEndpoint createEndpoint(final QName service, final String endpoint) {
+        return new ServiceEndpoint() {
+            @Override
+            public QName getServiceName() {
+                return service;
+            }
+
+            @Override
+            public QName[] getInterfaces() {
+                return new QName[0];
+            }
+
+            @Override
+            public String getEndpointName() {
+                return endpoint;
+            }
+
+            @Override
+            public @Nullable DocumentFragment getAsReference(final @Nullable QName operationName) {
+                return null;
+            }
+        };
+    }
+}
@@ -18,6 +18,7 @@
 package org.ow2.petals.se.camel.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import java.util.List;
 
@@ -42,6 +43,8 @@ public class PetalsCamelJBIHelperTest {
 
     private static final String WSDL11 = "/tests/service-1.1.wsdl";
 
+    private static final String WSDL11_ADMISSION = "/tests/service-1.1-admission.wsdl";
+
     private static final String JBI_XML = "/tests/jbi-xml.xml";
 
     private static final String JBI_JAVA = "/tests/jbi-java.xml";
@@ -51,6 +54,7 @@ public class PetalsCamelJBIHelperTest {
         final Jbi jbi = getJBI(JBI_JAVA);
 
         testPopulateRouteLists(jbi, 1, 0);
+        assertFalse(PetalsCamelJBIHelper.isPooledExchanges(jbi.getServices()));
     }
 
     @Test
@@ -76,6 +80,27 @@ public class PetalsCamelJBIHelperTest {
         assertEquals("sayHelloWithoutEcho-provider", res.get(1).serviceId);
         assertEquals("sayHelloWithoutEchoRobust-provider", res.get(2).serviceId);
 
+        assertEquals(0, res.get(2).maxConcurrentExchanges);
+
+    }
+
+    @Test
+    public void testWsdl11AdmissionOk() throws Exception {
+
+        final Document doc = getWSDL(WSDL11_ADMISSION, WSDLVersionConstants.WSDL11);
+
+        final Provides provides = new Provides();
+        provides.setEndpointName("autogenerate");
+        provides.setServiceName(new QName("http://petals.ow2.org", "HelloService"));
+        provides.setInterfaceName(new QName("http://petals.ow2.org", "HelloInterface"));
+        final List<OperationData> res = PetalsCamelJBIHelper.getOperationsAndServiceId(doc, provides);
+
+        assertEquals(3, res.size());
+        assertEquals(0, res.get(0).maxConcurrentExchanges);
+        assertEquals(100, res.get(2).maxConcurrentExchanges);
+        assertEquals(1000, res.get(2).queueSize);
+        assertEquals(JbiCamelConstants.DEFAULT_QUEUE_TARGET, res.get(2).queueTarget);
+
     }
 
     @Test
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2026 Linagora
+ * 
+ * This program/library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program/library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program/library; If not, see http://www.gnu.org/licenses/
+ * for the GNU Lesser General Public License version 2.1.
+ */
+package org.ow2.petals.samples.camel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.attachment.AttachmentMessage;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.junit5.CamelTestSupport;
+import org.junit.jupiter.api.Test;
+import org.ow2.petals.SayHello;
+import org.ow2.petals.camel.helpers.MarshallingHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+public class MarshallingHelperTest extends CamelTestSupport {
+
+    private static final int THREADS = 8;
+
+    private static final int ITERATIONS = 200;
+
+    @Test
+    public void testConcurrentStreamBody() throws Exception {
+        runConcurrently(new MarshallingHelper(
+                JAXBContext.newInstance(org.ow2.petals.ObjectFactory.class, Document.class), 2, false));
+    }
+
+    @Test
+    public void testConcurrentBytesBody() throws Exception {
+        runConcurrently(new MarshallingHelper(
+                JAXBContext.newInstance(org.ow2.petals.ObjectFactory.class, Document.class), 2, true));
+    }
+
+    /**
+     * With only one pooled marshaller, the one used with XOP is borrowed again without it: the attachments must not
+     * be added to the exchange it was previously used for.
+     */
+    @Test
+    public void testAttachmentMarshallerResetBetweenBorrows() throws Exception {
+        final MarshallingHelper marshalling = new MarshallingHelper(JAXBContext.newInstance(Document.class), 1);
+
+        final Exchange withXop = new DefaultExchange(this.context);
+        marshalling.marshal(withXop, new Document("first"), true);
+        assertEquals(1, attachments(withXop));
+
+        final Exchange withoutXop = new DefaultExchange(this.context);
+        marshalling.marshal(withoutXop, new Document("second"), false);
+        assertEquals(1, attachments(withXop));
+        assertEquals(0, attachments(withoutXop));
+
+        assertArrayEquals(bytes("first"), marshalling.unmarshal(withXop, Document.class).content);
+        assertArrayEquals(bytes("second"), marshalling.unmarshal(withoutXop, Document.class).content);
+    }
+
+    private void runConcurrently(final MarshallingHelper marshalling) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int thread = i;
+                tasks.add(() -> {
+                    for (int j = 0; j < ITERATIONS; j++) {
+                        roundTrip(marshalling, "thread-" + thread + "-" + j, (thread + j) % 2 == 0);
+                    }
+                    return null;
+                });
+            }
+            for (final Future<Void> result : executor.invokeAll(tasks)) {
+                // rethrows the failed assertions
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void roundTrip(final MarshallingHelper marshalling, final String value, final boolean xop)
+            throws Exception {
+        final Exchange document = new DefaultExchange(this.context);
+        marshalling.marshal(document, new Document(value), xop);
+        // an attachment marshaller left on a pooled marshaller would add the attachments to another exchange
+        assertEquals(xop ? 1 : 0, attachments(document), value);
+        assertArrayEquals(bytes(value), marshalling.unmarshal(document, Document.class).content, value);
+
+        final Exchange hello = new DefaultExchange(this.context);
+        final SayHello sayHello = new SayHello();
+        sayHello.setArg0(value);
+        marshalling.marshal(hello, new org.ow2.petals.ObjectFactory().createSayHello(sayHello), xop);
+        assertEquals(0, attachments(hello), value);
+        assertEquals(value, marshalling.unmarshal(hello, SayHello.class).getArg0());
+    }
+
+    private static int attachments(final Exchange exchange) {
+        // the attachments are added to the message holding the body to marshal
+        return exchange.getIn(AttachmentMessage.class).getAttachmentNames().size();
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A document whose content is sent as an attachment with XOP
+     */
+    @XmlRootElement(name = "document", namespace = "http://petals.ow2.org/test/marshalling")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Document {
+
+        public byte[] content;
+
+        public Document() {
+            // for JAXB
+        }
+
+        public Document(final String content) {
+            this.content = bytes(content);
+        }
+    }
+}